@@ -0,0 +1,84 @@
+package com.psouza.online.sales.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import com.psouza.online.sales.cache.ClientExistenceFilter;
+import com.psouza.online.sales.config.ClientExistenceProperties;
+import com.psouza.online.sales.config.ClientImportProperties;
+import com.psouza.online.sales.config.ValidatorConfig;
+import com.psouza.online.sales.domain.Client;
+import com.psouza.online.sales.domain.ClientImportEvent;
+import com.psouza.online.sales.repository.InMemoryClientRepository;
+import com.psouza.online.sales.usecase.ClientImport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+/**
+ * ClientImport of a CSV file into an in-memory client base, for a few batch sizes. The first
+ * invocation inserts the clients and the following ones update them, as a partner re-sending its
+ * file would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientImportBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    @Param({"100", "1000"})
+    private int batchSize;
+
+    private LocalValidatorFactoryBean factory;
+    private ClientImport clientImport;
+    private byte[] csv;
+
+    @Setup
+    public void setUp() {
+        factory = (LocalValidatorFactoryBean) new ValidatorConfig().validatorFactory();
+        factory.afterPropertiesSet();
+
+        InMemoryClientRepository repository = new InMemoryClientRepository();
+        ClientExistenceFilter existenceFilter = new ClientExistenceFilter(repository, new ClientExistenceProperties());
+        ClientImportProperties properties = new ClientImportProperties();
+        properties.setBatchSize(batchSize);
+        clientImport = new ClientImport(repository, existenceFilter, factory, Fixtures.objectMapper(), properties);
+
+        StringBuilder file = new StringBuilder("name,cpf,tel,email,address,addressNumber,city,estate\n");
+        for (int i = 0; i < rows; i++) {
+            Client client = Fixtures.client(i);
+            file.append(String.join(",", client.getName(), client.getCpf(), String.valueOf(client.getTel()),
+                    client.getEmail(), client.getAddress(), String.valueOf(client.getAddressNumber()),
+                    client.getCity(), client.getEstate())).append('\n');
+        }
+        csv = file.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public ClientImportEvent importCsv() throws IOException {
+        return clientImport.run(clientImport.open(new ByteArrayInputStream(csv)), OutputStream.nullOutputStream());
+    }
+}
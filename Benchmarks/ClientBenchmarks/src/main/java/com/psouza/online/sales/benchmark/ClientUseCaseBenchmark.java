@@ -0,0 +1,135 @@
+package com.psouza.online.sales.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.psouza.online.sales.cache.ClientExistenceFilter;
+import com.psouza.online.sales.cache.LookupCoalescer;
+import com.psouza.online.sales.config.ClientExistenceProperties;
+import com.psouza.online.sales.config.ClientListingProperties;
+import com.psouza.online.sales.config.ValidatorConfig;
+import com.psouza.online.sales.domain.Client;
+import com.psouza.online.sales.domain.CursorPage;
+import com.psouza.online.sales.exception.EntityNotFoundException;
+import com.psouza.online.sales.repository.InMemoryClientRepository;
+import com.psouza.online.sales.usecase.ClientRegistration;
+import com.psouza.online.sales.usecase.SearchClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * SearchClient and ClientRegistration over an in-memory client base, with the existence filter on
+ * and off, so the use case and filter overhead is measured without any MongoDB round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientUseCaseBenchmark {
+
+    private static final int CURSOR_PAGE_SIZE = 50;
+
+    @Param({"true", "false"})
+    private boolean existenceFilterEnabled;
+
+    @Param({"10000"})
+    private int clientCount;
+
+    private SearchClient searchClient;
+    private ClientRegistration clientRegistration;
+    private LocalValidatorFactoryBean validatorFactory;
+    private String[] ids;
+    private String[] cpfs;
+
+    @Setup
+    public void setUp() {
+        InMemoryClientRepository repository = new InMemoryClientRepository();
+        List<Client> clients = Fixtures.clients(clientCount);
+        repository.insert(clients);
+        ids = clients.stream().map(Client::getId).toArray(String[]::new);
+        cpfs = clients.stream().map(Client::getCpf).toArray(String[]::new);
+
+        ClientExistenceProperties properties = new ClientExistenceProperties();
+        properties.setEnabled(existenceFilterEnabled);
+        properties.setExpectedInsertions(clientCount * 2L);
+        ClientExistenceFilter existenceFilter = new ClientExistenceFilter(repository, properties);
+        existenceFilter.rebuild();
+        searchClient = new SearchClient(repository, existenceFilter, new LookupCoalescer(new SimpleMeterRegistry()),
+                new ClientListingProperties());
+        validatorFactory = (LocalValidatorFactoryBean) new ValidatorConfig().validatorFactory();
+        validatorFactory.afterPropertiesSet();
+        clientRegistration = new ClientRegistration(repository, existenceFilter, validatorFactory,
+                Fixtures.objectMapper());
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Client searchById() {
+        return searchClient.searchById(ids[next()]);
+    }
+
+    @Benchmark
+    public Client searchByCpf() {
+        return searchClient.searchByCpf(cpfs[next()]);
+    }
+
+    @Benchmark
+    public Object searchMissingCpf() {
+        try {
+            return searchClient.searchByCpf("missing-" + next());
+        } catch (EntityNotFoundException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Boolean isRegistered() {
+        return searchClient.isRegistered(ids[next()]);
+    }
+
+    @Benchmark
+    public CursorPage<Client> searchCursorPage() {
+        return searchClient.search("", CURSOR_PAGE_SIZE, "cpf");
+    }
+
+    @Benchmark
+    public Client updateClient() {
+        int index = next();
+        Client client = Fixtures.client(index);
+        client.setName("Updated " + client.getName());
+        return clientRegistration.update(client);
+    }
+
+    @Benchmark
+    public Client patchClient() {
+        int index = next();
+        ObjectNode patch = JsonNodeFactory.instance.objectNode().put("tel", 11900000000L + index);
+        return clientRegistration.patch(cpfs[index], patch, null, null);
+    }
+
+    private int next() {
+        return ThreadLocalRandom.current().nextInt(clientCount);
+    }
+}
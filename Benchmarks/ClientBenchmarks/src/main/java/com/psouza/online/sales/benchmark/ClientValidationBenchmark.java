@@ -0,0 +1,67 @@
+package com.psouza.online.sales.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.psouza.online.sales.config.ValidatorConfig;
+import com.psouza.online.sales.domain.Client;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+/**
+ * Bean Validation of a client through the validator declared in ValidatorConfig, for a valid
+ * client and for one with a blank name, a malformed email and no address number.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientValidationBenchmark {
+
+    private LocalValidatorFactoryBean factory;
+    private Validator validator;
+    private Client valid;
+    private Client invalid;
+
+    @Setup
+    public void setUp() {
+        factory = (LocalValidatorFactoryBean) new ValidatorConfig().validatorFactory();
+        factory.afterPropertiesSet();
+        validator = factory;
+
+        valid = Fixtures.client(1);
+        invalid = Fixtures.client(2);
+        invalid.setName("");
+        invalid.setEmail("not-an-email");
+        invalid.setAddressNumber(null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Client>> validateValidClient() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Client>> validateInvalidClient() {
+        return validator.validate(invalid);
+    }
+}
@@ -0,0 +1,52 @@
+package com.psouza.online.sales.benchmark;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.psouza.online.sales.domain.Client;
+import org.bson.types.ObjectId;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Clients and the object mapper shared by the benchmarks.
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Builds a mapper configured like the one Spring Boot gives the service.
+     */
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    public static Client client(int index) {
+        return Client.builder()
+                .id(new ObjectId().toHexString())
+                .name("Client " + index)
+                .cpf(cpf(index))
+                .tel(11_900_000_000L + index)
+                .email("client" + index + "@example.com")
+                .address("Avenida Paulista")
+                .addressNumber(1000 + index % 1000)
+                .city("São Paulo")
+                .estate("SP")
+                .version(0L)
+                .build();
+    }
+
+    public static List<Client> clients(int count) {
+        return IntStream.range(0, count).mapToObj(Fixtures::client).collect(Collectors.toList());
+    }
+
+    public static String cpf(int index) {
+        return String.format("%011d", index);
+    }
+}
@@ -0,0 +1,76 @@
+package com.psouza.online.sales.exception;
+
+import java.util.concurrent.TimeUnit;
+
+import com.psouza.online.sales.domain.Client;
+import com.psouza.online.sales.errorhandling.ApiError;
+import com.psouza.online.sales.metrics.ErrorMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Cost of the not found path: building the exception with its stack trace and message, the
+ * ApiError body and the response entity of RestExceptionHandler. Lives in the exception package to
+ * reach the protected handler methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorHandlingBenchmark {
+
+    private RestExceptionHandler handler;
+    private EntityNotFoundException notFound;
+    private BadRequestException badRequest;
+
+    @Setup
+    public void setUp() {
+        handler = new RestExceptionHandler(new ErrorMetrics(new SimpleMeterRegistry()));
+        notFound = new EntityNotFoundException(Client.class, "id", "507f1f77bcf86cd799439011");
+        badRequest = new BadRequestException("Clients can only be paginated by id or cpf");
+    }
+
+    @Benchmark
+    public EntityNotFoundException createEntityNotFoundException() {
+        return new EntityNotFoundException(Client.class, "cpf", "12345678900");
+    }
+
+    @Benchmark
+    public ApiError createApiError() {
+        ApiError apiError = new ApiError(HttpStatus.NOT_FOUND);
+        apiError.setMessage(notFound.getMessage());
+        return apiError;
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> handleEntityNotFound() {
+        return handler.handleEntityNotFound(notFound);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> handleBadRequest() {
+        return handler.handleBadRequest(badRequest);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> throwAndHandleEntityNotFound() {
+        try {
+            throw new EntityNotFoundException(Client.class, "cpf", "12345678900");
+        } catch (EntityNotFoundException ex) {
+            return handler.handleEntityNotFound(ex);
+        }
+    }
+}
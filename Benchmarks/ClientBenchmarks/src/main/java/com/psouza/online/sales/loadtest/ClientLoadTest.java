@@ -0,0 +1,98 @@
+package com.psouza.online.sales.loadtest;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psouza.online.sales.benchmark.Fixtures;
+import com.psouza.online.sales.domain.Client;
+import com.psouza.online.sales.repository.IClientRepository;
+import com.psouza.online.sales.repository.InMemoryClientRepository;
+
+/**
+ * Open-loop load test of the client endpoints. Starts the ClientService in this JVM on a random
+ * port, backed by an in-memory client base that answers after {@code --repository-latency}, and
+ * drives it with the operation mix at a fixed rate.
+ * <pre>
+ * java -cp Benchmarks/ClientBenchmarks/target/benchmarks.jar com.psouza.online.sales.loadtest.ClientLoadTest \
+ *     --rate=500 --duration=60s --repository-latency=5ms --virtual-threads=true
+ * </pre>
+ * The sparse fieldset reads and the partial updates ({@code patch}) can be added with {@code --mix}.
+ */
+public class ClientLoadTest {
+
+    private static final String DEFAULT_MIX = "getById:40,getByCpf:25,getMissing:5,list:5,cursor:10,update:10,register:5";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse("client-service", DEFAULT_MIX, args);
+        if (options.isReactive()) {
+            throw new IllegalArgumentException("The ClientService has no reactive mode");
+        }
+
+        List<Client> clients = Fixtures.clients(options.getDatasetSize());
+        InMemoryClientRepository store = new InMemoryClientRepository();
+        store.insert(clients);
+        IClientRepository clientRepository =
+                SlowRepositories.blocking(IClientRepository.class, store, options.getRepositoryLatency());
+
+        SpringApplicationBuilder application = new SpringApplicationBuilder(ClientLoadTestApplication.class)
+                .initializers(context -> context.getBeanFactory().registerSingleton("clientRepository", clientRepository));
+
+        try (ConfigurableApplicationContext context = application.run(options.springArguments())) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            OpenLoopDriver driver = new OpenLoopDriver(options, URI.create("http://localhost:" + port),
+                    operations(clients, Fixtures.objectMapper()));
+
+            LoadTestReport report = driver.run();
+            report.write(options.getOutput());
+            report.print(System.out);
+            System.out.println("Report written to " + options.getOutput().toAbsolutePath());
+        }
+    }
+
+    private static List<Operation> operations(List<Client> clients, ObjectMapper mapper) {
+        AtomicInteger registered = new AtomicInteger(clients.size());
+        return List.of(
+                Operation.get("getById", () -> "/client/" + any(clients).getId()),
+                Operation.get("getByCpf", () -> "/client/cpf/" + any(clients).getCpf()),
+                Operation.get("getMissing", () -> "/client/cpf/9" + ThreadLocalRandom.current().nextInt(1_000_000_000), 404),
+                Operation.get("list", () -> "/client?page=" + ThreadLocalRandom.current().nextInt(clients.size() / 20 + 1) + "&size=20"),
+                Operation.get("cursor", () -> "/client?cursor=&size=50&sortBy=cpf"),
+                Operation.get("getByIdSparse", () -> "/client/" + any(clients).getId() + "?fields=name,cpf"),
+                Operation.get("listSparse", () -> "/client?page=" + ThreadLocalRandom.current().nextInt(clients.size() / 20 + 1) + "&size=20&fields=name,cpf"),
+                Operation.put("update", () -> "/client", () -> {
+                    Client client = Fixtures.client(ThreadLocalRandom.current().nextInt(clients.size()));
+                    client.setAddressNumber(ThreadLocalRandom.current().nextInt(1, 10_000));
+                    return json(mapper, client);
+                }),
+                Operation.patch("patch", () -> "/client/" + any(clients).getCpf(), () -> json(mapper,
+                        Map.of("addressNumber", ThreadLocalRandom.current().nextInt(1, 10_000)))),
+                Operation.post("register", () -> "/client", () -> {
+                    Client client = Fixtures.client(registered.getAndIncrement());
+                    client.setId(null);
+                    client.setVersion(null);
+                    return json(mapper, client);
+                }));
+    }
+
+    private static Client any(List<Client> clients) {
+        return clients.get(ThreadLocalRandom.current().nextInt(clients.size()));
+    }
+
+    private static byte[] json(ObjectMapper mapper, Object value) {
+        try {
+            return mapper.writeValueAsString(value).getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
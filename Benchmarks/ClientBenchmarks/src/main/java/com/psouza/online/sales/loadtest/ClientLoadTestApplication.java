@@ -0,0 +1,38 @@
+package com.psouza.online.sales.loadtest;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+
+import com.psouza.online.sales.ClientServiceApplication;
+import com.psouza.online.sales.config.MongoConfig;
+
+/**
+ * The ClientService application without MongoDB: the same components and auto-configuration, but
+ * no Mongo client and no Spring Data repositories. {@link ClientLoadTest} registers the in-memory
+ * repository in their place.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {
+        DataSourceAutoConfiguration.class,
+        MongoAutoConfiguration.class,
+        MongoDataAutoConfiguration.class,
+        MongoRepositoriesAutoConfiguration.class,
+        MongoReactiveAutoConfiguration.class,
+        MongoReactiveDataAutoConfiguration.class,
+        MongoReactiveRepositoriesAutoConfiguration.class})
+@ComponentScan(basePackages = "com.psouza.online.sales", excludeFilters = {
+        @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                classes = {ClientServiceApplication.class, MongoConfig.class}),
+        @ComponentScan.Filter(type = FilterType.REGEX, pattern = "com\\.psouza\\.online\\.sales\\.loadtest\\..*")})
+public class ClientLoadTestApplication {
+
+}
@@ -0,0 +1,495 @@
+package com.psouza.online.sales.repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.psouza.online.sales.domain.Client;
+import org.bson.BsonDocument;
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+
+/**
+ * Concurrency-safe {@link IClientRepository} kept in memory, used to measure the use cases without
+ * MongoDB. Clients are copied on the way in and out, like a round trip through the database, and
+ * the unique cpf and email indexes and the version are maintained as MongoDB would. Ids and cpfs
+ * are kept in sorted maps so keyset pages are range reads, like on the real indexes. Reads never
+ * block, writes are serialized by a lock so the maps stay consistent.
+ */
+public class InMemoryClientRepository implements IClientRepository {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private static final Map<String, Function<Client, Comparable<?>>> SORT_KEYS = Map.of(
+            "id", Client::getId,
+            "name", Client::getName,
+            "cpf", Client::getCpf,
+            "email", Client::getEmail,
+            "city", Client::getCity,
+            "estate", Client::getEstate,
+            "version", Client::getVersion);
+
+    private final NavigableMap<String, Client> clients = new ConcurrentSkipListMap<>();
+    private final NavigableMap<String, String> idsByCpf = new ConcurrentSkipListMap<>();
+    private final Map<String, String> idsByEmail = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @Override
+    public <S extends Client> S insert(S entity) {
+        writeLock.lock();
+        try {
+            if (entity.getId() == null) {
+                entity.setId(new ObjectId().toHexString());
+            }
+            if (clients.containsKey(entity.getId())) {
+                throw duplicateKey("_id", entity.getId());
+            }
+            if (idsByCpf.containsKey(entity.getCpf())) {
+                throw duplicateKey("cpf", entity.getCpf());
+            }
+            if (idsByEmail.containsKey(entity.getEmail())) {
+                throw duplicateKey("email", entity.getEmail());
+            }
+            if (entity.getVersion() == null) {
+                entity.setVersion(0L);
+            }
+            store(entity);
+            return entity;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public <S extends Client> List<S> insert(Iterable<S> entities) {
+        List<S> inserted = new ArrayList<>();
+        entities.forEach(entity -> inserted.add(insert(entity)));
+        return inserted;
+    }
+
+    @Override
+    public <S extends Client> S save(S entity) {
+        if (entity.getId() == null || entity.getVersion() == null) {
+            return insert(entity);
+        }
+
+        writeLock.lock();
+        try {
+            Client stored = clients.get(entity.getId());
+            if (stored == null || !entity.getVersion().equals(stored.getVersion())) {
+                throw new OptimisticLockingFailureException("Client " + entity.getId() + " was changed since it was read");
+            }
+            String cpfOwner = idsByCpf.get(entity.getCpf());
+            if (cpfOwner != null && !cpfOwner.equals(entity.getId())) {
+                throw duplicateKey("cpf", entity.getCpf());
+            }
+            String emailOwner = idsByEmail.get(entity.getEmail());
+            if (emailOwner != null && !emailOwner.equals(entity.getId())) {
+                throw duplicateKey("email", entity.getEmail());
+            }
+            unindex(stored);
+            entity.setVersion(entity.getVersion() + 1);
+            store(entity);
+            return entity;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public <S extends Client> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public Optional<Client> findById(String id) {
+        return Optional.ofNullable(clients.get(id)).map(InMemoryClientRepository::copy);
+    }
+
+    @Override
+    public Optional<Client> findByCpf(String cpf) {
+        String id = idsByCpf.get(cpf);
+        return id == null ? Optional.empty() : findById(id);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return clients.containsKey(id);
+    }
+
+    @Override
+    public boolean existsByCpf(String cpf) {
+        return idsByCpf.containsKey(cpf);
+    }
+
+    @Override
+    public List<Client> findAll() {
+        return snapshot().collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Client> findAllById(Iterable<String> ids) {
+        return StreamSupport.stream(ids.spliterator(), false)
+                .distinct()
+                .map(this::findById)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Client> findAll(Sort sort) {
+        return snapshot().sorted(comparator(sort)).collect(Collectors.toList());
+    }
+
+    @Override
+    public Page<Client> findAll(Pageable pageable) {
+        List<Client> all = clients.values().stream().sorted(comparator(pageable.getSort())).toList();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(all.stream().map(InMemoryClientRepository::copy).toList(), pageable, all.size());
+        }
+        List<Client> content = all.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(InMemoryClientRepository::copy)
+                .toList();
+        return new PageImpl<>(content, pageable, all.size());
+    }
+
+    @Override
+    public Slice<Client> findAllBy(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(findAll(pageable).getContent(), pageable, false);
+        }
+        List<Client> content = clients.values().stream()
+                .sorted(comparator(pageable.getSort()))
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1L)
+                .map(InMemoryClientRepository::copy)
+                .toList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    public long estimatedCount() {
+        return clients.size();
+    }
+
+    @Override
+    public long count() {
+        return clients.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        writeLock.lock();
+        try {
+            Client removed = clients.remove(id);
+            if (removed != null) {
+                unindex(removed);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void delete(Client entity) {
+        deleteById(entity.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Client> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        writeLock.lock();
+        try {
+            clients.clear();
+            idsByCpf.clear();
+            idsByEmail.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Client> findAfter(String field, String lastValue, int limit, Set<String> fields) {
+        Stream<Client> after;
+        if ("cpf".equals(field)) {
+            NavigableMap<String, String> cpfs = lastValue == null ? idsByCpf : idsByCpf.tailMap(lastValue, false);
+            after = cpfs.values().stream().map(clients::get).filter(Objects::nonNull);
+        } else {
+            after = (lastValue == null ? clients : clients.tailMap(lastValue, false)).values().stream();
+        }
+        return after.limit(limit)
+                .map(client -> project(client, fields))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Slice<Client> findSlice(Pageable pageable, Set<String> fields) {
+        Slice<Client> slice = findAllBy(pageable);
+        return slice.map(client -> project(client, fields));
+    }
+
+    @Override
+    public Optional<Client> findProjected(String field, String value, Set<String> fields) {
+        Optional<Client> client = "cpf".equals(field)
+                ? Optional.ofNullable(idsByCpf.get(value)).map(clients::get)
+                : Optional.ofNullable(clients.get(value));
+        return client.map(found -> project(found, fields));
+    }
+
+    @Override
+    public Optional<Client> findVersionById(String id) {
+        return Optional.ofNullable(clients.get(id)).map(InMemoryClientRepository::version);
+    }
+
+    @Override
+    public Optional<Client> findVersionByCpf(String cpf) {
+        String id = idsByCpf.get(cpf);
+        return id == null ? Optional.empty() : findVersionById(id);
+    }
+
+    @Override
+    public Client updateByCpf(Client client, String expectedId, Long expectedVersion) {
+        writeLock.lock();
+        try {
+            String id = idsByCpf.get(client.getCpf());
+            Client stored = id == null ? null : clients.get(id);
+            if (stored == null || (expectedId != null && !expectedId.equals(id))) {
+                return null;
+            }
+            long version = stored.getVersion() == null ? 0L : stored.getVersion();
+            if (expectedVersion != null && expectedVersion != version) {
+                return null;
+            }
+            String emailOwner = idsByEmail.get(client.getEmail());
+            if (emailOwner != null && !emailOwner.equals(id)) {
+                throw duplicateKey("email", client.getEmail());
+            }
+
+            Client updated = copy(stored);
+            updated.setName(client.getName());
+            updated.setTel(client.getTel());
+            updated.setEmail(client.getEmail());
+            updated.setAddress(client.getAddress());
+            updated.setAddressNumber(client.getAddressNumber());
+            updated.setCity(client.getCity());
+            updated.setEstate(client.getEstate());
+            updated.setVersion(version + 1);
+            unindex(stored);
+            store(updated);
+            return copy(updated);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Client updateFieldsByCpf(String cpf, Map<String, Object> fields, String expectedId, Long expectedVersion) {
+        writeLock.lock();
+        try {
+            String id = idsByCpf.get(cpf);
+            Client stored = id == null ? null : clients.get(id);
+            if (stored == null || (expectedId != null && !expectedId.equals(id))) {
+                return null;
+            }
+            long version = stored.getVersion() == null ? 0L : stored.getVersion();
+            if (expectedVersion != null && expectedVersion != version) {
+                return null;
+            }
+            Object email = fields.get("email");
+            String emailOwner = email == null ? null : idsByEmail.get(email);
+            if (emailOwner != null && !emailOwner.equals(id)) {
+                throw duplicateKey("email", (String) email);
+            }
+
+            Client updated = copy(stored);
+            BeanWrapper wrapper = new BeanWrapperImpl(updated);
+            fields.forEach(wrapper::setPropertyValue);
+            updated.setVersion(version + 1);
+            unindex(stored);
+            store(updated);
+            return copy(updated);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<BulkWriteError> upsertByCpf(List<Client> batch) {
+        List<BulkWriteError> errors = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Client client = batch.get(i);
+            try {
+                if (updateByCpf(client, null, null) == null) {
+                    Client inserted = copy(client);
+                    inserted.setId(null);
+                    inserted.setVersion(1L);
+                    insert(inserted);
+                    client.setId(inserted.getId());
+                }
+            } catch (DuplicateKeyException ex) {
+                errors.add(new BulkWriteError(DUPLICATE_KEY, ex.getMessage(), new BsonDocument(), i));
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public Stream<Client> streamIdsAndCpfs() {
+        return clients.values().stream().map(client -> Client.builder()
+                .id(client.getId())
+                .cpf(client.getCpf())
+                .build());
+    }
+
+    @Override
+    public <S extends Client> Optional<S> findOne(Example<S> example) {
+        throw exampleNotSupported();
+    }
+
+    @Override
+    public <S extends Client> List<S> findAll(Example<S> example) {
+        throw exampleNotSupported();
+    }
+
+    @Override
+    public <S extends Client> List<S> findAll(Example<S> example, Sort sort) {
+        throw exampleNotSupported();
+    }
+
+    @Override
+    public <S extends Client> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw exampleNotSupported();
+    }
+
+    @Override
+    public <S extends Client> long count(Example<S> example) {
+        throw exampleNotSupported();
+    }
+
+    @Override
+    public <S extends Client> boolean exists(Example<S> example) {
+        throw exampleNotSupported();
+    }
+
+    @Override
+    public <S extends Client, R> R findBy(Example<S> example,
+                                          Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw exampleNotSupported();
+    }
+
+    private void store(Client client) {
+        clients.put(client.getId(), copy(client));
+        idsByCpf.put(client.getCpf(), client.getId());
+        idsByEmail.put(client.getEmail(), client.getId());
+    }
+
+    private void unindex(Client client) {
+        idsByCpf.remove(client.getCpf());
+        idsByEmail.remove(client.getEmail());
+    }
+
+    private Stream<Client> snapshot() {
+        return clients.values().stream().map(InMemoryClientRepository::copy);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Client> comparator(Sort sort) {
+        Comparator<Client> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Function<Client, Comparable> key = (Function) SORT_KEYS.getOrDefault(order.getProperty(), client -> null);
+            Comparator<Client> byKey = Comparator.comparing(key, Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byKey : byKey.reversed());
+        }
+        return comparator;
+    }
+
+    private static Client copy(Client client) {
+        return Client.builder()
+                .id(client.getId())
+                .name(client.getName())
+                .cpf(client.getCpf())
+                .tel(client.getTel())
+                .email(client.getEmail())
+                .address(client.getAddress())
+                .addressNumber(client.getAddressNumber())
+                .city(client.getCity())
+                .estate(client.getEstate())
+                .version(client.getVersion())
+                .build();
+    }
+
+    /**
+     * Copies only the given properties, and always the id, like a MongoDB projection.
+     */
+    private static Client project(Client client, Set<String> fields) {
+        if (fields == null) {
+            return copy(client);
+        }
+        return Client.builder()
+                .id(client.getId())
+                .name(fields.contains("name") ? client.getName() : null)
+                .cpf(fields.contains("cpf") ? client.getCpf() : null)
+                .tel(fields.contains("tel") ? client.getTel() : null)
+                .email(fields.contains("email") ? client.getEmail() : null)
+                .address(fields.contains("address") ? client.getAddress() : null)
+                .addressNumber(fields.contains("addressNumber") ? client.getAddressNumber() : null)
+                .city(fields.contains("city") ? client.getCity() : null)
+                .estate(fields.contains("estate") ? client.getEstate() : null)
+                .version(fields.contains("version") ? client.getVersion() : null)
+                .build();
+    }
+
+    private static Client version(Client client) {
+        return Client.builder()
+                .id(client.getId())
+                .version(client.getVersion())
+                .build();
+    }
+
+    private static DuplicateKeyException duplicateKey(String field, String value) {
+        return new DuplicateKeyException("E11000 duplicate key error collection: client index: " + field
+                + " dup key: { " + field + ": \"" + value + "\" }");
+    }
+
+    private static UnsupportedOperationException exampleNotSupported() {
+        return new UnsupportedOperationException("Query by example is not supported by the in-memory repository");
+    }
+}
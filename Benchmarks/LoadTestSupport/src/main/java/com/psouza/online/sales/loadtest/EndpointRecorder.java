@@ -0,0 +1,77 @@
+package com.psouza.online.sales.loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Collects the outcome of the requests of one operation. Safe to record from the HTTP client's
+ * completion threads while the generator keeps sending.
+ */
+class EndpointRecorder {
+
+    static final int TRANSPORT_ERROR = -1;
+
+    private final String name;
+    private final Histogram latencyMicros = new ConcurrentHistogram(3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    EndpointRecorder(String name) {
+        this.name = name;
+    }
+
+    void record(long latencyNanos, int status, boolean expected) {
+        latencyMicros.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if (!expected) {
+            errors.increment();
+        }
+    }
+
+    void drop() {
+        dropped.increment();
+    }
+
+    Histogram histogram() {
+        return latencyMicros;
+    }
+
+    EndpointReport report(double seconds) {
+        return report(name, latencyMicros, errors.sum(), dropped.sum(), counts(), seconds);
+    }
+
+    static EndpointReport total(Iterable<EndpointRecorder> recorders, double seconds) {
+        Histogram latency = new Histogram(3);
+        long errors = 0;
+        long dropped = 0;
+        Map<String, Long> statuses = new TreeMap<>();
+        for (EndpointRecorder recorder : recorders) {
+            latency.add(recorder.latencyMicros);
+            errors += recorder.errors.sum();
+            dropped += recorder.dropped.sum();
+            recorder.counts().forEach((status, count) -> statuses.merge(status, count, Long::sum));
+        }
+        return report("total", latency, errors, dropped, statuses, seconds);
+    }
+
+    private Map<String, Long> counts() {
+        Map<String, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) ->
+                counts.put(status == TRANSPORT_ERROR ? "transport-error" : String.valueOf(status), count.sum()));
+        return counts;
+    }
+
+    private static EndpointReport report(String name, Histogram latency, long errors, long dropped,
+                                         Map<String, Long> statuses, double seconds) {
+        long requests = latency.getTotalCount();
+        return new EndpointReport(name, requests, errors, dropped, Math.round(requests / seconds * 10) / 10.0,
+                LatencySummary.of(latency), statuses);
+    }
+}
@@ -0,0 +1,32 @@
+package com.psouza.online.sales.loadtest;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Results of one operation of the mix over the measured window.
+ */
+@Getter
+@AllArgsConstructor
+public class EndpointReport {
+
+    private String name;
+
+    /** Requests that completed with a response or a transport error. */
+    private long requests;
+
+    /** Responses with an unexpected status and transport errors, timeouts included. */
+    private long errors;
+
+    /** Requests not sent because {@code max-in-flight} requests were already outstanding. */
+    private long dropped;
+
+    /** Completed requests per second. */
+    private double throughput;
+
+    private LatencySummary latencyMillis;
+
+    private Map<String, Long> statuses;
+}
@@ -0,0 +1,36 @@
+package com.psouza.online.sales.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Latency percentiles in milliseconds, measured from the instant each request was scheduled to be
+ * sent, so a slow service cannot hide queueing delay by slowing the load generator down.
+ */
+@Getter
+@AllArgsConstructor
+public class LatencySummary {
+
+    private double p50;
+    private double p90;
+    private double p99;
+    private double p999;
+    private double max;
+    private double mean;
+
+    static LatencySummary of(Histogram micros) {
+        return new LatencySummary(
+                millis(micros.getValueAtPercentile(50)),
+                millis(micros.getValueAtPercentile(90)),
+                millis(micros.getValueAtPercentile(99)),
+                millis(micros.getValueAtPercentile(99.9)),
+                millis(micros.getMaxValue()),
+                Math.round(micros.getMean()) / 1000.0);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,149 @@
+package com.psouza.online.sales.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import lombok.Getter;
+
+/**
+ * Settings of a load test run, read from {@code --name=value} arguments. Arguments that are not
+ * load test settings are passed on to the Spring application, so any service property can be
+ * overridden for a run, e.g. {@code --product.cache.enabled=false}.
+ * <p>
+ * Durations accept both the simple ({@code 30s}, {@code 5ms}) and the ISO-8601 ({@code PT30S}) form.
+ */
+@Getter
+public class LoadTestOptions {
+
+    public enum Arrival {
+        /** Exponentially distributed gaps between requests, like independent users. */
+        POISSON,
+        /** A request exactly every 1/rate seconds. */
+        UNIFORM
+    }
+
+    private final String service;
+    private double rate = 200;
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(30);
+    private Arrival arrival = Arrival.POISSON;
+    private Map<String, Integer> mix = new LinkedHashMap<>();
+    private Duration repositoryLatency = Duration.ZERO;
+    private String mode = "mvc";
+    private boolean virtualThreads = false;
+    private int datasetSize = 10_000;
+    private int maxInFlight = 10_000;
+    private Duration requestTimeout = Duration.ofSeconds(30);
+    private Path output;
+    private final List<String> applicationArguments = new ArrayList<>();
+
+    private LoadTestOptions(String service) {
+        this.service = service;
+        this.output = Path.of("target", "loadtest-" + service + ".json");
+    }
+
+    /**
+     * Reads the settings of a run.
+     *
+     * @param service    name of the service under test, used in the report
+     * @param defaultMix operation weights used when no {@code --mix} is given
+     * @param args       the command line arguments
+     * @return the settings
+     */
+    public static LoadTestOptions parse(String service, String defaultMix, String... args) {
+        LoadTestOptions options = new LoadTestOptions(service);
+        options.mix = parseMix(defaultMix);
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Arguments must have the form --name=value: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            String name = separator < 0 ? arg.substring(2) : arg.substring(2, separator);
+            String value = separator < 0 ? "true" : arg.substring(separator + 1);
+            if (!options.apply(name, value)) {
+                options.applicationArguments.add(arg);
+            }
+        }
+        if (options.rate <= 0) {
+            throw new IllegalArgumentException("The rate must be greater than zero");
+        }
+        return options;
+    }
+
+    private boolean apply(String name, String value) {
+        switch (name) {
+            case "rate" -> rate = Double.parseDouble(value);
+            case "warmup" -> warmup = DurationStyle.detectAndParse(value);
+            case "duration" -> duration = DurationStyle.detectAndParse(value);
+            case "arrival" -> arrival = Arrival.valueOf(value.toUpperCase());
+            case "mix" -> mix = parseMix(value);
+            case "repository-latency" -> repositoryLatency = DurationStyle.detectAndParse(value);
+            case "mode" -> mode = value;
+            case "virtual-threads" -> virtualThreads = Boolean.parseBoolean(value);
+            case "dataset-size" -> datasetSize = Integer.parseInt(value);
+            case "max-in-flight" -> maxInFlight = Integer.parseInt(value);
+            case "request-timeout" -> requestTimeout = DurationStyle.detectAndParse(value);
+            case "output" -> output = Path.of(value);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses operation weights written as {@code name:weight,name:weight}.
+     */
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries must have the form operation:weight: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights cannot be negative: " + entry);
+            }
+            mix.put(parts[0].trim(), weight);
+        }
+        return mix;
+    }
+
+    public boolean isReactive() {
+        return "reactive".equals(mode);
+    }
+
+    /**
+     * Arguments of the Spring application under test. The service configuration is read from the
+     * load test's local config source instead of the ConfigServer and the server listens on a
+     * random port, unless the command line sets these properties itself.
+     *
+     * @param serviceDefaults further {@code name=value} defaults of the service, e.g. its other ports
+     */
+    public String[] springArguments(String... serviceDefaults) {
+        List<String> arguments = new ArrayList<>(applicationArguments);
+        for (String serviceDefault : serviceDefaults) {
+            int separator = serviceDefault.indexOf('=');
+            addDefault(arguments, serviceDefault.substring(0, separator), serviceDefault.substring(separator + 1));
+        }
+        addDefault(arguments, "spring.config.location", "classpath:/loadtest/application.properties");
+        addDefault(arguments, "server.port", "0");
+        addDefault(arguments, "spring.main.web-application-type", isReactive() ? "reactive" : "servlet");
+        addDefault(arguments, "spring.threads.virtual.enabled", String.valueOf(virtualThreads));
+        return arguments.toArray(String[]::new);
+    }
+
+    private static void addDefault(List<String> arguments, String name, String value) {
+        String prefix = "--" + name + "=";
+        if (arguments.stream().noneMatch(argument -> argument.startsWith(prefix))) {
+            arguments.add(prefix + value);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.psouza.online.sales.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Machine-readable result of a load test run: the settings that shaped the load and the throughput
+ * and latency of every operation and of the whole mix.
+ */
+@Getter
+@AllArgsConstructor
+public class LoadTestReport {
+
+    private String service;
+    private String mode;
+    private boolean virtualThreads;
+    private String javaVersion;
+    private String arrival;
+    private double offeredRate;
+    private double warmupSeconds;
+    private double durationSeconds;
+    private double repositoryLatencyMillis;
+    private int datasetSize;
+
+    /** Most requests outstanding at once during the measured window. */
+    private int peakInFlight;
+    private List<EndpointReport> endpoints;
+    private EndpointReport total;
+
+    public void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), this);
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%s, %s%s, %.0f req/s offered (%s), %.0fs measured, repository latency %.1f ms, "
+                        + "peak in flight %d%n",
+                service, mode, virtualThreads ? " on virtual threads" : "", offeredRate, arrival,
+                durationSeconds, repositoryLatencyMillis, peakInFlight);
+        out.printf("%-16s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "dropped", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (EndpointReport endpoint : endpoints) {
+            print(out, endpoint);
+        }
+        print(out, total);
+    }
+
+    private static void print(PrintStream out, EndpointReport endpoint) {
+        LatencySummary latency = endpoint.getLatencyMillis();
+        out.printf("%-16s %9d %7d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint.getName(), endpoint.getRequests(), endpoint.getErrors(), endpoint.getDropped(),
+                endpoint.getThroughput(), latency.getP50(), latency.getP99(), latency.getP999(), latency.getMax());
+    }
+}
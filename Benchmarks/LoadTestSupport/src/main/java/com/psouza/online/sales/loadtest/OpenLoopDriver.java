@@ -0,0 +1,154 @@
+package com.psouza.online.sales.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends the operation mix at a fixed arrival rate, whatever the response times are. Each request is
+ * scheduled ahead of time and its latency is measured from that scheduled instant, so when the
+ * service falls behind the queueing delay shows up in the percentiles instead of lowering the load.
+ * <p>
+ * Requests of the warmup period are sent but not recorded. At most {@code max-in-flight} requests
+ * are outstanding; requests beyond that are counted as dropped instead of piling up in the client.
+ */
+@Slf4j
+public class OpenLoopDriver {
+
+    private static final Duration DRAIN_GRACE = Duration.ofSeconds(5);
+
+    private final LoadTestOptions options;
+    private final Map<String, Operation> operations = new LinkedHashMap<>();
+    private final Operation[] schedule;
+
+    /**
+     * @param options    the settings of the run
+     * @param baseUri    root URI of the service under test
+     * @param operations every operation the service supports, the mix picks among them
+     */
+    public OpenLoopDriver(LoadTestOptions options, URI baseUri, List<Operation> operations) {
+        this.options = options;
+        operations.forEach(operation -> {
+            operation.bind(baseUri);
+            this.operations.put(operation.getName(), operation);
+        });
+        this.schedule = weightedSchedule(options.getMix());
+    }
+
+    private Operation[] weightedSchedule(Map<String, Integer> mix) {
+        List<Operation> schedule = new ArrayList<>();
+        mix.forEach((name, weight) -> {
+            Operation operation = operations.get(name);
+            if (operation == null) {
+                throw new IllegalArgumentException("Unknown operation " + name + ", available: " + operations.keySet());
+            }
+            for (int i = 0; i < weight; i++) {
+                schedule.add(operation);
+            }
+        });
+        if (schedule.isEmpty()) {
+            throw new IllegalArgumentException("The mix must have at least one operation with a positive weight");
+        }
+        return schedule.toArray(Operation[]::new);
+    }
+
+    public LoadTestReport run() throws InterruptedException {
+        if (options.isVirtualThreads() && Runtime.version().feature() < 21) {
+            log.warn("Virtual threads need Java 21, running on {}: the service will use platform threads",
+                    Runtime.version());
+        }
+
+        Map<String, EndpointRecorder> recorders = new LinkedHashMap<>();
+        for (Operation operation : schedule) {
+            recorders.computeIfAbsent(operation.getName(), EndpointRecorder::new);
+        }
+
+        ExecutorService completions = Executors.newCachedThreadPool();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.getRequestTimeout())
+                .executor(completions)
+                .build();
+        Semaphore inFlight = new Semaphore(options.getMaxInFlight());
+        SplittableRandom random = new SplittableRandom();
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+
+        long start = System.nanoTime();
+        long measuredFrom = start + options.getWarmup().toNanos();
+        long end = measuredFrom + options.getDuration().toNanos();
+        log.info("Sending {} req/s for {} of warmup and {} of measurement", options.getRate(),
+                options.getWarmup(), options.getDuration());
+
+        long scheduled = start;
+        int peakInFlight = 0;
+        while (scheduled < end) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+
+            Operation operation = schedule[random.nextInt(schedule.length)];
+            EndpointRecorder recorder = recorders.get(operation.getName());
+            boolean measured = scheduled >= measuredFrom;
+            if (inFlight.tryAcquire()) {
+                if (measured) {
+                    peakInFlight = Math.max(peakInFlight, options.getMaxInFlight() - inFlight.availablePermits());
+                }
+                long sentAt = scheduled;
+                client.sendAsync(operation.nextRequest(options.getRequestTimeout()), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            inFlight.release();
+                            if (measured) {
+                                int status = response != null ? response.statusCode() : EndpointRecorder.TRANSPORT_ERROR;
+                                recorder.record(System.nanoTime() - sentAt, status,
+                                        response != null && operation.isExpected(status));
+                            }
+                        });
+            } else if (measured) {
+                recorder.drop();
+            }
+
+            scheduled += options.getArrival() == LoadTestOptions.Arrival.POISSON
+                    ? (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos)
+                    : (long) meanGapNanos;
+        }
+
+        long drainMillis = options.getRequestTimeout().plus(DRAIN_GRACE).toMillis();
+        if (!inFlight.tryAcquire(options.getMaxInFlight(), drainMillis, TimeUnit.MILLISECONDS)) {
+            log.warn("{} requests still outstanding after {} ms", options.getMaxInFlight() - inFlight.availablePermits(),
+                    drainMillis);
+        }
+        completions.shutdownNow();
+
+        double seconds = options.getDuration().toNanos() / 1e9;
+        List<EndpointReport> endpoints = recorders.values().stream().map(r -> r.report(seconds)).toList();
+        return new LoadTestReport(
+                options.getService(),
+                options.getMode(),
+                options.isVirtualThreads(),
+                Runtime.version().toString(),
+                options.getArrival().name().toLowerCase(),
+                options.getRate(),
+                options.getWarmup().toNanos() / 1e9,
+                seconds,
+                options.getRepositoryLatency().toNanos() / 1e6,
+                options.getDatasetSize(),
+                peakInFlight,
+                endpoints,
+                EndpointRecorder.total(recorders.values(), seconds));
+    }
+}
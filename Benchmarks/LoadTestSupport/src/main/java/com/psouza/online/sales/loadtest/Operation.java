@@ -0,0 +1,74 @@
+package com.psouza.online.sales.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import lombok.Getter;
+
+/**
+ * One kind of request of the load mix, e.g. "get a product by code". Each call of
+ * {@link #nextRequest(Duration)} builds a new request, so an operation can vary the entity it hits.
+ */
+public class Operation {
+
+    @Getter
+    private final String name;
+    private final String method;
+    private final Supplier<String> path;
+    private final Supplier<byte[]> body;
+    private final String contentType;
+    private final int[] expectedStatuses;
+    private URI baseUri;
+
+    private Operation(String name, String method, Supplier<String> path, Supplier<byte[]> body, String contentType,
+                      int... expectedStatuses) {
+        this.name = name;
+        this.method = method;
+        this.path = path;
+        this.body = body;
+        this.contentType = contentType;
+        this.expectedStatuses = expectedStatuses.length == 0 ? new int[] {200} : expectedStatuses;
+    }
+
+    public static Operation get(String name, Supplier<String> path, int... expectedStatuses) {
+        return new Operation(name, "GET", path, null, null, expectedStatuses);
+    }
+
+    public static Operation post(String name, Supplier<String> path, Supplier<byte[]> body, int... expectedStatuses) {
+        return new Operation(name, "POST", path, body, "application/json", expectedStatuses);
+    }
+
+    public static Operation put(String name, Supplier<String> path, Supplier<byte[]> body, int... expectedStatuses) {
+        return new Operation(name, "PUT", path, body, "application/json", expectedStatuses);
+    }
+
+    /**
+     * A PATCH whose body is a JSON merge patch.
+     */
+    public static Operation patch(String name, Supplier<String> path, Supplier<byte[]> body, int... expectedStatuses) {
+        return new Operation(name, "PATCH", path, body, "application/merge-patch+json", expectedStatuses);
+    }
+
+    void bind(URI baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    HttpRequest nextRequest(Duration timeout) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path.get()))
+                .timeout(timeout)
+                .header("Accept", "application/json");
+        if (body == null) {
+            return request.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return request.header("Content-Type", contentType)
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(body.get()))
+                .build();
+    }
+
+    boolean isExpected(int status) {
+        return Arrays.stream(expectedStatuses).anyMatch(expected -> expected == status);
+    }
+}
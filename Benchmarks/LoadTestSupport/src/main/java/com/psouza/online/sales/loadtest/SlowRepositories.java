@@ -0,0 +1,65 @@
+package com.psouza.online.sales.loadtest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Stand-in for a slow MongoDB: wraps an in-memory repository so every call takes at least the given
+ * latency, as if it waited on a database round trip.
+ * <p>
+ * The blocking wrapper sleeps the calling thread, which holds a Tomcat worker the way a blocking
+ * driver call does, or just parks a virtual thread. The reactive wrapper delays the returned
+ * publisher on a timer, so no thread waits, like the reactive driver.
+ */
+public final class SlowRepositories {
+
+    private SlowRepositories() {
+    }
+
+    public static <T> T blocking(Class<T> type, T repository, Duration latency) {
+        if (latency.isZero()) {
+            return repository;
+        }
+        return proxy(type, repository, (proxy, method, args) -> {
+            if (method.getDeclaringClass() != Object.class) {
+                Thread.sleep(latency.toMillis(), latency.toNanosPart() % 1_000_000);
+            }
+            return invoke(repository, method, args);
+        });
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> T reactive(Class<T> type, T repository, Duration latency) {
+        if (latency.isZero()) {
+            return repository;
+        }
+        return proxy(type, repository, (proxy, method, args) -> {
+            Object result = invoke(repository, method, args);
+            if (result instanceof Mono mono) {
+                return Mono.delay(latency).then(mono);
+            }
+            if (result instanceof Flux flux) {
+                return Mono.delay(latency).thenMany(flux);
+            }
+            return result;
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, T repository, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.psouza.online.sales.benchmark;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.psouza.online.sales.domain.Product;
+import org.bson.types.ObjectId;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Products and the object mapper shared by the benchmarks.
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Builds a mapper configured like the one Spring Boot gives the service.
+     */
+    public static ObjectMapper objectMapper() {
+        return objectMapper(Jackson2ObjectMapperBuilder.json());
+    }
+
+    /**
+     * Builds a mapper of the builder's format, e.g. {@link Jackson2ObjectMapperBuilder#cbor()},
+     * configured like the one Spring Boot gives the service.
+     */
+    public static ObjectMapper objectMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    public static Product product(int index) {
+        return Product.builder()
+                .id(new ObjectId().toHexString())
+                .code(code(index))
+                .name("Apple IPhone " + index)
+                .description("iPhone " + index + ". Novo Controle da Câmera, câmera Fusion de 48 MP, "
+                        + "cinco cores lindas e o chip A18.")
+                .value(BigDecimal.valueOf(550000L + index * 37L, 2))
+                .updatedAt(Instant.now())
+                .version(0L)
+                .build();
+    }
+
+    public static List<Product> products(int count) {
+        return IntStream.range(0, count).mapToObj(Fixtures::product).collect(Collectors.toList());
+    }
+
+    public static String code(int index) {
+        return String.format("%011d", index);
+    }
+}
@@ -0,0 +1,83 @@
+package com.psouza.online.sales.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.psouza.online.sales.domain.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the MoneySerializer/MoneyDeserializer pair on Product.value with the
+ * {@code @JsonFormat(shape = STRING, pattern = "#0.00")} mapping it replaced, over a list page of
+ * 100 products. The old mapping is restored through a mix-in on a copy of the mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyCodecBenchmark {
+
+    private static final TypeReference<List<Product>> PRODUCT_LIST = new TypeReference<>() {
+    };
+
+    private ObjectMapper moneyCodec;
+    private ObjectMapper jsonFormat;
+    private List<Product> products;
+    private String productsJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        moneyCodec = Fixtures.objectMapper();
+        jsonFormat = moneyCodec.copy().addMixIn(Product.class, JsonFormatValue.class);
+        products = Fixtures.products(100);
+        productsJson = moneyCodec.writeValueAsString(products);
+    }
+
+    @Benchmark
+    public String serializeWithMoneyCodec() throws JsonProcessingException {
+        return moneyCodec.writeValueAsString(products);
+    }
+
+    @Benchmark
+    public String serializeWithJsonFormat() throws JsonProcessingException {
+        return jsonFormat.writeValueAsString(products);
+    }
+
+    @Benchmark
+    public List<Product> deserializeWithMoneyCodec() throws JsonProcessingException {
+        return moneyCodec.readValue(productsJson, PRODUCT_LIST);
+    }
+
+    @Benchmark
+    public List<Product> deserializeWithJsonFormat() throws JsonProcessingException {
+        return jsonFormat.readValue(productsJson, PRODUCT_LIST);
+    }
+
+    abstract static class JsonFormatValue {
+
+        @JsonSerialize(using = JsonSerializer.None.class)
+        @JsonDeserialize(using = JsonDeserializer.None.class)
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "#0.00")
+        private BigDecimal value;
+    }
+}
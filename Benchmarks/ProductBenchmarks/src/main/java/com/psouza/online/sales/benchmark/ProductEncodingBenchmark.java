@@ -0,0 +1,89 @@
+package com.psouza.online.sales.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psouza.online.sales.domain.BatchLookupResult;
+import com.psouza.online.sales.domain.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Encoding of the Page returned by GET /product and of the result of POST /product/batch in each
+ * format the service negotiates, and decoding of the products on the caller's side. The payload
+ * sizes are printed once per fork, next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductEncodingBenchmark {
+
+    private static final TypeReference<List<Product>> PRODUCT_LIST = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"20", "100"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private Page<Product> page;
+    private BatchLookupResult batch;
+    private byte[] productsBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Fixtures.objectMapper(switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            default -> Jackson2ObjectMapperBuilder.json();
+        });
+        List<Product> products = Fixtures.products(size);
+        page = new PageImpl<>(products, PageRequest.of(0, size), 10_000);
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < size / 10; i++) {
+            missing.add(Fixtures.code(size + i));
+        }
+        batch = new BatchLookupResult(products, missing);
+        productsBytes = objectMapper.writeValueAsBytes(products);
+
+        System.out.printf("%n%s payload, %d products: page %d bytes, batch %d bytes%n", format, size,
+                objectMapper.writeValueAsBytes(page).length, objectMapper.writeValueAsBytes(batch).length);
+    }
+
+    @Benchmark
+    public byte[] encodePage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] encodeBatch() throws IOException {
+        return objectMapper.writeValueAsBytes(batch);
+    }
+
+    @Benchmark
+    public List<Product> decodeProducts() throws IOException {
+        return objectMapper.readValue(productsBytes, PRODUCT_LIST);
+    }
+}
@@ -0,0 +1,111 @@
+package com.psouza.online.sales.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.psouza.online.sales.cache.LookupCoalescer;
+import com.psouza.online.sales.cache.ProductCache;
+import com.psouza.online.sales.config.ProductCacheProperties;
+import com.psouza.online.sales.config.ProductListingProperties;
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.grpc.ProductGrpcService;
+import com.psouza.online.sales.grpc.ProductMessages;
+import com.psouza.online.sales.grpc.proto.BatchGetRequest;
+import com.psouza.online.sales.grpc.proto.BatchGetResponse;
+import com.psouza.online.sales.grpc.proto.GetByCodeRequest;
+import com.psouza.online.sales.grpc.proto.ProductLookupGrpc;
+import com.psouza.online.sales.repository.InMemoryProductRepository;
+import com.psouza.online.sales.usecase.SearchProduct;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The gRPC product lookups called through an in-process channel, so the numbers hold the stub, the
+ * protobuf marshaling and the use case with its cache, but no network. {@link #toMessage()} is the
+ * protobuf counterpart of {@code ProductJsonBenchmark.serializeProduct}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductGrpcBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+
+    @Param({"20", "100"})
+    private int batchSize;
+
+    private Server server;
+    private ManagedChannel channel;
+    private ProductLookupGrpc.ProductLookupBlockingStub stub;
+    private Product product;
+
+    @Setup
+    public void setUp() throws IOException {
+        InMemoryProductRepository repository = new InMemoryProductRepository();
+        repository.insert(Fixtures.products(CATALOG_SIZE));
+        SearchProduct searchProduct = new SearchProduct(repository, new ProductCache(new ProductCacheProperties()),
+                new LookupCoalescer(new SimpleMeterRegistry()), new ProductListingProperties(), 200);
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(new ProductGrpcService(searchProduct))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        stub = ProductLookupGrpc.newBlockingStub(channel);
+        product = Fixtures.product(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Benchmark
+    public byte[] toMessage() {
+        return ProductMessages.toMessage(product).toByteArray();
+    }
+
+    @Benchmark
+    public com.psouza.online.sales.grpc.proto.Product getByCode() {
+        String code = Fixtures.code(ThreadLocalRandom.current().nextInt(CATALOG_SIZE));
+        return stub.getByCode(GetByCodeRequest.newBuilder().setCode(code).build());
+    }
+
+    @Benchmark
+    public List<BatchGetResponse> batchGet() {
+        BatchGetRequest.Builder request = BatchGetRequest.newBuilder();
+        int first = ThreadLocalRandom.current().nextInt(CATALOG_SIZE - batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            request.addCodes(Fixtures.code(first + i));
+        }
+        List<BatchGetResponse> responses = new ArrayList<>(batchSize);
+        Iterator<BatchGetResponse> stream = stub.batchGet(request.build());
+        stream.forEachRemaining(responses::add);
+        return responses;
+    }
+}
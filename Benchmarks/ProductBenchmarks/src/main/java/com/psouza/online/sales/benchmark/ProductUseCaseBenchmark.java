@@ -0,0 +1,121 @@
+package com.psouza.online.sales.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.psouza.online.sales.cache.LookupCoalescer;
+import com.psouza.online.sales.cache.ProductCache;
+import com.psouza.online.sales.config.ProductCacheProperties;
+import com.psouza.online.sales.config.ProductListingProperties;
+import com.psouza.online.sales.domain.BatchLookupRequest;
+import com.psouza.online.sales.domain.BatchLookupResult;
+import com.psouza.online.sales.domain.CursorPage;
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.exception.EntityNotFoundException;
+import com.psouza.online.sales.repository.InMemoryProductRepository;
+import com.psouza.online.sales.usecase.ProductRegistration;
+import com.psouza.online.sales.usecase.SearchProduct;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * SearchProduct and ProductRegistration over an in-memory catalog, with the product cache on and
+ * off, so the use case and cache overhead is measured without any MongoDB round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductUseCaseBenchmark {
+
+    private static final int BATCH_SIZE = 50;
+    private static final int CURSOR_PAGE_SIZE = 50;
+
+    @Param({"true", "false"})
+    private boolean cacheEnabled;
+
+    @Param({"10000"})
+    private int catalogSize;
+
+    private SearchProduct searchProduct;
+    private ProductRegistration productRegistration;
+    private String[] ids;
+    private String[] codes;
+    private BatchLookupRequest batchRequest;
+
+    @Setup
+    public void setUp() {
+        InMemoryProductRepository repository = new InMemoryProductRepository();
+        List<Product> catalog = Fixtures.products(catalogSize);
+        repository.insert(catalog);
+        ids = catalog.stream().map(Product::getId).toArray(String[]::new);
+        codes = catalog.stream().map(Product::getCode).toArray(String[]::new);
+
+        ProductCacheProperties properties = new ProductCacheProperties();
+        properties.setEnabled(cacheEnabled);
+        ProductCache productCache = new ProductCache(properties);
+        searchProduct = new SearchProduct(repository, productCache, new LookupCoalescer(new SimpleMeterRegistry()),
+                new ProductListingProperties(), 200);
+        productRegistration = new ProductRegistration(repository, productCache);
+
+        batchRequest = new BatchLookupRequest(null, IntStream.range(0, BATCH_SIZE)
+                .mapToObj(i -> codes[i * (catalogSize / BATCH_SIZE)])
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public Product searchById() {
+        return searchProduct.searchById(ids[next()]);
+    }
+
+    @Benchmark
+    public Product searchByCode() {
+        return searchProduct.searchByCode(codes[next()]);
+    }
+
+    @Benchmark
+    public Object searchMissingCode() {
+        try {
+            return searchProduct.searchByCode("missing-" + next());
+        } catch (EntityNotFoundException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public CursorPage<Product> searchCursorPage() {
+        return searchProduct.search("", CURSOR_PAGE_SIZE, "code");
+    }
+
+    @Benchmark
+    public BatchLookupResult searchBatchByCode() {
+        return searchProduct.searchBatch(batchRequest);
+    }
+
+    @Benchmark
+    public Product updateProduct() {
+        Product product = Fixtures.product(next());
+        product.setName("Updated " + product.getName());
+        return productRegistration.update(product);
+    }
+
+    private int next() {
+        return ThreadLocalRandom.current().nextInt(catalogSize);
+    }
+}
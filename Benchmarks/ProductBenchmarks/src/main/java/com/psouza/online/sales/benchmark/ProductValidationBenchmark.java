@@ -0,0 +1,67 @@
+package com.psouza.online.sales.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.psouza.online.sales.config.ValidatorConfig;
+import com.psouza.online.sales.domain.Product;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+/**
+ * Bean Validation of a product through the validator declared in ValidatorConfig, for a valid
+ * product and for one that breaks every constraint of its value and name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductValidationBenchmark {
+
+    private LocalValidatorFactoryBean factory;
+    private Validator validator;
+    private Product valid;
+    private Product invalid;
+
+    @Setup
+    public void setUp() {
+        factory = (LocalValidatorFactoryBean) new ValidatorConfig().validatorFactory();
+        factory.afterPropertiesSet();
+        validator = factory;
+
+        valid = Fixtures.product(1);
+        invalid = Fixtures.product(2);
+        invalid.setName("");
+        invalid.setValue(new BigDecimal("-12345678901.999"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Product>> validateValidProduct() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Product>> validateInvalidProduct() {
+        return validator.validate(invalid);
+    }
+}
@@ -0,0 +1,116 @@
+package com.psouza.online.sales.loadtest;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psouza.online.sales.benchmark.Fixtures;
+import com.psouza.online.sales.domain.BatchLookupRequest;
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.repository.IProductRepository;
+import com.psouza.online.sales.repository.IReactiveProductRepository;
+import com.psouza.online.sales.repository.InMemoryProductRepository;
+import com.psouza.online.sales.repository.InMemoryReactiveProductRepository;
+
+/**
+ * Open-loop load test of the product endpoints. Starts the ProductService in this JVM on a random
+ * port, backed by an in-memory catalog that answers after {@code --repository-latency}, and drives
+ * it with the operation mix at a fixed rate.
+ * <pre>
+ * java -cp Benchmarks/ProductBenchmarks/target/benchmarks.jar com.psouza.online.sales.loadtest.ProductLoadTest \
+ *     --rate=500 --duration=60s --repository-latency=5ms --mode=reactive
+ * </pre>
+ * The text search, the batch lookup and the sparse fieldset reads are only served by the MVC
+ * endpoints and can be added with {@code --mix}.
+ */
+public class ProductLoadTest {
+
+    private static final String DEFAULT_MIX = "getById:40,getByCode:25,getMissing:5,list:5,cursor:10,update:10,register:5";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse("product-service", DEFAULT_MIX, args);
+
+        List<Product> catalog = Fixtures.products(options.getDatasetSize());
+        InMemoryProductRepository store = new InMemoryProductRepository();
+        store.insert(catalog);
+        IProductRepository productRepository =
+                SlowRepositories.blocking(IProductRepository.class, store, options.getRepositoryLatency());
+        IReactiveProductRepository reactiveProductRepository = SlowRepositories.reactive(
+                IReactiveProductRepository.class, new InMemoryReactiveProductRepository(store),
+                options.getRepositoryLatency());
+
+        SpringApplicationBuilder application = new SpringApplicationBuilder(ProductLoadTestApplication.class)
+                .initializers(context -> {
+                    context.getBeanFactory().registerSingleton("productRepository", productRepository);
+                    if (options.isReactive()) {
+                        context.getBeanFactory().registerSingleton("reactiveProductRepository", reactiveProductRepository);
+                    }
+                });
+        if (options.isReactive()) {
+            application.profiles("reactive");
+        }
+
+        try (ConfigurableApplicationContext context = application.run(options.springArguments("product.grpc.port=0"))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            OpenLoopDriver driver = new OpenLoopDriver(options, URI.create("http://localhost:" + port),
+                    operations(catalog, Fixtures.objectMapper()));
+
+            LoadTestReport report = driver.run();
+            report.write(options.getOutput());
+            report.print(System.out);
+            System.out.println("Report written to " + options.getOutput().toAbsolutePath());
+        }
+    }
+
+    private static List<Operation> operations(List<Product> catalog, ObjectMapper mapper) {
+        AtomicInteger registered = new AtomicInteger(catalog.size());
+        return List.of(
+                Operation.get("getById", () -> "/product/" + any(catalog).getId()),
+                Operation.get("getByCode", () -> "/product/code/" + any(catalog).getCode()),
+                Operation.get("getMissing", () -> "/product/code/missing-" + ThreadLocalRandom.current().nextInt(), 404),
+                Operation.get("list", () -> "/product?page=" + ThreadLocalRandom.current().nextInt(catalog.size() / 20 + 1) + "&size=20"),
+                Operation.get("cursor", () -> "/product?cursor=&size=50&sortBy=code"),
+                Operation.get("getByIdSparse", () -> "/product/" + any(catalog).getId() + "?fields=name,code,value"),
+                Operation.get("listSparse", () -> "/product?page=" + ThreadLocalRandom.current().nextInt(catalog.size() / 20 + 1) + "&size=20&fields=name,code,value"),
+                Operation.get("filter", () -> {
+                    int min = 5500 + ThreadLocalRandom.current().nextInt(catalog.size() * 37 / 100 + 1);
+                    return "/product?minValue=" + min + "&maxValue=" + (min + 50) + "&sort=value&size=20";
+                }),
+                Operation.get("filterByName", () -> "/product?namePrefix=Apple+IPhone+" + ThreadLocalRandom.current().nextInt(10)
+                        + "&sort=name&size=20&fields=name,code,value"),
+                Operation.get("search", () -> "/product/search?q=iphone+" + ThreadLocalRandom.current().nextInt(catalog.size())),
+                Operation.post("batch", () -> "/product/batch", () -> json(mapper, new BatchLookupRequest(
+                        List.of(any(catalog).getId(), any(catalog).getId(), any(catalog).getId()), null))),
+                Operation.put("update", () -> "/product", () -> {
+                    Product product = Fixtures.product(ThreadLocalRandom.current().nextInt(catalog.size()));
+                    product.setName("Apple IPhone " + ThreadLocalRandom.current().nextInt());
+                    return json(mapper, product);
+                }),
+                Operation.post("register", () -> "/product", () -> {
+                    Product product = Fixtures.product(registered.getAndIncrement());
+                    product.setId(null);
+                    product.setVersion(null);
+                    return json(mapper, product);
+                }));
+    }
+
+    private static Product any(List<Product> catalog) {
+        return catalog.get(ThreadLocalRandom.current().nextInt(catalog.size()));
+    }
+
+    private static byte[] json(ObjectMapper mapper, Object value) {
+        try {
+            return mapper.writeValueAsString(value).getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
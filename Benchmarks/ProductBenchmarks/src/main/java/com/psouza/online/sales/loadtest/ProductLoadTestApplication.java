@@ -0,0 +1,37 @@
+package com.psouza.online.sales.loadtest;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+
+import com.psouza.online.sales.ProductServiceApplication;
+import com.psouza.online.sales.config.MongoConfig;
+import com.psouza.online.sales.config.ReactiveMongoConfig;
+
+/**
+ * The ProductService application without MongoDB: the same components and auto-configuration, but
+ * no Mongo client and no Spring Data repositories. {@link ProductLoadTest} registers the in-memory
+ * repositories in their place.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {
+        MongoAutoConfiguration.class,
+        MongoDataAutoConfiguration.class,
+        MongoRepositoriesAutoConfiguration.class,
+        MongoReactiveAutoConfiguration.class,
+        MongoReactiveDataAutoConfiguration.class,
+        MongoReactiveRepositoriesAutoConfiguration.class})
+@ComponentScan(basePackages = "com.psouza.online.sales", excludeFilters = {
+        @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                classes = {ProductServiceApplication.class, MongoConfig.class, ReactiveMongoConfig.class}),
+        @ComponentScan.Filter(type = FilterType.REGEX, pattern = "com\\.psouza\\.online\\.sales\\.loadtest\\..*")})
+public class ProductLoadTestApplication {
+
+}
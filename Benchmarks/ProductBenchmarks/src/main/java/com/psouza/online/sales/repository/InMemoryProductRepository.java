@@ -0,0 +1,519 @@
+package com.psouza.online.sales.repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.domain.ProductFilter;
+import com.psouza.online.sales.domain.ProductSearchHit;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+
+/**
+ * Concurrency-safe {@link IProductRepository} kept in memory, used to measure the use cases without
+ * MongoDB. Products are copied on the way in and out, like a round trip through the database, and
+ * the unique code index, the version and the last change instant are maintained as MongoDB would.
+ * Ids and codes are kept in sorted maps so keyset pages are range reads, like on the real indexes.
+ * Reads never block, writes are serialized by a lock so the id and code maps stay consistent.
+ */
+public class InMemoryProductRepository implements IProductRepository {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private static final Map<String, Function<Product, Comparable<?>>> SORT_KEYS = Map.of(
+            "id", Product::getId,
+            "code", Product::getCode,
+            "name", Product::getName,
+            "description", Product::getDescription,
+            "value", Product::getValue,
+            "updatedAt", Product::getUpdatedAt,
+            "version", Product::getVersion);
+
+    private final NavigableMap<String, Product> products = new ConcurrentSkipListMap<>();
+    private final NavigableMap<String, String> idsByCode = new ConcurrentSkipListMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @Override
+    public <S extends Product> S insert(S entity) {
+        writeLock.lock();
+        try {
+            if (entity.getId() == null) {
+                entity.setId(new ObjectId().toHexString());
+            }
+            if (products.containsKey(entity.getId())) {
+                throw duplicateKey("_id", entity.getId());
+            }
+            if (idsByCode.containsKey(entity.getCode())) {
+                throw duplicateKey("code", entity.getCode());
+            }
+            if (entity.getVersion() == null) {
+                entity.setVersion(0L);
+            }
+            entity.setUpdatedAt(Instant.now());
+            store(entity);
+            return entity;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public <S extends Product> List<S> insert(Iterable<S> entities) {
+        List<S> inserted = new ArrayList<>();
+        entities.forEach(entity -> inserted.add(insert(entity)));
+        return inserted;
+    }
+
+    @Override
+    public <S extends Product> S save(S entity) {
+        if (entity.getId() == null || entity.getVersion() == null) {
+            return insert(entity);
+        }
+
+        writeLock.lock();
+        try {
+            Product stored = products.get(entity.getId());
+            if (stored == null || !entity.getVersion().equals(stored.getVersion())) {
+                throw new OptimisticLockingFailureException("Product " + entity.getId() + " was changed since it was read");
+            }
+            String owner = idsByCode.get(entity.getCode());
+            if (owner != null && !owner.equals(entity.getId())) {
+                throw duplicateKey("code", entity.getCode());
+            }
+            idsByCode.remove(stored.getCode());
+            entity.setVersion(entity.getVersion() + 1);
+            entity.setUpdatedAt(Instant.now());
+            store(entity);
+            return entity;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public <S extends Product> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public Optional<Product> findById(String id) {
+        return Optional.ofNullable(products.get(id)).map(InMemoryProductRepository::copy);
+    }
+
+    @Override
+    public Optional<Product> findByCode(String code) {
+        String id = idsByCode.get(code);
+        return id == null ? Optional.empty() : findById(id);
+    }
+
+    @Override
+    public List<Product> findByCodeIn(Collection<String> codes) {
+        return codes.stream()
+                .distinct()
+                .map(this::findByCode)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return products.containsKey(id);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return snapshot().collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Product> findAllById(Iterable<String> ids) {
+        return StreamSupport.stream(ids.spliterator(), false)
+                .distinct()
+                .map(this::findById)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Product> findAll(Sort sort) {
+        return snapshot().sorted(comparator(sort)).collect(Collectors.toList());
+    }
+
+    @Override
+    public Page<Product> findAll(Pageable pageable) {
+        List<Product> all = products.values().stream().sorted(comparator(pageable.getSort())).toList();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(all.stream().map(InMemoryProductRepository::copy).toList(), pageable, all.size());
+        }
+        List<Product> content = all.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(InMemoryProductRepository::copy)
+                .toList();
+        return new PageImpl<>(content, pageable, all.size());
+    }
+
+    @Override
+    public Slice<Product> findAllBy(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(findAll(pageable).getContent(), pageable, false);
+        }
+        List<Product> content = read(pageable, pageable.getPageSize() + 1L);
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    /**
+     * Reads copies of the products from the offset of the page on, in its sort order.
+     */
+    List<Product> read(Pageable pageable, long limit) {
+        return products.values().stream()
+                .sorted(comparator(pageable.getSort()))
+                .skip(pageable.getOffset())
+                .limit(limit)
+                .map(InMemoryProductRepository::copy)
+                .toList();
+    }
+
+    @Override
+    public long estimatedCount() {
+        return products.size();
+    }
+
+    @Override
+    public long count() {
+        return products.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        writeLock.lock();
+        try {
+            Product removed = products.remove(id);
+            if (removed != null) {
+                idsByCode.remove(removed.getCode());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Product> deleteAndGetCodeById(String id) {
+        writeLock.lock();
+        try {
+            Product removed = products.remove(id);
+            if (removed == null) {
+                return Optional.empty();
+            }
+            idsByCode.remove(removed.getCode());
+            return Optional.of(Product.builder().id(removed.getId()).code(removed.getCode()).build());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void delete(Product entity) {
+        deleteById(entity.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Product> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        writeLock.lock();
+        try {
+            products.clear();
+            idsByCode.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Product> findAfter(String field, String lastValue, int limit, Set<String> fields) {
+        Stream<Product> after;
+        if ("code".equals(field)) {
+            NavigableMap<String, String> codes = lastValue == null ? idsByCode : idsByCode.tailMap(lastValue, false);
+            after = codes.values().stream().map(products::get).filter(Objects::nonNull);
+        } else {
+            after = (lastValue == null ? products : products.tailMap(lastValue, false)).values().stream();
+        }
+        return after.limit(limit)
+                .map(product -> project(product, fields))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Slice<Product> findSlice(Pageable pageable, Set<String> fields) {
+        Slice<Product> slice = findAllBy(pageable);
+        return slice.map(product -> project(product, fields));
+    }
+
+    @Override
+    public Optional<Product> findProjected(String field, String value, Set<String> fields) {
+        Optional<Product> product = "code".equals(field)
+                ? Optional.ofNullable(idsByCode.get(value)).map(products::get)
+                : Optional.ofNullable(products.get(value));
+        return product.map(found -> project(found, fields));
+    }
+
+    /**
+     * Scans every product, the index plans only exist in MongoDB.
+     */
+    @Override
+    public Slice<Product> findFiltered(ProductFilter filter, Pageable pageable, Set<String> fields) {
+        Sort sort = pageable.getSort().getOrderFor("id") == null ? pageable.getSort().and(Sort.by("id")) : pageable.getSort();
+        Stream<Product> matching = products.values().stream()
+                .filter(product -> matches(product, filter))
+                .sorted(comparator(sort));
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(matching.map(product -> project(product, fields)).toList(), pageable, false);
+        }
+        List<Product> content = matching.skip(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1L)
+                .map(product -> project(product, fields))
+                .toList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    public long countFiltered(ProductFilter filter) {
+        return products.values().stream().filter(product -> matches(product, filter)).count();
+    }
+
+    @Override
+    public Document explainFiltered(ProductFilter filter, Pageable pageable) {
+        throw new UnsupportedOperationException("Query plans are only available from MongoDB");
+    }
+
+    private static boolean matches(Product product, ProductFilter filter) {
+        return (filter.getMinValue() == null || product.getValue().compareTo(filter.getMinValue()) >= 0)
+                && (filter.getMaxValue() == null || product.getValue().compareTo(filter.getMaxValue()) <= 0)
+                && (filter.getNamePrefix() == null || product.getName().startsWith(filter.getNamePrefix()));
+    }
+
+    /**
+     * Scores every product by the number of searched terms found in its name, weighted 3 like the
+     * text index, and in its description.
+     */
+    @Override
+    public List<ProductSearchHit> searchText(String text, long offset, int limit) {
+        List<String> terms = Arrays.asList(text.toLowerCase(Locale.ROOT).split("\\s+"));
+        return products.values().stream()
+                .map(product -> new ProductSearchHit(product.getId(), product.getCode(), product.getName(),
+                        product.getValue(), 3f * matches(product.getName(), terms) + matches(product.getDescription(), terms)))
+                .filter(hit -> hit.getScore() > 0)
+                .sorted(Comparator.comparing(ProductSearchHit::getScore).reversed())
+                .skip(offset)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static int matches(String field, List<String> terms) {
+        if (field == null) {
+            return 0;
+        }
+        List<String> words = Arrays.asList(field.toLowerCase(Locale.ROOT).split("\\W+"));
+        return (int) terms.stream().filter(words::contains).count();
+    }
+
+    @Override
+    public Optional<Product> findVersionById(String id) {
+        return Optional.ofNullable(products.get(id)).map(InMemoryProductRepository::version);
+    }
+
+    @Override
+    public Optional<Product> findVersionByCode(String code) {
+        String id = idsByCode.get(code);
+        return id == null ? Optional.empty() : findVersionById(id);
+    }
+
+    @Override
+    public Product updateByCode(Product product, String expectedId, Long expectedVersion) {
+        writeLock.lock();
+        try {
+            String id = idsByCode.get(product.getCode());
+            Product stored = id == null ? null : products.get(id);
+            if (stored == null || (expectedId != null && !expectedId.equals(id))) {
+                return null;
+            }
+            long version = stored.getVersion() == null ? 0L : stored.getVersion();
+            if (expectedVersion != null && expectedVersion != version) {
+                return null;
+            }
+
+            Product updated = copy(stored);
+            updated.setName(product.getName());
+            updated.setDescription(product.getDescription());
+            updated.setValue(product.getValue());
+            updated.setUpdatedAt(Instant.now());
+            updated.setVersion(version + 1);
+            products.put(id, updated);
+            return copy(updated);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<BulkWriteError> insertUnordered(List<Product> batch) {
+        List<BulkWriteError> errors = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                insert(batch.get(i));
+            } catch (DuplicateKeyException ex) {
+                errors.add(new BulkWriteError(DUPLICATE_KEY, ex.getMessage(), new BsonDocument(), i));
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public Stream<Product> streamUpdatedAfter(Instant updatedAfter) {
+        return snapshot().filter(product -> updatedAfter == null
+                || (product.getUpdatedAt() != null && product.getUpdatedAt().isAfter(updatedAfter)));
+    }
+
+    @Override
+    public <S extends Product> Optional<S> findOne(Example<S> example) {
+        throw exampleNotSupported();
+    }
+
+    @Override
+    public <S extends Product> List<S> findAll(Example<S> example) {
+        throw exampleNotSupported();
+    }
+
+    @Override
+    public <S extends Product> List<S> findAll(Example<S> example, Sort sort) {
+        throw exampleNotSupported();
+    }
+
+    @Override
+    public <S extends Product> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw exampleNotSupported();
+    }
+
+    @Override
+    public <S extends Product> long count(Example<S> example) {
+        throw exampleNotSupported();
+    }
+
+    @Override
+    public <S extends Product> boolean exists(Example<S> example) {
+        throw exampleNotSupported();
+    }
+
+    @Override
+    public <S extends Product, R> R findBy(Example<S> example,
+                                           Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw exampleNotSupported();
+    }
+
+    private void store(Product product) {
+        products.put(product.getId(), copy(product));
+        idsByCode.put(product.getCode(), product.getId());
+    }
+
+    private Stream<Product> snapshot() {
+        return products.values().stream().map(InMemoryProductRepository::copy);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Product> comparator(Sort sort) {
+        Comparator<Product> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Function<Product, Comparable> key = (Function) SORT_KEYS.getOrDefault(order.getProperty(), product -> null);
+            Comparator<Product> byKey = Comparator.comparing(key, Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byKey : byKey.reversed());
+        }
+        return comparator;
+    }
+
+    private static Product copy(Product product) {
+        return Product.builder()
+                .id(product.getId())
+                .code(product.getCode())
+                .name(product.getName())
+                .description(product.getDescription())
+                .value(product.getValue())
+                .updatedAt(product.getUpdatedAt())
+                .version(product.getVersion())
+                .build();
+    }
+
+    /**
+     * Copies only the given properties, and always the id, like a MongoDB projection.
+     */
+    static Product project(Product product, Set<String> fields) {
+        if (fields == null) {
+            return copy(product);
+        }
+        return Product.builder()
+                .id(product.getId())
+                .code(fields.contains("code") ? product.getCode() : null)
+                .name(fields.contains("name") ? product.getName() : null)
+                .description(fields.contains("description") ? product.getDescription() : null)
+                .value(fields.contains("value") ? product.getValue() : null)
+                .updatedAt(fields.contains("updatedAt") ? product.getUpdatedAt() : null)
+                .version(fields.contains("version") ? product.getVersion() : null)
+                .build();
+    }
+
+    private static Product version(Product product) {
+        return Product.builder()
+                .id(product.getId())
+                .version(product.getVersion())
+                .build();
+    }
+
+    private static DuplicateKeyException duplicateKey(String field, String value) {
+        return new DuplicateKeyException("E11000 duplicate key error collection: product index: " + field
+                + " dup key: { " + field + ": \"" + value + "\" }");
+    }
+
+    private static UnsupportedOperationException exampleNotSupported() {
+        return new UnsupportedOperationException("Query by example is not supported by the in-memory repository");
+    }
+}
@@ -0,0 +1,246 @@
+package com.psouza.online.sales.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.domain.ProductFilter;
+import com.psouza.online.sales.domain.ProductSearchHit;
+import org.reactivestreams.Publisher;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link IReactiveProductRepository} over an {@link InMemoryProductRepository}, so the servlet and
+ * the reactive stacks can share one catalog. Every call is deferred until subscription, like the
+ * reactive driver.
+ */
+public class InMemoryReactiveProductRepository implements IReactiveProductRepository {
+
+    private final InMemoryProductRepository repository;
+
+    public InMemoryReactiveProductRepository(InMemoryProductRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Mono<Product> findByCode(String code) {
+        return Mono.defer(() -> Mono.justOrEmpty(repository.findByCode(code)));
+    }
+
+    @Override
+    public Flux<Product> findByCodeIn(Collection<String> codes) {
+        return Flux.defer(() -> Flux.fromIterable(repository.findByCodeIn(codes)));
+    }
+
+    @Override
+    public Flux<Product> findAllBy(Pageable pageable) {
+        return Flux.defer(() -> Flux.fromIterable(repository.findAll(pageable).getContent()));
+    }
+
+    @Override
+    public Flux<Product> findSlice(Pageable pageable, Set<String> fields) {
+        return Flux.defer(() -> Flux.fromIterable(pageable.isPaged()
+                ? repository.read(pageable, pageable.getPageSize() + 1L)
+                : repository.findAll(pageable).getContent()))
+                .map(product -> InMemoryProductRepository.project(product, fields));
+    }
+
+    @Override
+    public Mono<Product> findProjected(String field, String value, Set<String> fields) {
+        return Mono.defer(() -> Mono.justOrEmpty(repository.findProjected(field, value, fields)));
+    }
+
+    /**
+     * Reads the page and the first product of the next one, like the MongoDB query.
+     */
+    @Override
+    public Flux<Product> findFiltered(ProductFilter filter, Pageable pageable, Set<String> fields) {
+        return Flux.defer(() -> {
+            if (pageable.isUnpaged()) {
+                return Flux.fromIterable(repository.findFiltered(filter, pageable, fields).getContent());
+            }
+            Pageable withNext = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize() + 1, pageable.getSort());
+            return Flux.fromIterable(repository.findFiltered(filter, withNext, fields).getContent())
+                    .skip(pageable.getOffset());
+        });
+    }
+
+    @Override
+    public Mono<Long> countFiltered(ProductFilter filter) {
+        return Mono.fromCallable(() -> repository.countFiltered(filter));
+    }
+
+    @Override
+    public Flux<ProductSearchHit> searchText(String text, long offset, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(repository.searchText(text, offset, limit)));
+    }
+
+    @Override
+    public Mono<Long> estimatedCount() {
+        return Mono.fromCallable(repository::estimatedCount);
+    }
+
+    @Override
+    public Flux<Product> findAfter(String field, String lastValue, int limit, Set<String> fields) {
+        return Flux.defer(() -> Flux.fromIterable(repository.findAfter(field, lastValue, limit, fields)));
+    }
+
+    @Override
+    public Mono<Product> updateByCode(Product product, String expectedId, Long expectedVersion) {
+        return Mono.fromCallable(() -> repository.updateByCode(product, expectedId, expectedVersion));
+    }
+
+    @Override
+    public Flux<Product> streamUpdatedAfter(Instant updatedAfter) {
+        return Flux.defer(() -> Flux.fromStream(repository.streamUpdatedAfter(updatedAfter)));
+    }
+
+    @Override
+    public <S extends Product> Mono<S> insert(S entity) {
+        return Mono.fromCallable(() -> repository.insert(entity));
+    }
+
+    @Override
+    public <S extends Product> Flux<S> insert(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::insert);
+    }
+
+    @Override
+    public <S extends Product> Flux<S> insert(Publisher<S> entities) {
+        return Flux.from(entities).concatMap(this::insert);
+    }
+
+    @Override
+    public <S extends Product> Mono<S> save(S entity) {
+        return Mono.fromCallable(() -> repository.save(entity));
+    }
+
+    @Override
+    public <S extends Product> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends Product> Flux<S> saveAll(Publisher<S> entities) {
+        return Flux.from(entities).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<Product> findById(String id) {
+        return Mono.defer(() -> Mono.justOrEmpty(repository.findById(id)));
+    }
+
+    @Override
+    public Mono<Product> findById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return Mono.fromCallable(() -> repository.existsById(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<Product> findAll() {
+        return Flux.defer(() -> Flux.fromIterable(repository.findAll()));
+    }
+
+    @Override
+    public Flux<Product> findAll(Sort sort) {
+        return Flux.defer(() -> Flux.fromIterable(repository.findAll(sort)));
+    }
+
+    @Override
+    public Flux<Product> findAllById(Iterable<String> ids) {
+        return Flux.defer(() -> Flux.fromIterable(repository.findAllById(ids)));
+    }
+
+    @Override
+    public Flux<Product> findAllById(Publisher<String> ids) {
+        return Flux.from(ids).concatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromCallable(repository::count);
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return Mono.fromRunnable(() -> repository.deleteById(id));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(Product entity) {
+        return Mono.fromRunnable(() -> repository.delete(entity));
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends String> ids) {
+        return Mono.fromRunnable(() -> repository.deleteAllById(ids));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Product> entities) {
+        return Mono.fromRunnable(() -> repository.deleteAll(entities));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Product> entities) {
+        return Flux.from(entities).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Mono.fromRunnable(repository::deleteAll);
+    }
+
+    @Override
+    public <S extends Product> Mono<S> findOne(Example<S> example) {
+        return Mono.fromCallable(() -> repository.findOne(example).orElse(null));
+    }
+
+    @Override
+    public <S extends Product> Flux<S> findAll(Example<S> example) {
+        return Flux.defer(() -> Flux.fromIterable(repository.findAll(example)));
+    }
+
+    @Override
+    public <S extends Product> Flux<S> findAll(Example<S> example, Sort sort) {
+        return Flux.defer(() -> Flux.fromIterable(repository.findAll(example, sort)));
+    }
+
+    @Override
+    public <S extends Product> Mono<Long> count(Example<S> example) {
+        return Mono.fromCallable(() -> repository.count(example));
+    }
+
+    @Override
+    public <S extends Product> Mono<Boolean> exists(Example<S> example) {
+        return Mono.fromCallable(() -> repository.exists(example));
+    }
+
+    @Override
+    public <S extends Product, R, P extends Publisher<R>> P findBy(Example<S> example,
+            Function<FluentQuery.ReactiveFluentQuery<S>, P> queryFunction) {
+        throw new UnsupportedOperationException("Query by example is not supported by the in-memory repository");
+    }
+}
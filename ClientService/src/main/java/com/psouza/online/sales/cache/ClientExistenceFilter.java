@@ -0,0 +1,201 @@
+package com.psouza.online.sales.cache;
+
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.psouza.online.sales.config.ClientExistenceProperties;
+import com.psouza.online.sales.domain.Client;
+import com.psouza.online.sales.repository.IClientRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Answers "does this client exist?" without MongoDB for most misses.
+ * <p>
+ * A Bloom filter over every id and cpf is built from a projected scan when the service starts and
+ * rebuilt periodically. A key the filter rules out is reported as missing without a query. The
+ * filter knows the clients this instance registered and those found by its last scan, so a client
+ * registered by another instance reads as missing here until the next rebuild: the rebuild
+ * interval bounds how long. Keys that passed the filter but were not in the database are
+ * remembered in a short-lived negative cache, so repeated false positives and deleted clients do
+ * not reach MongoDB either. Until the first build completes every key is reported as possibly
+ * present, so lookups fall through to MongoDB.
+ * <p>
+ * A lookup only marks its key missing while the generation it read before querying is current:
+ * each key hashes to a generation that {@link #add(Client)} increments, so a client registered
+ * while the lookup ran is not hidden by what the lookup read before.
+ */
+@Slf4j
+@Component
+public class ClientExistenceFilter {
+
+	private static final String ID_PREFIX = "id:";
+	private static final String CPF_PREFIX = "cpf:";
+	private static final int GENERATION_STRIPES = 1024;
+
+	private final IClientRepository clientRepository;
+	private final ClientExistenceProperties properties;
+	private final Cache<String, Boolean> missing;
+	private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+	/**
+	 * Orders adds against the start and the end of a rebuild, so a key added while the scan runs
+	 * reaches the new filter.
+	 */
+	private final Object swapLock = new Object();
+
+	private volatile BloomFilter current;
+	private volatile BloomFilter building;
+	private volatile long lastCount;
+
+	@Autowired
+	public ClientExistenceFilter(IClientRepository clientRepository, ClientExistenceProperties properties) {
+		this.clientRepository = clientRepository;
+		this.properties = properties;
+		this.missing = Caffeine.newBuilder()
+				.maximumSize(properties.getNegativeMaximumSize())
+				.expireAfterWrite(properties.getNegativeTtl())
+				.build();
+	}
+
+	/**
+	 * Runs the lookup unless the filter rules the id out, and remembers the id as missing when the
+	 * lookup finds nothing.
+	 *
+	 * @param id     the id of the client
+	 * @param lookup the repository call
+	 * @return what the lookup found, empty when the id was ruled out
+	 */
+	public <T> Optional<T> findById(String id, Supplier<Optional<T>> lookup) {
+		return find(ID_PREFIX + id, lookup);
+	}
+
+	public <T> Optional<T> findByCpf(String cpf, Supplier<Optional<T>> lookup) {
+		return find(CPF_PREFIX + cpf, lookup);
+	}
+
+	/**
+	 * Deletes the client and remembers its id as missing.
+	 *
+	 * @param id     the id of the client
+	 * @param delete the repository call
+	 */
+	public void deleteById(String id, Runnable delete) {
+		String key = ID_PREFIX + id;
+		long generation = generations.get(stripe(key));
+		delete.run();
+		markMissing(key, generation);
+	}
+
+	/**
+	 * Records a newly registered client so that it is never reported as missing.
+	 *
+	 * @param client the client that was stored
+	 */
+	public void add(Client client) {
+		add(ID_PREFIX + client.getId());
+		add(CPF_PREFIX + client.getCpf());
+	}
+
+	@Scheduled(initialDelay = 0, fixedDelayString = "${client.existence.rebuild-interval:PT10M}")
+	public void rebuild() {
+		if (!properties.isEnabled()) {
+			return;
+		}
+
+		// Each client puts two keys, its id and its cpf
+		long clients = Math.max(properties.getExpectedInsertions(), lastCount);
+		BloomFilter filter = new BloomFilter(2 * clients, properties.getFalsePositiveRate());
+		synchronized (swapLock) {
+			// Adds from now on also reach the new filter; earlier ones stored their client before
+			// the scan starts, so the scan reads it
+			building = filter;
+		}
+		long count = 0;
+		try {
+			try (Stream<Client> scanned = clientRepository.streamIdsAndCpfs()) {
+				Iterator<Client> iterator = scanned.iterator();
+				while (iterator.hasNext()) {
+					Client client = iterator.next();
+					filter.put(ID_PREFIX + client.getId());
+					filter.put(CPF_PREFIX + client.getCpf());
+					count++;
+				}
+			}
+			synchronized (swapLock) {
+				current = filter;
+				building = null;
+			}
+			lastCount = count;
+			log.info("Client existence filter built with {} clients", count);
+		} catch (RuntimeException ex) {
+			synchronized (swapLock) {
+				building = null;
+			}
+			log.warn("Could not build the client existence filter, keeping the previous one", ex);
+		}
+	}
+
+	private boolean mightExist(String key) {
+		if (!properties.isEnabled()) {
+			return true;
+		}
+		if (missing.getIfPresent(key) != null) {
+			return false;
+		}
+		BloomFilter filter = current;
+		return filter == null || filter.mightContain(key);
+	}
+
+	private <T> Optional<T> find(String key, Supplier<Optional<T>> lookup) {
+		if (!mightExist(key)) {
+			return Optional.empty();
+		}
+		long generation = generations.get(stripe(key));
+		Optional<T> found = lookup.get();
+		if (found.isEmpty()) {
+			markMissing(key, generation);
+		}
+		return found;
+	}
+
+	/**
+	 * Remembers the key as missing unless it was added since the generation was read. The check
+	 * runs under the lock of the entry, and an add increments the generation before it invalidates
+	 * the entry, so either the check sees the add or the add removes what was stored.
+	 */
+	private void markMissing(String key, long generation) {
+		if (properties.isEnabled()) {
+			missing.asMap().compute(key,
+					(k, previous) -> generations.get(stripe(key)) == generation ? Boolean.TRUE : previous);
+		}
+	}
+
+	private void add(String key) {
+		generations.incrementAndGet(stripe(key));
+		synchronized (swapLock) {
+			BloomFilter filter = current;
+			if (filter != null) {
+				filter.put(key);
+			}
+			BloomFilter pending = building;
+			if (pending != null) {
+				pending.put(key);
+			}
+		}
+		missing.invalidate(key);
+	}
+
+	private static int stripe(String key) {
+		int hash = key.hashCode();
+		return Math.floorMod(hash ^ (hash >>> 16), GENERATION_STRIPES);
+	}
+}
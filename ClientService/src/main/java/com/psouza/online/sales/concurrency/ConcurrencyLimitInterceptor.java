@@ -0,0 +1,129 @@
+package com.psouza.online.sales.concurrency;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.psouza.online.sales.config.ConcurrencyLimitProperties;
+import com.psouza.online.sales.exception.ServiceUnavailableException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sheds the requests that exceed the adaptive concurrency limit of their endpoint group, before the
+ * controller runs. A rejected request fails with {@link ServiceUnavailableException}, which the
+ * exception handler renders as a 503 with Retry-After. A streamed response keeps its permit until
+ * it completes.
+ */
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+	public static final String LIMIT = "http.server.concurrency.limit";
+	public static final String IN_FLIGHT = "http.server.concurrency.in.flight";
+	public static final String REJECTED = "http.server.concurrency.rejected";
+
+	private static final String PERMIT = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+	private final AntPathMatcher pathMatcher = new AntPathMatcher();
+	private final List<Group> groups = new ArrayList<>();
+	private final Duration retryAfter;
+
+	public ConcurrencyLimitInterceptor(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+		this.retryAfter = properties.getRetryAfter();
+		for (Map.Entry<String, ConcurrencyLimitProperties.Group> entry : properties.getGroups().entrySet()) {
+			ConcurrencyLimitProperties.Group config = entry.getValue();
+			AdaptiveLimiter limiter = new AdaptiveLimiter(config.getInitialLimit(), config.getMinLimit(),
+					config.getMaxLimit(), properties.getTolerance(), properties.getSmoothing(), properties.getWindow());
+			Gauge.builder(LIMIT, limiter, AdaptiveLimiter::getLimit)
+					.description("Current concurrency limit of the endpoint group")
+					.tag("group", entry.getKey())
+					.register(meterRegistry);
+			Gauge.builder(IN_FLIGHT, limiter, AdaptiveLimiter::getInFlight)
+					.description("Requests of the endpoint group being handled")
+					.tag("group", entry.getKey())
+					.register(meterRegistry);
+			Counter rejected = Counter.builder(REJECTED)
+					.description("Requests of the endpoint group rejected over the concurrency limit")
+					.tag("group", entry.getKey())
+					.register(meterRegistry);
+			groups.add(new Group(entry.getKey(), config.getPaths(), config.getMethods(), limiter, rejected));
+		}
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (request.getAttribute(PERMIT) != null) {
+			return true;
+		}
+		Group group = groupOf(request);
+		if (group == null) {
+			return true;
+		}
+		if (!group.limiter.tryAcquire()) {
+			group.rejected.increment();
+			throw new ServiceUnavailableException("Too many concurrent " + group.name + " requests, retry later",
+					retryAfter);
+		}
+		request.setAttribute(PERMIT, new Permit(group, System.nanoTime()));
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+								Exception ex) {
+		Permit permit = (Permit) request.getAttribute(PERMIT);
+		if (permit == null) {
+			return;
+		}
+		request.removeAttribute(PERMIT);
+		boolean dropped = ex != null || response.getStatus() >= 500;
+		permit.group.limiter.release(System.nanoTime() - permit.started, dropped);
+	}
+
+	private Group groupOf(HttpServletRequest request) {
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		for (Group group : groups) {
+			if (!group.methods.isEmpty() && !group.methods.contains(request.getMethod())) {
+				continue;
+			}
+			for (String pattern : group.paths) {
+				if (pathMatcher.match(pattern, path)) {
+					return group;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static class Group {
+		private final String name;
+		private final List<String> paths;
+		private final List<String> methods;
+		private final AdaptiveLimiter limiter;
+		private final Counter rejected;
+
+		Group(String name, List<String> paths, List<String> methods, AdaptiveLimiter limiter, Counter rejected) {
+			this.name = name;
+			this.paths = paths;
+			this.methods = methods;
+			this.limiter = limiter;
+			this.rejected = rejected;
+		}
+	}
+
+	private static class Permit {
+		private final Group group;
+		private final long started;
+
+		Permit(Group group, long started) {
+			this.group = group;
+			this.started = started;
+		}
+	}
+}
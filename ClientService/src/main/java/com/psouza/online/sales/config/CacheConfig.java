@@ -0,0 +1,12 @@
+package com.psouza.online.sales.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({ClientExistenceProperties.class, ClientListingProperties.class, ClientImportProperties.class})
+public class CacheConfig {
+
+}
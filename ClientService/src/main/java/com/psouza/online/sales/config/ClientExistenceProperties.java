@@ -0,0 +1,39 @@
+package com.psouza.online.sales.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "client.existence")
+public class ClientExistenceProperties {
+
+	private boolean enabled = true;
+
+	/**
+	 * Clients the Bloom filter is sized for, at least; it holds two keys per client, its id and its
+	 * cpf, and grows to the number of clients found by the last rebuild.
+	 */
+	private long expectedInsertions = 1_000_000;
+
+	private double falsePositiveRate = 0.01;
+
+	/**
+	 * How long a key that passed the filter but was not found is answered as missing without
+	 * asking MongoDB.
+	 */
+	private Duration negativeTtl = Duration.ofSeconds(30);
+
+	private long negativeMaximumSize = 100_000;
+
+	/**
+	 * Interval between rebuilds of the Bloom filter from MongoDB. Rebuilding drops deleted clients
+	 * and adds clients registered by other instances of the service, which until then read as
+	 * missing on this instance; with several instances this is how stale a lookup may be.
+	 */
+	private Duration rebuildInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,23 @@
+package com.psouza.online.sales.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "client.import")
+public class ClientImportProperties {
+
+	/**
+	 * Rows validated together and upserted in a single bulk write.
+	 */
+	private int batchSize = 1000;
+
+	/**
+	 * Bytes of the CSV file read from the request at a time.
+	 */
+	private DataSize chunkSize = DataSize.ofKilobytes(64);
+}
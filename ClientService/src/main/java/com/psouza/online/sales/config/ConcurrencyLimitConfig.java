@@ -0,0 +1,35 @@
+package com.psouza.online.sales.config;
+
+import com.psouza.online.sales.concurrency.ConcurrencyLimitInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Puts an adaptive concurrency limit in front of the client endpoints, one per group configured
+ * under client.concurrency.groups.
+ */
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+	private final ConcurrencyLimitProperties properties;
+	private final MeterRegistry meterRegistry;
+
+	@Autowired
+	public ConcurrencyLimitConfig(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		if (properties.isEnabled() && !properties.getGroups().isEmpty()) {
+			registry.addInterceptor(new ConcurrencyLimitInterceptor(properties, meterRegistry));
+		}
+	}
+}
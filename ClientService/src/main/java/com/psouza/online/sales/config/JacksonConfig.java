@@ -0,0 +1,52 @@
+package com.psouza.online.sales.config;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.psouza.online.sales.domain.Client;
+
+/**
+ * Binds {@link Client} to the {@value #FIELDS_FILTER} property filter through a mix-in, so the
+ * entity stays free of Jackson filters everywhere else. The filter writes every property unless a
+ * response carries its own filter for a sparse fieldset.
+ * <p>
+ * Internal callers can also ask for CBOR ({@code application/cbor}) or Smile
+ * ({@code application/x-jackson-smile}) in the Accept or Content-Type header, error responses
+ * included. Both converters are built from the same builder as the JSON one, so they share its
+ * modules, mix-ins and filters. JSON stays the default because its converter comes first.
+ */
+@Configuration
+public class JacksonConfig {
+
+	public static final String FIELDS_FILTER = "fields";
+
+	@Bean
+	public Jackson2ObjectMapperBuilderCustomizer fieldsFilter() {
+		return builder -> builder
+				.mixIn(Client.class, FieldsFilterMixIn.class)
+				.filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+	}
+
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+	}
+
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+	}
+
+	@JsonFilter(FIELDS_FILTER)
+	interface FieldsFilterMixIn {
+	}
+}
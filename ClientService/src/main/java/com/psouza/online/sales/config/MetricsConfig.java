@@ -0,0 +1,41 @@
+package com.psouza.online.sales.config;
+
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.psouza.online.sales.metrics.MongoPoolUsage;
+import com.psouza.online.sales.metrics.MongoPoolWaitListener;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Metrics beyond the ones Spring Boot records on its own ({@code http.server.requests} and the
+ * MongoDB {@code mongodb.driver.commands} and pool gauges). The histogram buckets of every timer
+ * are set by {@code management.metrics.distribution} in the client-service configuration.
+ */
+@Configuration
+public class MetricsConfig {
+
+	/**
+	 * Records the {@code usecase} timer of the use case classes annotated with {@code @Timed}.
+	 */
+	@Bean
+	public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+		return new TimedAspect(meterRegistry);
+	}
+
+	@Bean
+	public MongoPoolUsage mongoPoolUsage(MeterRegistry meterRegistry) {
+		return new MongoPoolUsage(meterRegistry);
+	}
+
+	@Bean
+	public MongoClientSettingsBuilderCustomizer mongoPoolMetrics(MeterRegistry meterRegistry, MongoPoolUsage usage) {
+		MongoPoolWaitListener listener = new MongoPoolWaitListener(meterRegistry);
+		return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+				.addConnectionPoolListener(listener)
+				.addConnectionPoolListener(usage));
+	}
+}
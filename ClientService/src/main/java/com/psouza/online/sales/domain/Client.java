@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -64,4 +65,8 @@ public class Client {
     @Size(min = 1, max = 50)
     @Schema(description = "Estate of the client", example = "SP", minLength = 1, maxLength = 50, nullable = false)
     private String estate;
+
+    @Version
+    @Schema(description = "Version of the client, incremented on every change", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
 }
\ No newline at end of file
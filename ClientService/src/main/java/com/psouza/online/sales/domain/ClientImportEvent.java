@@ -0,0 +1,62 @@
+package com.psouza.online.sales.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(name = "ClientImportEvent", description = "Line of the newline-delimited report of a client import")
+public class ClientImportEvent {
+
+    public enum Type {
+        PROGRESS,
+        REJECTED,
+        COMPLETED,
+        FAILED
+    }
+
+    @Schema(description = "Kind of event", example = "PROGRESS")
+    private Type type;
+
+    @Schema(description = "Line of the rejected row in the CSV file, the header being line 1", example = "42")
+    private Long line;
+
+    @Schema(description = "CPF of the rejected row, when it could be read", example = "12345678900")
+    private String cpf;
+
+    @Schema(description = "Reason the row was rejected or the import failed")
+    private String reason;
+
+    @Schema(description = "Rows read so far", example = "10000")
+    private Long rows;
+
+    @Schema(description = "Clients inserted or updated so far", example = "9998")
+    private Long upserted;
+
+    @Schema(description = "Rows rejected so far", example = "2")
+    private Long rejected;
+
+    @Schema(description = "Time the import took, on completion", example = "5230")
+    private Long elapsedMillis;
+
+    public static ClientImportEvent progress(long rows, long upserted, long rejected) {
+        return new ClientImportEvent(Type.PROGRESS, null, null, null, rows, upserted, rejected, null);
+    }
+
+    public static ClientImportEvent rejected(long line, String cpf, String reason) {
+        return new ClientImportEvent(Type.REJECTED, line, cpf, reason, null, null, null, null);
+    }
+
+    public static ClientImportEvent completed(long rows, long upserted, long rejected, long elapsedMillis) {
+        return new ClientImportEvent(Type.COMPLETED, null, null, null, rows, upserted, rejected, elapsedMillis);
+    }
+
+    public static ClientImportEvent failed(long rows, long upserted, long rejected, String reason) {
+        return new ClientImportEvent(Type.FAILED, null, null, reason, rows, upserted, rejected, null);
+    }
+}
@@ -0,0 +1,20 @@
+package com.psouza.online.sales.domain;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@Schema(name = "CursorPage", description = "Page of a keyset paginated listing")
+public class CursorPage<T> {
+
+    @Schema(description = "Items of the page, in sort key order")
+    private List<T> content;
+
+    @Schema(description = "Token of the next page, absent on the last page")
+    private String nextCursor;
+}
@@ -0,0 +1,11 @@
+package com.psouza.online.sales.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+	private static final long serialVersionUID = 3581164215634489180L;
+
+	public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+}
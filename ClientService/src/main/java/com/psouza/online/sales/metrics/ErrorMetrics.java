@@ -0,0 +1,40 @@
+package com.psouza.online.sales.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts the errors rendered by the exception handlers, tagged with the handler branch that built
+ * the response, the status sent and the exception type.
+ */
+@Component
+public class ErrorMetrics {
+
+	public static final String ERRORS = "api.errors";
+
+	private final MeterRegistry meterRegistry;
+
+	@Autowired
+	public ErrorMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * @param branch    name of the handler branch, e.g. "entity-not-found"
+	 * @param status    the status of the error response
+	 * @param exception the exception being handled
+	 */
+	public void record(String branch, HttpStatusCode status, Throwable exception) {
+		Counter.builder(ERRORS)
+				.description("Error responses rendered by the exception handlers")
+				.tag("branch", branch)
+				.tag("status", String.valueOf(status.value()))
+				.tag("exception", exception.getClass().getSimpleName())
+				.register(meterRegistry)
+				.increment();
+	}
+}
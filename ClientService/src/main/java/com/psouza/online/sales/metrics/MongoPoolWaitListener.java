@@ -0,0 +1,48 @@
+package com.psouza.online.sales.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times how long each operation waited for a connection from the MongoDB pool. The driver's own pool
+ * metrics only report the pool size and the number of waiters; this timer shows whether requests
+ * are queueing on a too small pool.
+ */
+public class MongoPoolWaitListener implements ConnectionPoolListener {
+
+	public static final String POOL_WAIT = "mongodb.driver.pool.wait";
+
+	private final MeterRegistry meterRegistry;
+
+	public MongoPoolWaitListener(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+		record(event.getConnectionId().getServerId().getAddress(), "checked-out",
+				event.getElapsedTime(TimeUnit.NANOSECONDS));
+	}
+
+	@Override
+	public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+		record(event.getServerId().getAddress(), event.getReason().name().toLowerCase().replace('_', '-'),
+				event.getElapsedTime(TimeUnit.NANOSECONDS));
+	}
+
+	private void record(ServerAddress address, String outcome, long nanos) {
+		Timer.builder(POOL_WAIT)
+				.description("Time waited for a connection from the pool")
+				.tag("server.address", address.toString())
+				.tag("outcome", outcome)
+				.register(meterRegistry)
+				.record(nanos, TimeUnit.NANOSECONDS);
+	}
+}
@@ -3,12 +3,19 @@ package com.psouza.online.sales.repository;
 import java.util.Optional;
 
 import com.psouza.online.sales.domain.Client;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 
 @Repository
-public interface IClientRepository extends MongoRepository<Client, String>{
+public interface IClientRepository extends MongoRepository<Client, String>, IClientRepositoryCustom {
 
     Optional<Client> findByCpf(String cpf);
+
+    /**
+     * Reads a page with limit size + 1 and no count, telling only whether a next page exists.
+     */
+    Slice<Client> findAllBy(Pageable pageable);
 }
@@ -0,0 +1,108 @@
+package com.psouza.online.sales.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.psouza.online.sales.domain.Client;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Client queries that derived repository methods cannot express. Keeping them behind the repository
+ * lets the use cases run against any {@link IClientRepository}, not only the MongoDB one.
+ */
+public interface IClientRepositoryCustom {
+
+    /**
+     * Reads the clients whose id or cpf sorts after the given value, in ascending order.
+     *
+     * @param field     the sort key, either "id" or "cpf"
+     * @param lastValue the last key of the previous page, or null for the first page
+     * @param limit     maximum number of clients to read
+     * @param fields    the properties to read, or null for the whole document
+     * @return the clients in key order
+     */
+    List<Client> findAfter(String field, String lastValue, int limit, Set<String> fields);
+
+    /**
+     * Reads a page of clients with limit size + 1 and no count, only with the given properties.
+     *
+     * @param pageable the page to read
+     * @param fields   the properties to read, or null for the whole document
+     * @return the clients of the page and whether there is a next one
+     */
+    Slice<Client> findSlice(Pageable pageable, Set<String> fields);
+
+    /**
+     * Reads a single client by its id or cpf, only with the given properties.
+     *
+     * @param field  the key, either "id" or "cpf"
+     * @param value  the value of the key
+     * @param fields the properties to read
+     * @return the partially read client, empty when it does not exist
+     */
+    Optional<Client> findProjected(String field, String value, Set<String> fields);
+
+    /**
+     * Number of clients from the collection metadata, without scanning the collection. It may be off
+     * by writes still in flight or after an unclean shutdown.
+     */
+    long estimatedCount();
+
+    Optional<Client> findVersionById(String id);
+
+    Optional<Client> findVersionByCpf(String cpf);
+
+    /**
+     * Whether a client has the cpf, answered from the unique cpf index alone: the query only
+     * projects the cpf, so no document is fetched.
+     */
+    boolean existsByCpf(String cpf);
+
+    /**
+     * Atomically sets the contact and address fields of the client with the same cpf and increments
+     * its version.
+     *
+     * @param client          the client with the new values
+     * @param expectedId      the id the client must have, or null for any
+     * @param expectedVersion the version the client must have, or null for any
+     * @return the client as stored after the update, or null when no client matched
+     */
+    Client updateByCpf(Client client, String expectedId, Long expectedVersion);
+
+    /**
+     * Atomically sets only the given fields of the client with the cpf and increments its version.
+     * The fields left out keep their stored values, so concurrent updates of different fields are
+     * all kept.
+     *
+     * @param cpf             the cpf of the client
+     * @param fields          the new values by field name
+     * @param expectedId      the id the client must have, or null for any
+     * @param expectedVersion the version the client must have, or null for any
+     * @return the client as stored after the update, or null when no client matched
+     */
+    Client updateFieldsByCpf(String cpf, Map<String, Object> fields, String expectedId, Long expectedVersion);
+
+    /**
+     * Upserts the clients by cpf in a single unordered bulk write, so one failing document, such as
+     * an email another client already has, does not stop the others. The contact and address fields
+     * are set and the version is incremented, a new client starting at 1. The clients that were
+     * inserted get the id MongoDB generated for them.
+     *
+     * @param clients the clients to upsert, with distinct cpfs
+     * @return the write errors, indexed by position in the given list
+     */
+    List<BulkWriteError> upsertByCpf(List<Client> clients);
+
+    /**
+     * Streams every client with only its id and cpf read. The stream holds a database cursor and
+     * must be closed.
+     *
+     * @return the clients in natural order
+     */
+    Stream<Client> streamIdsAndCpfs();
+}
@@ -0,0 +1,172 @@
+package com.psouza.online.sales.repository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.psouza.online.sales.domain.Client;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+class IClientRepositoryCustomImpl implements IClientRepositoryCustom {
+
+    private static final int SCAN_BATCH_SIZE = 5000;
+
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    IClientRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Client> findAfter(String field, String lastValue, int limit, Set<String> fields) {
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, field))
+                .limit(limit);
+        if (lastValue != null) {
+            query.addCriteria(Criteria.where(field).gt(lastValue));
+        }
+        include(query, fields);
+        return mongoTemplate.find(query, Client.class);
+    }
+
+    @Override
+    public Slice<Client> findSlice(Pageable pageable, Set<String> fields) {
+        Query query = new Query().with(pageable);
+        if (pageable.isPaged()) {
+            query.limit(pageable.getPageSize() + 1);
+        }
+        include(query, fields);
+
+        List<Client> clients = mongoTemplate.find(query, Client.class);
+        boolean hasNext = pageable.isPaged() && clients.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? clients.subList(0, pageable.getPageSize()) : clients, pageable, hasNext);
+    }
+
+    @Override
+    public Optional<Client> findProjected(String field, String value, Set<String> fields) {
+        Query query = Query.query(Criteria.where(field).is(value));
+        include(query, fields);
+        return Optional.ofNullable(mongoTemplate.findOne(query, Client.class));
+    }
+
+    private static void include(Query query, Set<String> fields) {
+        if (fields != null) {
+            query.fields().include(fields.toArray(String[]::new));
+        }
+    }
+
+    @Override
+    public long estimatedCount() {
+        return mongoTemplate.estimatedCount(Client.class);
+    }
+
+    @Override
+    public Optional<Client> findVersionById(String id) {
+        return findVersion(Criteria.where("id").is(id));
+    }
+
+    @Override
+    public Optional<Client> findVersionByCpf(String cpf) {
+        return findVersion(Criteria.where("cpf").is(cpf));
+    }
+
+    @Override
+    public boolean existsByCpf(String cpf) {
+        Query query = Query.query(Criteria.where("cpf").is(cpf)).limit(1);
+        query.fields().include("cpf").exclude("id");
+        return mongoTemplate.findOne(query, Client.class) != null;
+    }
+
+    private Optional<Client> findVersion(Criteria criteria) {
+        Query query = Query.query(criteria);
+        query.fields().include("version");
+        return Optional.ofNullable(mongoTemplate.findOne(query, Client.class));
+    }
+
+    @Override
+    public Client updateByCpf(Client client, String expectedId, Long expectedVersion) {
+        return mongoTemplate.findAndModify(byCpf(client.getCpf(), expectedId, expectedVersion),
+                contactAndAddress(client), FindAndModifyOptions.options().returnNew(true), Client.class);
+    }
+
+    @Override
+    public Client updateFieldsByCpf(String cpf, Map<String, Object> fields, String expectedId, Long expectedVersion) {
+        Update update = new Update();
+        fields.forEach(update::set);
+        update.inc("version", 1);
+        return mongoTemplate.findAndModify(byCpf(cpf, expectedId, expectedVersion), update,
+                FindAndModifyOptions.options().returnNew(true), Client.class);
+    }
+
+    @Override
+    public List<BulkWriteError> upsertByCpf(List<Client> clients) {
+        BulkOperations operations = mongoTemplate.bulkOps(BulkMode.UNORDERED, Client.class);
+        for (Client client : clients) {
+            operations.upsert(Query.query(Criteria.where("cpf").is(client.getCpf())), contactAndAddress(client));
+        }
+
+        BulkWriteResult result;
+        List<BulkWriteError> errors;
+        try {
+            result = operations.execute();
+            errors = Collections.emptyList();
+        } catch (BulkOperationException ex) {
+            result = ex.getResult();
+            errors = ex.getErrors();
+        }
+        for (BulkWriteUpsert upsert : result.getUpserts()) {
+            clients.get(upsert.getIndex()).setId(upsert.getId().asObjectId().getValue().toHexString());
+        }
+        return errors;
+    }
+
+    private static Query byCpf(String cpf, String expectedId, Long expectedVersion) {
+        Criteria criteria = Criteria.where("cpf").is(cpf);
+        if (expectedId != null) {
+            criteria.and("id").is(expectedId);
+        }
+        if (expectedVersion != null) {
+            criteria.and("version").in(expectedVersion == 0 ? Arrays.asList(0L, null) : List.of(expectedVersion));
+        }
+        return Query.query(criteria);
+    }
+
+    private static Update contactAndAddress(Client client) {
+        return new Update()
+                .set("name", client.getName())
+                .set("tel", client.getTel())
+                .set("email", client.getEmail())
+                .set("address", client.getAddress())
+                .set("addressNumber", client.getAddressNumber())
+                .set("city", client.getCity())
+                .set("estate", client.getEstate())
+                .inc("version", 1);
+    }
+
+    @Override
+    public Stream<Client> streamIdsAndCpfs() {
+        Query query = new Query().cursorBatchSize(SCAN_BATCH_SIZE);
+        query.fields().include("cpf");
+        return mongoTemplate.stream(query, Client.class);
+    }
+}
@@ -1,22 +1,43 @@
 package com.psouza.online.sales.resources;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.psouza.online.sales.domain.Client;
+import com.psouza.online.sales.domain.ClientImportEvent;
+import com.psouza.online.sales.domain.CursorPage;
+import com.psouza.online.sales.usecase.ClientCsvReader;
+import com.psouza.online.sales.usecase.ClientImport;
 import com.psouza.online.sales.usecase.ClientRegistration;
 import com.psouza.online.sales.usecase.SearchClient;
 import jakarta.validation.Valid;
 
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -25,35 +46,81 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.Parameter;
 
+@Validated
 @RestController
 @RequestMapping(value = "/client")
 @Tag(name = "Client", description = "Endpoints for managing clients")
 public class ClientResource {
 
+	private static final List<String> FIELDS = List.of("id", "name", "cpf", "tel", "email", "address",
+			"addressNumber", "city", "estate", "version");
+
+	private static final String TEXT_CSV_VALUE = "text/csv";
+
+	private static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
 	private final SearchClient searchClient;
 	private final ClientRegistration clientRegistration;
+	private final ClientImport clientImport;
 
 	@Autowired
-	public ClientResource(SearchClient searchClient, ClientRegistration clientRegistration) {
+	public ClientResource(SearchClient searchClient, ClientRegistration clientRegistration, ClientImport clientImport) {
 		this.searchClient = searchClient;
 		this.clientRegistration = clientRegistration;
+		this.clientImport = clientImport;
 	}
 
 	@GetMapping
-	@Operation(summary = "Search clients", description = "Retrieve a paginated list of clients")
+	@Operation(summary = "Search clients", description = "Retrieve a paginated list of clients. The total is counted exactly, estimated from the collection metadata or left out, in which case only whether a next page exists is returned")
 	@ApiResponse(responseCode = "200", description = "Clients found", content = @Content(schema = @Schema(implementation = Page.class)))
-	public ResponseEntity<Page<Client>> search(Pageable pageable) {
-		return ResponseEntity.ok(searchClient.search(pageable));
+	@ApiResponse(responseCode = "400", description = "Invalid total mode or fields")
+	public ResponseEntity<MappingJacksonValue> search(
+			Pageable pageable,
+			@Parameter(description = "How to count the total: exact, estimated or none. Defaults to the service configuration", example = "estimated")
+			@RequestParam(value = "total", required = false) String total,
+			@Parameter(description = "Comma separated properties to return, the whole client when absent", example = "name,cpf")
+			@RequestParam(value = "fields", required = false) String fields) {
+		FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+		return ResponseEntity.ok(selection.apply(searchClient.search(pageable, total, selection.projection())));
+	}
+
+	@GetMapping(params = "cursor")
+	@Operation(summary = "Search clients by cursor", description = "Retrieve clients with keyset pagination. Send an empty cursor for the first page and the returned nextCursor for the following ones")
+	@ApiResponse(responseCode = "200", description = "Clients found", content = @Content(schema = @Schema(implementation = CursorPage.class)))
+	@ApiResponse(responseCode = "400", description = "Invalid cursor, sort key or fields")
+	public ResponseEntity<MappingJacksonValue> searchByCursor(
+			@Parameter(description = "Token of the next page, empty for the first page", required = true)
+			@RequestParam(value = "cursor") String cursor,
+			@Parameter(description = "Number of clients per page", example = "20")
+			@RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(1000) int size,
+			@Parameter(description = "Sort key of the listing, either id or cpf", example = "cpf")
+			@RequestParam(value = "sortBy", defaultValue = "id") String sortBy,
+			@Parameter(description = "Comma separated properties to return, the whole client when absent", example = "name,cpf")
+			@RequestParam(value = "fields", required = false) String fields) {
+		FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+		return ResponseEntity.ok(selection.apply(searchClient.search(cursor, size, sortBy, selection.projection())));
 	}
 
 	@GetMapping(value = "/{id}")
 	@Operation(summary = "Client search by id", description = "Retrieve a client by its unique identifier")
 	@ApiResponse(responseCode = "200", description = "Client found", content = @Content(schema = @Schema(implementation = Client.class)))
+	@ApiResponse(responseCode = "304", description = "Client not modified since the entity tag sent in If-None-Match")
+	@ApiResponse(responseCode = "400", description = "Invalid fields")
 	@ApiResponse(responseCode = "404", description = "Client not found")
-	public ResponseEntity<Client> searchById(
+	public ResponseEntity<MappingJacksonValue> searchById(
 			@Parameter(description = "ID of the client to be searched", required = true, example = "507f1f77bcf86cd799439011")
-			@PathVariable(value = "id", required = true) String id) {
-		return ResponseEntity.ok(searchClient.searchById(id));
+			@PathVariable(value = "id", required = true) String id,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			@Parameter(description = "Comma separated properties to return, the whole client when absent", example = "name,cpf")
+			@RequestParam(value = "fields", required = false) String fields) {
+		FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+		if (ifNoneMatch != null) {
+			Optional<EntityTag> current = searchClient.searchVersionById(id).map(c -> selection.entityTag(c.getId(), c.getVersion()));
+			if (current.isPresent() && current.get().matchesAny(ifNoneMatch)) {
+				return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current.get().toString()).build();
+			}
+		}
+		return withETag(searchClient.searchById(id, selection.projection()), selection);
 	}
 
 	@GetMapping(value = "isRegistered/{id}")
@@ -75,25 +142,76 @@ public class ClientResource {
 		return ResponseEntity.ok(clientRegistration.register(client));
 	}
 
+	@PostMapping(value = "/import", consumes = TEXT_CSV_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+	@Operation(summary = "Import clients", description = "Insert or update, by cpf, the clients of a UTF-8 CSV file whose header names the columns name, cpf, tel, email, address, addressNumber, city and estate. The progress after every batch and each rejected row are streamed as newline-delimited JSON, ending with the totals")
+	@ApiResponse(responseCode = "200", description = "Import report streamed", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = ClientImportEvent.class)))
+	@ApiResponse(responseCode = "400", description = "Empty file or invalid header")
+	public ResponseEntity<StreamingResponseBody> importClients(
+			@io.swagger.v3.oas.annotations.parameters.RequestBody(description = "CSV file of clients", required = true, content = @Content(mediaType = TEXT_CSV_VALUE))
+			InputStream body) {
+		ClientCsvReader csv = clientImport.open(body);
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.body(out -> clientImport.run(csv, out));
+	}
+
 	@GetMapping(value = "/cpf/{cpf}")
 	@Operation(summary = "Search client by cpf", description = "Retrieve a client by its CPF")
 	@ApiResponse(responseCode = "200", description = "Client found", content = @Content(schema = @Schema(implementation = Client.class)))
+	@ApiResponse(responseCode = "304", description = "Client not modified since the entity tag sent in If-None-Match")
+	@ApiResponse(responseCode = "400", description = "Invalid fields")
 	@ApiResponse(responseCode = "404", description = "Client not found")
-	public ResponseEntity<Client> searchByCpf(
+	public ResponseEntity<MappingJacksonValue> searchByCpf(
 			@Parameter(description = "CPF of the client to be searched", required = true, example = "12345678900")
-			@PathVariable(value = "cpf", required = true) String cpf) {
-		return ResponseEntity.ok(searchClient.searchByCpf(cpf));
+			@PathVariable(value = "cpf", required = true) String cpf,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			@Parameter(description = "Comma separated properties to return, the whole client when absent", example = "name,cpf")
+			@RequestParam(value = "fields", required = false) String fields) {
+		FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+		if (ifNoneMatch != null) {
+			Optional<EntityTag> current = searchClient.searchVersionByCpf(cpf).map(c -> selection.entityTag(c.getId(), c.getVersion()));
+			if (current.isPresent() && current.get().matchesAny(ifNoneMatch)) {
+				return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current.get().toString()).build();
+			}
+		}
+		return withETag(searchClient.searchByCpf(cpf, selection.projection()), selection);
 	}
 
 	@PutMapping
-	@Operation(summary = "Update a client", description = "Update an existing client with the provided details")
+	@Operation(summary = "Update a client", description = "Update an existing client with the provided details. Send the entity tag of the last read in If-Match to reject the update when the client changed meanwhile")
 	@ApiResponse(responseCode = "200", description = "Client updated successfully", content = @Content(schema = @Schema(implementation = Client.class)))
 	@ApiResponse(responseCode = "400", description = "Invalid input")
 	@ApiResponse(responseCode = "404", description = "Client not found")
+	@ApiResponse(responseCode = "412", description = "Client changed since the entity tag sent in If-Match")
 	public ResponseEntity<Client> update(
 			@io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Client object to be updated", required = true, content = @Content(schema = @Schema(implementation = Client.class)))
-			@RequestBody @Valid Client client) {
-		return ResponseEntity.ok(clientRegistration.update(client));
+			@RequestBody @Valid Client client,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		// An unconditional update already answers 404 when the client does not exist
+		if (ifMatch == null || EntityTag.isAny(ifMatch)) {
+			return withETag(clientRegistration.update(client));
+		}
+		EntityTag expected = EntityTag.parse(ifMatch);
+		return withETag(clientRegistration.update(client, expected.getId(), expected.getVersion()));
+	}
+
+	@PatchMapping(value = "/{cpf}", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+	@Operation(summary = "Partially update a client", description = "Apply a JSON merge patch to the client with the given CPF. Only the fields in the patch are validated and written, in one atomic update, so concurrent patches of different fields are all kept. The id, cpf and version cannot be patched. Send the entity tag of the last read in If-Match to reject the patch when the client changed meanwhile")
+	@ApiResponse(responseCode = "200", description = "Client patched successfully", content = @Content(schema = @Schema(implementation = Client.class)))
+	@ApiResponse(responseCode = "400", description = "Invalid patch")
+	@ApiResponse(responseCode = "404", description = "Client not found")
+	@ApiResponse(responseCode = "412", description = "Client changed since the entity tag sent in If-Match")
+	public ResponseEntity<Client> patch(
+			@Parameter(description = "CPF of the client to be patched", required = true, example = "12345678900")
+			@PathVariable(value = "cpf") String cpf,
+			@io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Fields to change, e.g. {\"tel\": 11987654321}", required = true)
+			@RequestBody JsonNode patch,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		if (ifMatch == null || EntityTag.isAny(ifMatch)) {
+			return withETag(clientRegistration.patch(cpf, patch, null, null));
+		}
+		EntityTag expected = EntityTag.parse(ifMatch);
+		return withETag(clientRegistration.patch(cpf, patch, expected.getId(), expected.getVersion()));
 	}
 
 	@DeleteMapping(value = "/{id}")
@@ -106,4 +224,16 @@ public class ClientResource {
 		clientRegistration.delete(id);
 		return ResponseEntity.ok("Successfully deleted");
 	}
-}
\ No newline at end of file
+
+	private ResponseEntity<Client> withETag(Client client) {
+		return ResponseEntity.ok()
+				.eTag(EntityTag.of(client.getId(), client.getVersion()).toString())
+				.body(client);
+	}
+
+	private ResponseEntity<MappingJacksonValue> withETag(Client client, FieldSelection selection) {
+		return ResponseEntity.ok()
+				.eTag(selection.entityTag(client.getId(), client.getVersion()).toString())
+				.body(selection.apply(client));
+	}
+}
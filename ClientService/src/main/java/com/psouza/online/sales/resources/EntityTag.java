@@ -0,0 +1,89 @@
+package com.psouza.online.sales.resources;
+
+import com.psouza.online.sales.exception.PreconditionFailedException;
+
+import lombok.Getter;
+
+/**
+ * Entity tag of a versioned document, rendered as {@code "<id>-<version>"}. The tag of a partial
+ * representation, such as one read with a fields selection, is weak: {@code W/"<id>-<version>"}.
+ */
+@Getter
+class EntityTag {
+
+	private final String id;
+	private final long version;
+	private final boolean weak;
+
+	private EntityTag(String id, long version, boolean weak) {
+		this.id = id;
+		this.version = version;
+		this.weak = weak;
+	}
+
+	static EntityTag of(String id, Long version) {
+		return new EntityTag(id, version == null ? 0L : version, false);
+	}
+
+	/**
+	 * @return the weak tag of the same version, for a representation that is not the whole document
+	 * and so cannot be used in If-Match
+	 */
+	EntityTag weak() {
+		return new EntityTag(id, version, true);
+	}
+
+	/**
+	 * @param header the If-Match header value
+	 * @return whether the header is *, which matches any current version, so only asks for the document
+	 * to exist
+	 */
+	static boolean isAny(String header) {
+		return header.trim().equals("*");
+	}
+
+	/**
+	 * Parses the tag sent in an If-Match header. Weak or malformed tags never match a stored version.
+	 *
+	 * @param header the If-Match header value
+	 * @return the parsed tag
+	 */
+	static EntityTag parse(String header) {
+		String value = header.trim();
+		int separator = value.lastIndexOf('-');
+		if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"") || separator < 2) {
+			throw new PreconditionFailedException("If-Match must be a strong entity tag returned by this service");
+		}
+		try {
+			return new EntityTag(value.substring(1, separator), Long.parseLong(value.substring(separator + 1, value.length() - 1)), false);
+		} catch (NumberFormatException ex) {
+			throw new PreconditionFailedException("If-Match must be a strong entity tag returned by this service");
+		}
+	}
+
+	/**
+	 * Weak comparison against the tags of an If-None-Match header, as required for GET requests.
+	 *
+	 * @param header the If-None-Match header value
+	 * @return whether any of the tags matches this one
+	 */
+	boolean matchesAny(String header) {
+		String tag = opaqueTag();
+		for (String candidate : header.split(",")) {
+			String value = candidate.trim();
+			if (value.equals("*") || value.equals(tag) || value.equals("W/" + tag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private String opaqueTag() {
+		return "\"" + id + "-" + version + "\"";
+	}
+
+	@Override
+	public String toString() {
+		return weak ? "W/" + opaqueTag() : opaqueTag();
+	}
+}
@@ -0,0 +1,216 @@
+package com.psouza.online.sales.usecase;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.psouza.online.sales.exception.BadRequestException;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Reads a UTF-8 CSV file of clients from a channel, one row per line. The bytes are read in chunks
+ * into a buffer that is reused for the whole file and decoded in place, so only the current chunk
+ * and line are held in memory. The header names the columns, in any order; values may be quoted,
+ * with "" standing for a quote, and a quoted value may span up to {@link #MAX_ROW_LINES} lines.
+ */
+public class ClientCsvReader implements Closeable {
+
+	static final List<String> COLUMNS = List.of("name", "cpf", "tel", "email", "address", "addressNumber",
+			"city", "estate");
+
+	/**
+	 * Lines a row may span through quoted line breaks. A stray quote would otherwise turn the rest of
+	 * the file into one value.
+	 */
+	static final int MAX_ROW_LINES = 10;
+
+	/**
+	 * Bytes of the longest UTF-8 character, the smallest chunk that can always be decoded.
+	 */
+	private static final int MIN_CHUNK_SIZE = 4;
+
+	private final ReadableByteChannel channel;
+	private final ByteBuffer bytes;
+	private final CharBuffer chars;
+	private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	private final StringBuilder line = new StringBuilder();
+	private final int[] positions = new int[COLUMNS.size()];
+	private int width;
+	private long lineNumber;
+	private boolean endOfInput;
+
+	/**
+	 * Reads the header of the file.
+	 *
+	 * @param channel   the CSV file
+	 * @param chunkSize bytes read from the channel at a time
+	 * @throws BadRequestException when the file is empty or the header does not name every column
+	 */
+	ClientCsvReader(ReadableByteChannel channel, int chunkSize) throws IOException {
+		this.channel = channel;
+		this.bytes = ByteBuffer.allocate(Math.max(chunkSize, MIN_CHUNK_SIZE));
+		// A UTF-8 byte never decodes to more than one char, so a chunk always fits
+		this.chars = CharBuffer.allocate(bytes.capacity());
+		this.chars.flip();
+		readHeader();
+	}
+
+	/**
+	 * @return the next non-blank row, numbered by its first line, or null at the end of the file
+	 */
+	Row next() throws IOException {
+		String text;
+		do {
+			text = nextLine();
+			if (text == null) {
+				return null;
+			}
+		} while (text.isBlank());
+
+		long first = lineNumber;
+		List<String> values = split(text);
+		while (values == null) {
+			String more = lineNumber - first + 1 < MAX_ROW_LINES ? nextLine() : null;
+			if (more == null) {
+				return new Row(first, null, "Unterminated quoted value");
+			}
+			text = text + "\n" + more;
+			values = split(text);
+		}
+		if (values.size() != width) {
+			return new Row(first, null, "Expected " + width + " values, found " + values.size());
+		}
+		String[] row = new String[COLUMNS.size()];
+		for (int i = 0; i < positions.length; i++) {
+			String value = values.get(positions[i]);
+			row[i] = value.isEmpty() ? null : value;
+		}
+		return new Row(first, row, null);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private void readHeader() throws IOException {
+		String header = nextLine();
+		if (header == null) {
+			throw new BadRequestException("The CSV file is empty");
+		}
+		if (header.startsWith("\uFEFF")) {
+			header = header.substring(1);
+		}
+
+		List<String> names = split(header);
+		List<String> trimmed = names == null ? List.of() : names.stream().map(String::trim).toList();
+		if (trimmed.size() != COLUMNS.size() || !trimmed.containsAll(COLUMNS)) {
+			throw new BadRequestException("The CSV header must name the columns " + String.join(",", COLUMNS));
+		}
+		width = trimmed.size();
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = trimmed.indexOf(COLUMNS.get(i));
+		}
+	}
+
+	private String nextLine() throws IOException {
+		line.setLength(0);
+		boolean read = false;
+		while (true) {
+			while (chars.hasRemaining()) {
+				char c = chars.get();
+				if (c == '\n') {
+					return endLine();
+				}
+				line.append(c);
+				read = true;
+			}
+			if (!fill()) {
+				return read ? endLine() : null;
+			}
+		}
+	}
+
+	private String endLine() {
+		lineNumber++;
+		int length = line.length();
+		return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line.toString();
+	}
+
+	/**
+	 * Reads the next chunk and decodes it, keeping the bytes of a character split between chunks for
+	 * the next one.
+	 *
+	 * @return false once the file is over and every char was handed out
+	 */
+	private boolean fill() throws IOException {
+		if (endOfInput) {
+			return false;
+		}
+		boolean end = channel.read(bytes) < 0;
+		bytes.flip();
+		chars.clear();
+		decoder.decode(bytes, chars, end);
+		if (end) {
+			decoder.flush(chars);
+			endOfInput = true;
+		}
+		bytes.compact();
+		chars.flip();
+		return true;
+	}
+
+	private static List<String> split(String text) {
+		List<String> values = new ArrayList<>();
+		StringBuilder value = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (quoted) {
+				if (c != '"') {
+					value.append(c);
+				} else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+					value.append('"');
+					i++;
+				} else {
+					quoted = false;
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				values.add(value.toString());
+				value.setLength(0);
+			} else {
+				value.append(c);
+			}
+		}
+		if (quoted) {
+			return null;
+		}
+		values.add(value.toString());
+		return values;
+	}
+
+	/**
+	 * A row of the file, with its values in {@link #COLUMNS} order and empty values as null, or the
+	 * reason it could not be read.
+	 */
+	@Getter
+	@AllArgsConstructor
+	static class Row {
+		private long line;
+		private String[] values;
+		private String error;
+	}
+}
@@ -0,0 +1,237 @@
+package com.psouza.online.sales.usecase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.mongodb.bulk.BulkWriteError;
+import com.psouza.online.sales.cache.ClientExistenceFilter;
+import com.psouza.online.sales.config.ClientImportProperties;
+import com.psouza.online.sales.domain.Client;
+import com.psouza.online.sales.domain.ClientImportEvent;
+import com.psouza.online.sales.exception.BadRequestException;
+import com.psouza.online.sales.repository.IClientRepository;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads a CSV file of clients, inserting the new cpfs and updating the known ones. Rows are read in
+ * batches of {@code client.import.batch-size}; each batch is mapped and validated in parallel and
+ * then upserted in one unordered bulk write, so an invalid row or an email another client already
+ * has only rejects that row. The progress after every batch and each rejected row are written as
+ * newline-delimited JSON while the file is still being read.
+ */
+@Slf4j
+@Service
+@Timed("usecase")
+public class ClientImport {
+
+	private IClientRepository clientRepository;
+	private ClientExistenceFilter existenceFilter;
+	private Validator validator;
+	private ObjectMapper objectMapper;
+	private ClientImportProperties properties;
+
+	@Autowired
+	public ClientImport(IClientRepository clientRepository, ClientExistenceFilter existenceFilter, Validator validator,
+			ObjectMapper objectMapper, ClientImportProperties properties) {
+		this.clientRepository = clientRepository;
+		this.existenceFilter = existenceFilter;
+		this.validator = validator;
+		this.objectMapper = objectMapper;
+		this.properties = properties;
+	}
+
+	/**
+	 * Reads the header of the file, so that a file that is not a client CSV is refused before any
+	 * report is written.
+	 *
+	 * @param csv the CSV file
+	 * @return the reader of the rows
+	 */
+	public ClientCsvReader open(InputStream csv) {
+		try {
+			return new ClientCsvReader(Channels.newChannel(csv), (int) properties.getChunkSize().toBytes());
+		} catch (IOException ex) {
+			throw new BadRequestException("Could not read the CSV file: " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Imports every row of the file, closing it at the end.
+	 *
+	 * @param csv the file returned by {@link #open(InputStream)}
+	 * @param out where the report is written
+	 * @return the counts of the import
+	 */
+	public ClientImportEvent run(ClientCsvReader csv, OutputStream out) throws IOException {
+		long started = System.nanoTime();
+		Totals totals = new Totals();
+		try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+			ClientImportEvent result;
+			try (csv) {
+				List<ClientCsvReader.Row> batch = new ArrayList<>(properties.getBatchSize());
+				ClientCsvReader.Row row;
+				while ((row = csv.next()) != null) {
+					batch.add(row);
+					if (batch.size() >= properties.getBatchSize()) {
+						importBatch(batch, totals, writer);
+					}
+				}
+				importBatch(batch, totals, writer);
+				result = ClientImportEvent.completed(totals.rows, totals.upserted, totals.rejected,
+						TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+				log.info("Imported {} clients, rejected {} of {} rows", totals.upserted, totals.rejected, totals.rows);
+			} catch (IOException ex) {
+				log.warn("Client import stopped after {} rows", totals.rows, ex);
+				result = ClientImportEvent.failed(totals.rows, totals.upserted, totals.rejected,
+						"Import stopped: " + ex.getMessage());
+			}
+			writer.write(result);
+			writer.flush();
+			out.write('\n');
+			return result;
+		}
+	}
+
+	private void importBatch(List<ClientCsvReader.Row> batch, Totals totals, SequenceWriter writer) throws IOException {
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		List<Checked> checked = batch.parallelStream().map(this::check).toList();
+		batch.clear();
+
+		// The last row of a cpf wins, as it would if the file were imported one row at a time
+		Map<String, Checked> byCpf = new HashMap<>();
+		for (Checked row : checked) {
+			if (row.reason == null) {
+				Checked previous = byCpf.put(row.client.getCpf(), row);
+				if (previous != null) {
+					previous.reason = "Replaced by line " + row.line + " with the same cpf";
+				}
+			}
+		}
+		List<Checked> accepted = new ArrayList<>(checked.size());
+		for (Checked row : checked) {
+			if (row.reason != null) {
+				reject(row, row.reason, totals, writer);
+			} else {
+				accepted.add(row);
+			}
+		}
+
+		List<Client> clients = accepted.stream().map(row -> row.client).toList();
+		Map<Integer, BulkWriteError> errors = clientRepository.upsertByCpf(clients).stream()
+				.collect(Collectors.toMap(BulkWriteError::getIndex, Function.identity()));
+		for (int i = 0; i < accepted.size(); i++) {
+			BulkWriteError error = errors.get(i);
+			if (error != null) {
+				reject(accepted.get(i), error.getMessage(), totals, writer);
+				continue;
+			}
+			Client client = clients.get(i);
+			if (client.getId() != null) {
+				existenceFilter.add(client);
+			}
+			totals.upserted++;
+		}
+
+		totals.rows += checked.size();
+		writer.write(ClientImportEvent.progress(totals.rows, totals.upserted, totals.rejected));
+		writer.flush();
+	}
+
+	private void reject(Checked row, String reason, Totals totals, SequenceWriter writer) throws IOException {
+		totals.rejected++;
+		writer.write(ClientImportEvent.rejected(row.line, row.cpf, reason));
+	}
+
+	/**
+	 * Maps a row to a client and validates it with the constraints of {@link Client}. Runs on the
+	 * common fork-join pool, the validator being thread safe.
+	 */
+	private Checked check(ClientCsvReader.Row row) {
+		if (row.getError() != null) {
+			return new Checked(row.getLine(), null, null, row.getError());
+		}
+		String[] values = row.getValues();
+		String cpf = values[1];
+		Client client;
+		try {
+			client = Client.builder()
+					.name(values[0])
+					.cpf(cpf)
+					.tel(number(values[2], "tel", Long::valueOf))
+					.email(values[3])
+					.address(values[4])
+					.addressNumber(number(values[5], "addressNumber", Integer::valueOf))
+					.city(values[6])
+					.estate(values[7])
+					.build();
+		} catch (IllegalArgumentException ex) {
+			return new Checked(row.getLine(), cpf, null, ex.getMessage());
+		}
+
+		Set<ConstraintViolation<Client>> violations = validator.validate(client);
+		if (!violations.isEmpty()) {
+			return new Checked(row.getLine(), cpf, null, describe(violations));
+		}
+		return new Checked(row.getLine(), cpf, client, null);
+	}
+
+	private static <T> T number(String value, String column, Function<String, T> parser) {
+		if (value == null) {
+			return null;
+		}
+		try {
+			return parser.apply(value.trim());
+		} catch (NumberFormatException ex) {
+			throw new IllegalArgumentException(column + ": must be a whole number");
+		}
+	}
+
+	private String describe(Set<ConstraintViolation<Client>> violations) {
+		return violations.stream()
+				.map(v -> v.getPropertyPath() + ": " + v.getMessage())
+				.sorted()
+				.collect(Collectors.joining("; "));
+	}
+
+	private static class Checked {
+		private final long line;
+		private final String cpf;
+		private final Client client;
+		private String reason;
+
+		Checked(long line, String cpf, Client client, String reason) {
+			this.line = line;
+			this.cpf = cpf;
+			this.client = client;
+			this.reason = reason;
+		}
+	}
+
+	private static class Totals {
+		private long rows;
+		private long upserted;
+		private long rejected;
+	}
+}
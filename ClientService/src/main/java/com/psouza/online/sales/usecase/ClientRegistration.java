@@ -1,45 +1,144 @@
 package com.psouza.online.sales.usecase;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psouza.online.sales.cache.ClientExistenceFilter;
 import com.psouza.online.sales.domain.Client;
+import com.psouza.online.sales.exception.BadRequestException;
 import com.psouza.online.sales.exception.EntityNotFoundException;
+import com.psouza.online.sales.exception.PreconditionFailedException;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 
 import com.psouza.online.sales.repository.IClientRepository;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.annotation.Timed;
+
 @Service
+@Timed("usecase")
 public class ClientRegistration {
+
+	/**
+	 * Fields a patch may change; the id, cpf and version identify the client and are kept.
+	 */
+	public static final List<String> PATCHABLE_FIELDS = List.of("name", "tel", "email", "address",
+			"addressNumber", "city", "estate");
 	
 	private IClientRepository clientRepository;
+	private ClientExistenceFilter existenceFilter;
+	private Validator validator;
+	private ObjectMapper objectMapper;
 	
 	@Autowired
-	public ClientRegistration(IClientRepository clienteRepository) {
+	public ClientRegistration(IClientRepository clienteRepository, ClientExistenceFilter existenceFilter,
+			Validator validator, ObjectMapper objectMapper) {
 		this.clientRepository = clienteRepository;
+		this.existenceFilter = existenceFilter;
+		this.validator = validator;
+		this.objectMapper = objectMapper;
 	}
 	
 	public Client register(@Valid Client client) {
-		return this.clientRepository.insert(client);
+		Client registeredClient = this.clientRepository.insert(client);
+		this.existenceFilter.add(registeredClient);
+		return registeredClient;
 	}
 
 	public Client update(Client client) {
-		Client existingClient = clientRepository.findByCpf(client.getCpf())
-				.orElseThrow(() -> new EntityNotFoundException(Client.class, client));
-
-		existingClient.setName(client.getName());
-		existingClient.setTel(client.getTel());
-		existingClient.setEmail(client.getEmail());
-		existingClient.setAddress(client.getAddress());
-		existingClient.setAddressNumber(client.getAddressNumber());
-		existingClient.setCity(client.getCity());
-		existingClient.setEstate(client.getEstate());
-
-		return clientRepository.save(existingClient);
+		return update(client, null, null);
+	}
+
+	/**
+	 * Updates the client with the same cpf in a single atomic findAndModify. When an expected id and
+	 * version are given the update only applies to that version of the client.
+	 *
+	 * @param client          the client with the new values
+	 * @param expectedId      the id the caller last read, or null to update unconditionally
+	 * @param expectedVersion the version the caller last read, or null to update unconditionally
+	 * @return the client as stored after the update
+	 */
+	public Client update(Client client, String expectedId, Long expectedVersion) {
+		Client updatedClient = clientRepository.updateByCpf(client, expectedId, expectedVersion);
+		if (updatedClient == null) {
+			throw notUpdated(client.getCpf(), expectedVersion);
+		}
+		return updatedClient;
+	}
+
+	/**
+	 * Applies a JSON merge patch to the client with the cpf. Only the fields present in the patch
+	 * are validated and written, in a single atomic findAndModify that also increments the version,
+	 * so concurrent patches of different fields do not overwrite each other. A field set to null
+	 * would be removed, which no field of a client allows.
+	 *
+	 * @param cpf             the cpf of the client
+	 * @param patch           the merge patch, an object with some of the patchable fields
+	 * @param expectedId      the id the caller last read, or null to patch unconditionally
+	 * @param expectedVersion the version the caller last read, or null to patch unconditionally
+	 * @return the client as stored after the patch
+	 */
+	public Client patch(String cpf, JsonNode patch, String expectedId, Long expectedVersion) {
+		if (!patch.isObject() || patch.isEmpty()) {
+			throw new BadRequestException("A client patch must be a JSON object with at least one field");
+		}
+		Set<String> fields = new HashSet<>();
+		patch.fieldNames().forEachRemaining(fields::add);
+		for (String field : fields) {
+			if (!PATCHABLE_FIELDS.contains(field)) {
+				throw new BadRequestException("Field " + field + " cannot be patched, the patchable fields are "
+						+ String.join(", ", PATCHABLE_FIELDS));
+			}
+		}
+
+		Client values;
+		try {
+			values = objectMapper.treeToValue(patch, Client.class);
+		} catch (JsonProcessingException ex) {
+			throw new BadRequestException("Invalid client patch: " + ex.getOriginalMessage());
+		}
+		Set<ConstraintViolation<Client>> violations = new HashSet<>();
+		BeanWrapper wrapper = new BeanWrapperImpl(values);
+		Map<String, Object> changes = new LinkedHashMap<>();
+		for (String field : PATCHABLE_FIELDS) {
+			if (fields.contains(field)) {
+				violations.addAll(validator.validateProperty(values, field));
+				changes.put(field, wrapper.getPropertyValue(field));
+			}
+		}
+		if (!violations.isEmpty()) {
+			throw new ConstraintViolationException(violations);
+		}
+
+		Client patchedClient = clientRepository.updateFieldsByCpf(cpf, changes, expectedId, expectedVersion);
+		if (patchedClient == null) {
+			throw notUpdated(cpf, expectedVersion);
+		}
+		return patchedClient;
 	}
 
 	public void delete(String id) {
-		this.clientRepository.deleteById(id);
+		this.existenceFilter.deleteById(id, () -> this.clientRepository.deleteById(id));
+	}
+
+	private RuntimeException notUpdated(String cpf, Long expectedVersion) {
+		if (expectedVersion != null && clientRepository.findByCpf(cpf).isPresent()) {
+			return new PreconditionFailedException("Client was changed since it was read, cpf " + cpf);
+		}
+		return new EntityNotFoundException(Client.class, "cpf", String.valueOf(cpf));
 	}
 
 }
@@ -0,0 +1,37 @@
+package com.psouza.online.sales.usecase;
+
+import java.util.Locale;
+
+import com.psouza.online.sales.exception.BadRequestException;
+
+/**
+ * How the total of a listed page is counted, chosen with the {@code total} request parameter or
+ * the {@code client.listing.total} setting.
+ */
+public enum PageTotal {
+
+    /** A countDocuments over the whole collection on every page. */
+    EXACT,
+
+    /** The collection's metadata count, cached for a while. Cheap, but off by recent writes. */
+    ESTIMATED,
+
+    /** No total at all: a slice that only tells whether there is a next page. */
+    NONE;
+
+    /**
+     * @param value    the request parameter, case insensitive, or null
+     * @param fallback the mode used when the request does not choose one
+     * @return the chosen mode
+     */
+    public static PageTotal parse(String value, PageTotal fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("total must be one of exact, estimated or none");
+        }
+    }
+}
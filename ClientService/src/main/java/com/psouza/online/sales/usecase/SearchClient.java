@@ -1,41 +1,228 @@
 package com.psouza.online.sales.usecase;
 
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.psouza.online.sales.cache.ClientExistenceFilter;
+import com.psouza.online.sales.cache.LookupCoalescer;
+import com.psouza.online.sales.config.ClientListingProperties;
 import com.psouza.online.sales.domain.Client;
+import com.psouza.online.sales.domain.CursorPage;
+import com.psouza.online.sales.exception.BadRequestException;
 import com.psouza.online.sales.exception.EntityNotFoundException;
 import com.psouza.online.sales.repository.IClientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.annotation.Timed;
+
 @Service
+@Timed("usecase")
 public class SearchClient {
 
+    private static final String ESTIMATED_TOTAL = "clients";
+
     private IClientRepository clientRepository;
+    private ClientExistenceFilter existenceFilter;
+    private LookupCoalescer lookupCoalescer;
+    private ClientListingProperties listingProperties;
+    private volatile LoadingCache<String, Long> estimatedTotal;
 
     @Autowired
-    public SearchClient(IClientRepository clientRepository) {
+    public SearchClient(IClientRepository clientRepository, ClientExistenceFilter existenceFilter,
+                        LookupCoalescer lookupCoalescer, ClientListingProperties listingProperties) {
         this.clientRepository = clientRepository;
+        this.existenceFilter = existenceFilter;
+        this.lookupCoalescer = lookupCoalescer;
+        this.listingProperties = listingProperties;
+        this.estimatedTotal = estimatedTotalCache();
+    }
+
+    /**
+     * Starts a new estimated total cache once a refresh was bound to the listing properties, so a
+     * changed estimated-total-ttl applies without a restart.
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void refreshed() {
+        estimatedTotal = estimatedTotalCache();
+    }
+
+    private LoadingCache<String, Long> estimatedTotalCache() {
+        return Caffeine.newBuilder()
+                .refreshAfterWrite(listingProperties.getEstimatedTotalTtl())
+                .build(key -> clientRepository.estimatedCount());
     }
 
     public Page<Client> search(Pageable pageable) {
         return clientRepository.findAll(pageable);
     }
 
+    /**
+     * Lists a page of clients, counting the total as the request or the configuration asks. A slice
+     * is read with limit size + 1 and no count; an estimated page is that slice with the cached
+     * metadata count as its total.
+     *
+     * @param pageable the page to read
+     * @param total    exact, estimated or none, null for the configured default
+     * @return a page with a total, or a slice when no total was asked for
+     */
+    public Slice<Client> search(Pageable pageable, String total) {
+        return search(pageable, total, null);
+    }
+
+    /**
+     * Lists a page of clients reading only the given properties, counting the total as
+     * {@link #search(Pageable, String)} does. An exact total is counted only when the page does not
+     * already tell it.
+     *
+     * @param pageable the page to read
+     * @param total    exact, estimated or none, null for the configured default
+     * @param fields   the properties to read, or null for the whole document
+     * @return a page with a total, or a slice when no total was asked for
+     */
+    public Slice<Client> search(Pageable pageable, String total, Set<String> fields) {
+        PageTotal mode = PageTotal.parse(total, listingProperties.getTotal());
+        if (fields == null) {
+            return switch (mode) {
+                case EXACT -> clientRepository.findAll(pageable);
+                case ESTIMATED -> estimatedPage(clientRepository.findAllBy(pageable), estimatedTotal.get(ESTIMATED_TOTAL));
+                case NONE -> clientRepository.findAllBy(pageable);
+            };
+        }
+        Slice<Client> slice = clientRepository.findSlice(pageable, fields);
+        return switch (mode) {
+            case EXACT -> PageableExecutionUtils.getPage(slice.getContent(), pageable, clientRepository::count);
+            case ESTIMATED -> estimatedPage(slice, estimatedTotal.get(ESTIMATED_TOTAL));
+            case NONE -> slice;
+        };
+    }
+
+    /**
+     * The estimate may lag behind inserts, so the total is never lower than what the slice shows to
+     * exist; PageImpl itself corrects it on the last page.
+     */
+    private static Page<Client> estimatedPage(Slice<Client> slice, long estimatedTotal) {
+        long seen = slice.getPageable().isPaged()
+                ? slice.getPageable().getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0)
+                : slice.getNumberOfElements();
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), Math.max(estimatedTotal, seen));
+    }
+
+    /**
+     * Keyset pagination on the id or on the unique cpf index. Each page is a range query on the sort
+     * key fetched with limit size + 1, so its cost does not depend on the depth and no count is run.
+     *
+     * @param cursor token of the previous page, empty for the first page
+     * @param size   maximum number of clients of the page
+     * @param sortBy sort key of the first page, either "id" or "cpf"
+     * @return the page and the token of the next one
+     */
+    public CursorPage<Client> search(String cursor, int size, String sortBy) {
+        return search(cursor, size, sortBy, null);
+    }
+
+    /**
+     * Keyset pagination reading only the given properties and the sort key.
+     *
+     * @param cursor token of the previous page, empty for the first page
+     * @param size   maximum number of clients of the page
+     * @param sortBy sort key of the first page, either "id" or "cpf"
+     * @param fields the properties to read, or null for the whole document
+     * @return the page and the token of the next one
+     */
+    public CursorPage<Client> search(String cursor, int size, String sortBy, Set<String> fields) {
+        CursorToken token = cursor.isEmpty() ? new CursorToken(sortBy, null) : CursorToken.decode(cursor);
+        String field = token.getField();
+        if (!"id".equals(field) && !"cpf".equals(field)) {
+            throw new BadRequestException("Clients can only be paginated by id or cpf");
+        }
+
+        Set<String> projection = fields;
+        if (fields != null && !fields.contains(field)) {
+            projection = new LinkedHashSet<>(fields);
+            projection.add(field);
+        }
+        List<Client> clients = clientRepository.findAfter(field, token.getLastValue(), size + 1, projection);
+        if (clients.size() <= size) {
+            return new CursorPage<>(clients, null);
+        }
+
+        List<Client> content = clients.subList(0, size);
+        Client last = content.get(size - 1);
+        String lastValue = "id".equals(field) ? last.getId() : last.getCpf();
+        return new CursorPage<>(content, new CursorToken(field, lastValue).encode());
+    }
+
+    /**
+     * Reads a client, skipping the database for ids the existence filter rules out. Concurrent
+     * lookups of the same id share one repository call.
+     *
+     * @param id the id of the client
+     * @return the client
+     */
     public Client searchById(String id) {
-        return clientRepository.findById(id)
+        return existenceFilter.findById(id,
+                () -> lookupCoalescer.coalesce("client.id", id, () -> clientRepository.findById(id)))
+                .orElseThrow(() -> new EntityNotFoundException(Client.class, "id", id));
+    }
+
+    /**
+     * Reads a client with only the given properties, still skipping the database for ids the
+     * existence filter rules out.
+     *
+     * @param id     the id of the client
+     * @param fields the properties to read, or null for the whole document
+     * @return the client
+     */
+    public Client searchById(String id, Set<String> fields) {
+        if (fields == null) {
+            return searchById(id);
+        }
+        return existenceFilter.findById(id, () -> clientRepository.findProjected("id", id, fields))
                 .orElseThrow(() -> new EntityNotFoundException(Client.class, "id", id));
     }
 
+    /**
+     * Reads only the id and the version of a client, used to answer conditional requests without
+     * loading the whole document.
+     *
+     * @param id the id of the client
+     * @return a client holding only its id and version, empty when it does not exist
+     */
+    public Optional<Client> searchVersionById(String id) {
+        return existenceFilter.findById(id, () -> clientRepository.findVersionById(id));
+    }
+
+    public Optional<Client> searchVersionByCpf(String cpf) {
+        return existenceFilter.findByCpf(cpf, () -> clientRepository.findVersionByCpf(cpf));
+    }
+
     public Boolean isRegistered(String id) {
-        Optional<Client> client = clientRepository.findById(id);
-        return client.isPresent() ? true : false;
+        return existenceFilter.findById(id, () -> Optional.of(id).filter(clientRepository::existsById)).isPresent();
     }
 
     public Client searchByCpf(String cpf) {
-        return clientRepository.findByCpf(cpf)
+        return existenceFilter.findByCpf(cpf,
+                () -> lookupCoalescer.coalesce("client.cpf", cpf, () -> clientRepository.findByCpf(cpf)))
+                .orElseThrow(() -> new EntityNotFoundException(Client.class, "cpf", String.valueOf(cpf)));
+    }
+
+    public Client searchByCpf(String cpf, Set<String> fields) {
+        if (fields == null) {
+            return searchByCpf(cpf);
+        }
+        return existenceFilter.findByCpf(cpf, () -> clientRepository.findProjected("cpf", cpf, fields))
                 .orElseThrow(() -> new EntityNotFoundException(Client.class, "cpf", String.valueOf(cpf)));
     }
 
@@ -0,0 +1,139 @@
+package com.psouza.online.sales.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.psouza.online.sales.config.ClientExistenceProperties;
+import com.psouza.online.sales.domain.Client;
+import com.psouza.online.sales.repository.IClientRepository;
+
+class ClientExistenceFilterTest {
+
+	private static final Client ANA = Client.builder().id("c1").cpf("12345678900").name("Ana").build();
+	private static final Client BIA = Client.builder().id("c2").cpf("98765432100").name("Bia").build();
+
+	private final IClientRepository clientRepository = mock(IClientRepository.class);
+	private final ClientExistenceProperties properties = new ClientExistenceProperties();
+	private final ClientExistenceFilter filter = new ClientExistenceFilter(clientRepository, properties);
+	private final AtomicInteger lookups = new AtomicInteger();
+
+	@Test
+	void keysRuledOutByTheFilterAreMissingWithoutALookup() {
+		build(ANA);
+
+		assertThat(filter.findById("unknown", lookup(Optional.of(BIA)))).isEmpty();
+		assertThat(filter.findByCpf("00000000000", lookup(Optional.of(BIA)))).isEmpty();
+		assertThat(lookups).hasValue(0);
+
+		assertThat(filter.findById("c1", lookup(Optional.of(ANA)))).containsSame(ANA);
+		assertThat(filter.findByCpf("12345678900", lookup(Optional.of(ANA)))).containsSame(ANA);
+		assertThat(lookups).hasValue(2);
+	}
+
+	@Test
+	void everyKeyIsLookedUpUntilTheFirstBuild() {
+		assertThat(filter.findById("c1", lookup(Optional.of(ANA)))).containsSame(ANA);
+		assertThat(lookups).hasValue(1);
+	}
+
+	@Test
+	void keyNotFoundIsRememberedAsMissing() {
+		filter.findById("c1", lookup(Optional.empty()));
+		assertThat(filter.findById("c1", lookup(Optional.of(ANA)))).isEmpty();
+		assertThat(lookups).hasValue(1);
+	}
+
+	@Test
+	void registeredClientIsFoundWithoutARebuild() {
+		build(ANA);
+		filter.findById("c2", lookup(Optional.empty()));
+
+		filter.add(BIA);
+
+		assertThat(filter.findById("c2", lookup(Optional.of(BIA)))).containsSame(BIA);
+		assertThat(filter.findByCpf("98765432100", lookup(Optional.of(BIA)))).containsSame(BIA);
+	}
+
+	/**
+	 * The lookup reads nothing, then the client is registered before the lookup marks its key
+	 * missing: the key must not be answered as missing afterwards.
+	 */
+	@Test
+	void lookupRacingARegistrationDoesNotHideTheClient() {
+		assertThat(filter.findById("c2", () -> {
+			lookups.incrementAndGet();
+			filter.add(BIA);
+			return Optional.empty();
+		})).isEmpty();
+
+		assertThat(filter.findById("c2", lookup(Optional.of(BIA)))).containsSame(BIA);
+		assertThat(lookups).hasValue(2);
+	}
+
+	@Test
+	void deleteRacingARegistrationDoesNotHideTheClient() {
+		filter.deleteById("c2", () -> filter.add(BIA));
+
+		assertThat(filter.findById("c2", lookup(Optional.of(BIA)))).containsSame(BIA);
+	}
+
+	@Test
+	void deletedClientIsMissing() {
+		build(ANA);
+
+		filter.deleteById("c1", () -> { });
+
+		assertThat(filter.findById("c1", lookup(Optional.of(ANA)))).isEmpty();
+		assertThat(lookups).hasValue(0);
+	}
+
+	@Test
+	void clientRegisteredDuringARebuildReachesTheNewFilter() {
+		when(clientRepository.streamIdsAndCpfs()).thenAnswer(invocation -> Stream.of(ANA).peek(client -> filter.add(BIA)));
+
+		filter.rebuild();
+
+		assertThat(filter.findById("c2", lookup(Optional.of(BIA)))).containsSame(BIA);
+	}
+
+	@Test
+	void failedRebuildKeepsThePreviousFilter() {
+		build(ANA);
+		when(clientRepository.streamIdsAndCpfs()).thenThrow(new IllegalStateException("connection reset"));
+
+		filter.rebuild();
+
+		assertThat(filter.findById("c1", lookup(Optional.of(ANA)))).containsSame(ANA);
+		assertThat(filter.findById("unknown", lookup(Optional.of(BIA)))).isEmpty();
+	}
+
+	@Test
+	void disabledFilterLooksEveryKeyUp() {
+		properties.setEnabled(false);
+		build(ANA);
+
+		filter.findById("c2", lookup(Optional.empty()));
+		assertThat(filter.findById("c2", lookup(Optional.of(BIA)))).containsSame(BIA);
+		assertThat(lookups).hasValue(2);
+	}
+
+	private void build(Client... clients) {
+		when(clientRepository.streamIdsAndCpfs()).thenAnswer(invocation -> Stream.of(clients));
+		filter.rebuild();
+	}
+
+	private Supplier<Optional<Client>> lookup(Optional<Client> result) {
+		return () -> {
+			lookups.incrementAndGet();
+			return result;
+		};
+	}
+}
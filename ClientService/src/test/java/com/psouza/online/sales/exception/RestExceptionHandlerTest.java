@@ -0,0 +1,81 @@
+package com.psouza.online.sales.exception;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.psouza.online.sales.config.JacksonConfig;
+import com.psouza.online.sales.metrics.ErrorMetrics;
+import com.psouza.online.sales.resources.ClientResource;
+import com.psouza.online.sales.usecase.ClientImport;
+import com.psouza.online.sales.usecase.ClientRegistration;
+import com.psouza.online.sales.usecase.SearchClient;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The Spring MVC exceptions overridden by {@link RestExceptionHandler} must render an ApiError and
+ * be counted under their own branch, not under the "framework" one of the base class.
+ */
+@WebMvcTest(controllers = ClientResource.class, properties = "spring.cloud.config.fail-fast=false")
+@Import({JacksonConfig.class, ErrorMetrics.class, SimpleMeterRegistry.class})
+class RestExceptionHandlerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@MockitoBean
+	private SearchClient searchClient;
+
+	@MockitoBean
+	private ClientRegistration clientRegistration;
+
+	@MockitoBean
+	private ClientImport clientImport;
+
+	@Test
+	void unsupportedMediaTypeIsAnApiError() throws Exception {
+		mockMvc.perform(post("/client").contentType(MediaType.TEXT_PLAIN).content("Ana"))
+				.andExpect(status().isUnsupportedMediaType())
+				.andExpect(jsonPath("$.status").value("UNSUPPORTED_MEDIA_TYPE"))
+				.andExpect(jsonPath("$.message").value(startsWith("text/plain;charset=UTF-8 media type is not supported")));
+
+		assertThat(errors("unsupported-media-type")).isEqualTo(1.0);
+		assertThat(errors("framework")).isZero();
+	}
+
+	@Test
+	void invalidBodyListsTheFieldErrors() throws Exception {
+		mockMvc.perform(post("/client").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\":\"Ana\",\"cpf\":\"12345678900\",\"tel\":11987654321,\"email\":\"ana\","
+						+ "\"address\":\"Rua A\",\"addressNumber\":10,\"city\":\"Campinas\",\"estate\":\"SP\"}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.status").value("BAD_REQUEST"))
+				.andExpect(jsonPath("$.message").value("Validation error"))
+				.andExpect(jsonPath("$.subErrors[0].message").value("Invalid email"));
+
+		assertThat(errors("argument-not-valid")).isEqualTo(1.0);
+		assertThat(errors("framework")).isZero();
+	}
+
+	private double errors(String branch) {
+		return meterRegistry.find(ErrorMetrics.ERRORS).tag("branch", branch).counters().stream()
+				.mapToDouble(Counter::count)
+				.sum();
+	}
+}
@@ -0,0 +1,117 @@
+package com.psouza.online.sales.usecase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.psouza.online.sales.exception.BadRequestException;
+
+/**
+ * Reads small files with chunks of a few bytes, so that multi-byte characters, escaped quotes and
+ * line breaks fall on every possible chunk boundary.
+ */
+class ClientCsvReaderTest {
+
+	private static final String HEADER = "cpf,name,email,tel,address,addressNumber,city,estate\r\n";
+
+	@Test
+	void decodesCharactersSplitBetweenChunks() throws IOException {
+		String csv = "\uFEFF" + HEADER
+				+ "12345678900,João Conceição,joao@exemplo.com.br,11987654321,Avenida São João,100,São Paulo,SP\r\n"
+				+ "98765432100,Zoë 😀 Ñandú,zoe@exemplo.com,21912345678,Rua Ü,7,Niterói,RJ\n";
+
+		for (int chunkSize = 4; chunkSize <= 24; chunkSize++) {
+			List<ClientCsvReader.Row> rows = readAll(csv, chunkSize);
+
+			assertThat(rows).as("chunk size %d", chunkSize).hasSize(2);
+			assertThat(rows.get(0).getValues()).as("chunk size %d", chunkSize).containsExactly(
+					"João Conceição", "12345678900", "11987654321", "joao@exemplo.com.br", "Avenida São João",
+					"100", "São Paulo", "SP");
+			assertThat(rows.get(1).getValues()).as("chunk size %d", chunkSize).containsExactly(
+					"Zoë 😀 Ñandú", "98765432100", "21912345678", "zoe@exemplo.com", "Rua Ü", "7", "Niterói", "RJ");
+			assertThat(rows).extracting(ClientCsvReader.Row::getLine).containsExactly(2L, 3L);
+		}
+	}
+
+	@Test
+	void readsQuotedValuesSpanningLinesAndChunks() throws IOException {
+		String csv = HEADER
+				+ "12345678900,\"Silva, \"\"Zé\"\"\",ze@exemplo.com,11987654321,\"Rua Ipê, 12\r\nBloco Ç\nApto 3\",12,São Paulo,SP\n"
+				+ "\n"
+				+ "98765432100,Ana,ana@exemplo.com,21912345678,Rua A,1,\"Rio\",RJ";
+
+		for (int chunkSize = 4; chunkSize <= 24; chunkSize++) {
+			List<ClientCsvReader.Row> rows = readAll(csv, chunkSize);
+
+			assertThat(rows).as("chunk size %d", chunkSize).hasSize(2);
+			assertThat(rows.get(0).getValues()).as("chunk size %d", chunkSize).containsExactly(
+					"Silva, \"Zé\"", "12345678900", "11987654321", "ze@exemplo.com", "Rua Ipê, 12\nBloco Ç\nApto 3",
+					"12", "São Paulo", "SP");
+			assertThat(rows.get(1).getValues()[6]).isEqualTo("Rio");
+			assertThat(rows).extracting(ClientCsvReader.Row::getLine).containsExactly(2L, 6L);
+		}
+	}
+
+	@Test
+	void chunkSmallerThanACharacterStillDecodes() throws IOException {
+		List<ClientCsvReader.Row> rows = readAll(HEADER + "1,😀,e,2,a,3,c,SP\n", 1);
+
+		assertThat(rows).hasSize(1);
+		assertThat(rows.get(0).getValues()[0]).isEqualTo("😀");
+	}
+
+	@Test
+	void reportsMalformedRowsAndKeepsReading() throws IOException {
+		StringBuilder csv = new StringBuilder(HEADER)
+				.append("1,Ana,,2,a,3,c\n")
+				.append("2,\"Bia,e,2,a,3,c,SP\n");
+		// The stray quote takes the row up to its last allowed line
+		for (int i = 1; i < ClientCsvReader.MAX_ROW_LINES; i++) {
+			csv.append("line ").append(i).append('\n');
+		}
+		csv.append("3,Caio,e,2,a,3,c,SP\n")
+				.append("4,\"Davi,e,2,a,3,c,SP");
+
+		List<ClientCsvReader.Row> rows = readAll(csv.toString(), 5);
+
+		assertThat(rows).extracting(ClientCsvReader.Row::getError).containsExactly(
+				"Expected 8 values, found 7", "Unterminated quoted value", null, "Unterminated quoted value");
+		assertThat(rows).extracting(ClientCsvReader.Row::getLine).containsExactly(2L, 3L, 13L, 14L);
+		assertThat(rows.get(2).getValues()).containsExactly("Caio", "3", "2", "e", "a", "3", "c", "SP");
+	}
+
+	@Test
+	void emptyValuesAreNull() throws IOException {
+		List<ClientCsvReader.Row> rows = readAll(HEADER + "1,Ana,,2,\"\",3,c,SP\n", 8);
+
+		assertThat(rows.get(0).getValues()).containsExactly("Ana", "1", "2", null, null, "3", "c", "SP");
+	}
+
+	@Test
+	void rejectsAnEmptyFileOrAnIncompleteHeader() {
+		assertThatThrownBy(() -> readAll("", 8)).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> readAll("cpf,name,email\n1,Ana,e\n", 8))
+				.isInstanceOf(BadRequestException.class)
+				.hasMessageContaining("name,cpf,tel,email,address,addressNumber,city,estate");
+	}
+
+	private static List<ClientCsvReader.Row> readAll(String csv, int chunkSize) throws IOException {
+		byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+		List<ClientCsvReader.Row> rows = new ArrayList<>();
+		try (ClientCsvReader reader = new ClientCsvReader(Channels.newChannel(new ByteArrayInputStream(bytes)),
+				chunkSize)) {
+			for (ClientCsvReader.Row row = reader.next(); row != null; row = reader.next()) {
+				rows.add(row);
+			}
+		}
+		return rows;
+	}
+}
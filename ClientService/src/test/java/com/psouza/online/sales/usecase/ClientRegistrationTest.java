@@ -0,0 +1,139 @@
+package com.psouza.online.sales.usecase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psouza.online.sales.cache.ClientExistenceFilter;
+import com.psouza.online.sales.domain.Client;
+import com.psouza.online.sales.exception.BadRequestException;
+import com.psouza.online.sales.exception.EntityNotFoundException;
+import com.psouza.online.sales.exception.PreconditionFailedException;
+import com.psouza.online.sales.repository.IClientRepository;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+
+/**
+ * Validation and writing of client merge patches.
+ */
+class ClientRegistrationTest {
+
+	private static final String CPF = "12345678900";
+	private static final Client ANA = Client.builder().id("c1").cpf(CPF).name("Ana").version(4L).build();
+
+	private final IClientRepository clientRepository = mock(IClientRepository.class);
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final ClientRegistration clientRegistration = new ClientRegistration(clientRepository,
+			mock(ClientExistenceFilter.class), Validation.buildDefaultValidatorFactory().getValidator(), objectMapper);
+
+	@Test
+	void onlyThePatchedFieldsAreWritten() throws JsonProcessingException {
+		when(clientRepository.updateFieldsByCpf(eq(CPF), anyMap(), isNull(), isNull())).thenReturn(ANA);
+
+		Client patched = clientRegistration.patch(CPF, json("{\"city\": \"Campinas\", \"tel\": 11987654321}"), null, null);
+
+		assertThat(patched).isSameAs(ANA);
+		Map<String, Object> changes = new LinkedHashMap<>();
+		changes.put("tel", 11987654321L);
+		changes.put("city", "Campinas");
+		verify(clientRepository).updateFieldsByCpf(CPF, changes, null, null);
+	}
+
+	@Test
+	void fieldsLeftOutOfThePatchAreNotValidated() throws JsonProcessingException {
+		when(clientRepository.updateFieldsByCpf(eq(CPF), anyMap(), eq("c1"), eq(4L))).thenReturn(ANA);
+
+		// Every other field of the client is required, and absent from the patch
+		assertThat(clientRegistration.patch(CPF, json("{\"name\": \"Ana Maria\"}"), "c1", 4L)).isSameAs(ANA);
+	}
+
+	@Test
+	void invalidPatchedFieldIsRejected() throws JsonProcessingException {
+		assertThatThrownBy(() -> clientRegistration.patch(CPF, json("{\"name\": \"Ana\", \"email\": \"ana\"}"), null, null))
+				.isInstanceOfSatisfying(ConstraintViolationException.class, ex -> assertThat(ex.getConstraintViolations())
+						.extracting(violation -> violation.getPropertyPath().toString())
+						.containsExactly("email"));
+
+		verifyNoInteractions(clientRepository);
+	}
+
+	@Test
+	void nullFieldIsRejected() throws JsonProcessingException {
+		assertThatThrownBy(() -> clientRegistration.patch(CPF, json("{\"tel\": null}"), null, null))
+				.isInstanceOfSatisfying(ConstraintViolationException.class, ex -> assertThat(ex.getConstraintViolations())
+						.extracting(ConstraintViolation::getMessage)
+						.hasSize(1));
+
+		verifyNoInteractions(clientRepository);
+	}
+
+	@Test
+	void identityAndUnknownFieldsCannotBePatched() throws JsonProcessingException {
+		for (String patch : new String[] {"{\"cpf\": \"98765432100\"}", "{\"id\": \"c2\"}", "{\"version\": 9}",
+				"{\"nickname\": \"Aninha\"}"}) {
+			assertThatThrownBy(() -> clientRegistration.patch(CPF, json(patch), null, null))
+					.as(patch)
+					.isInstanceOf(BadRequestException.class)
+					.hasMessageContaining("cannot be patched");
+		}
+
+		verifyNoInteractions(clientRepository);
+	}
+
+	@Test
+	void patchMustBeANonEmptyObject() throws JsonProcessingException {
+		for (String patch : new String[] {"{}", "[]", "\"Ana\"", "null"}) {
+			assertThatThrownBy(() -> clientRegistration.patch(CPF, json(patch), null, null))
+					.as(patch)
+					.isInstanceOf(BadRequestException.class)
+					.hasMessage("A client patch must be a JSON object with at least one field");
+		}
+	}
+
+	@Test
+	void valueOfTheWrongTypeIsRejected() throws JsonProcessingException {
+		assertThatThrownBy(() -> clientRegistration.patch(CPF, json("{\"tel\": \"eleven\"}"), null, null))
+				.isInstanceOf(BadRequestException.class)
+				.hasMessageStartingWith("Invalid client patch");
+
+		verifyNoInteractions(clientRepository);
+	}
+
+	@Test
+	void staleVersionOfAnExistingClientIsPreconditionFailed() throws JsonProcessingException {
+		when(clientRepository.findByCpf(CPF)).thenReturn(Optional.of(ANA));
+
+		assertThatThrownBy(() -> clientRegistration.patch(CPF, json("{\"name\": \"Ana Maria\"}"), "c1", 3L))
+				.isInstanceOf(PreconditionFailedException.class);
+	}
+
+	@Test
+	void unknownClientIsNotFound() throws JsonProcessingException {
+		when(clientRepository.updateFieldsByCpf(any(), anyMap(), any(), any())).thenReturn(null);
+
+		assertThatThrownBy(() -> clientRegistration.patch(CPF, json("{\"name\": \"Ana Maria\"}"), null, null))
+				.isInstanceOf(EntityNotFoundException.class);
+	}
+
+	private JsonNode json(String content) throws JsonProcessingException {
+		return objectMapper.readTree(content);
+	}
+}
@@ -0,0 +1,88 @@
+package com.psouza.online.sales.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Collapses concurrent identical lookups into a single repository call.
+ * <p>
+ * The first caller of a key runs the loader; the callers arriving while it runs wait for the same
+ * future and receive its result, or its exception. The key is forgotten as soon as the call
+ * completes, so nothing is cached here: a caller arriving afterwards runs a new call, or finds the
+ * product cache already filled by the previous one.
+ */
+@Component
+public class LookupCoalescer {
+
+    public static final String LOOKUPS = "usecase.lookups";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LookupCoalescer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param lookup name of the lookup, e.g. "product.code", also the tag of its metrics
+     * @param key    the key looked up
+     * @param loader the repository call
+     * @return the result of the call this caller ran or joined
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T coalesce(String lookup, String key, Supplier<T> loader) {
+        String flightKey = lookup + ':' + key;
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flightKey, flight);
+        if (running != null) {
+            counter(lookup, "coalesced").increment();
+            return (T) join(running);
+        }
+
+        counter(lookup, "loaded").increment();
+        try {
+            T result = loader.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException ex) {
+            // Rethrow what the loader threw, so the exception handlers see the same type
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private Counter counter(String lookup, String result) {
+        return counters.computeIfAbsent(lookup + ':' + result, name -> Counter.builder(LOOKUPS)
+                .description("Lookups that ran a repository call or joined one already running")
+                .tag("lookup", lookup)
+                .tag("result", result)
+                .register(meterRegistry));
+    }
+}
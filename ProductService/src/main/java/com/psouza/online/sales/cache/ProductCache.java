@@ -0,0 +1,187 @@
+package com.psouza.online.sales.cache;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.psouza.online.sales.config.ProductCacheProperties;
+import com.psouza.online.sales.domain.Product;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read-through cache in front of the product lookups by id and by code.
+ * <p>
+ * Every loaded product is stored under both keys so a lookup by either one is served from memory.
+ * A load that started before an eviction of the same key is not stored: each key hashes to a
+ * generation that evictions increment, and the loaded product is only stored while the generation
+ * it read before loading is still current. The loader is given that generation, so that loads
+ * shared between callers are only shared by callers that read the same one. The bean is refresh
+ * scoped, so a refresh of the product-service configuration rebuilds the cache with the new size
+ * and TTL.
+ */
+@Slf4j
+@Component
+@RefreshScope
+public class ProductCache {
+
+    private static final String ID_PREFIX = "id:";
+    private static final String CODE_PREFIX = "code:";
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final boolean enabled;
+    private final Cache<String, Product> fresh;
+    private final Cache<String, Product> stale;
+    private final LongAdder staleHits = new LongAdder();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    @Autowired
+    public ProductCache(ProductCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.fresh = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.stale = properties.isServeStale()
+                ? Caffeine.newBuilder()
+                        .maximumSize(properties.getMaximumSize())
+                        .expireAfterWrite(properties.getStaleTtl())
+                        .build()
+                : null;
+    }
+
+    /**
+     * @param id     the id of the product
+     * @param loader reads the product on a miss, given the generation the load started at
+     * @return the cached or the loaded product
+     */
+    public Optional<Product> getById(String id, LongFunction<Optional<Product>> loader) {
+        return get(ID_PREFIX + id, loader);
+    }
+
+    public Optional<Product> getByCode(String code, LongFunction<Optional<Product>> loader) {
+        return get(CODE_PREFIX + code, loader);
+    }
+
+    public Optional<Product> peekById(String id) {
+        return enabled ? Optional.ofNullable(fresh.getIfPresent(ID_PREFIX + id)) : Optional.empty();
+    }
+
+    public Optional<Product> peekByCode(String code) {
+        return enabled ? Optional.ofNullable(fresh.getIfPresent(CODE_PREFIX + code)) : Optional.empty();
+    }
+
+    /**
+     * Removes the product from the cache under both its id and its code, and keeps the loads
+     * already running for either key from storing what they read.
+     *
+     * @param product the product that was changed, with at least its id or its code
+     */
+    public void evict(Product product) {
+        String idKey = product.getId() != null ? ID_PREFIX + product.getId() : null;
+        String codeKey = product.getCode() != null ? CODE_PREFIX + product.getCode() : null;
+        if (idKey != null) {
+            generations.incrementAndGet(stripe(idKey));
+        }
+        if (codeKey != null) {
+            generations.incrementAndGet(stripe(codeKey));
+        }
+        if (idKey != null) {
+            invalidate(idKey);
+        }
+        if (codeKey != null) {
+            invalidate(codeKey);
+        }
+    }
+
+    /**
+     * Removes the product with the given id when its code is unknown, e.g. it was not found to be
+     * deleted. The code entry is only removed when the id entry still tells the code.
+     *
+     * @param id the id of the product that was changed
+     */
+    public void evictById(String id) {
+        Product cached = fresh.getIfPresent(ID_PREFIX + id);
+        evict(cached != null ? cached : Product.builder().id(id).build());
+    }
+
+    public ProductCacheStats stats() {
+        CacheStats stats = fresh.stats();
+        return new ProductCacheStats(
+                fresh.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.evictionCount(),
+                staleHits.sum());
+    }
+
+    private Optional<Product> get(String key, LongFunction<Optional<Product>> loader) {
+        if (!enabled) {
+            return loader.apply(generations.get(stripe(key)));
+        }
+
+        Product cached = fresh.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long generation = generations.get(stripe(key));
+        Optional<Product> loaded;
+        try {
+            loaded = loader.apply(generation);
+        } catch (DataAccessResourceFailureException ex) {
+            Product fallback = stale != null ? stale.getIfPresent(key) : null;
+            if (fallback == null) {
+                throw ex;
+            }
+            log.warn("MongoDB unavailable, serving stale product for key {}", key);
+            staleHits.increment();
+            return Optional.of(fallback);
+        }
+
+        loaded.ifPresent(product -> {
+            put(ID_PREFIX + product.getId(), product, key, generation);
+            put(CODE_PREFIX + product.getCode(), product, key, generation);
+        });
+        return loaded;
+    }
+
+    /**
+     * Stores the product unless the key it was loaded by was evicted since the load started. The
+     * check runs under the lock of the entry, and an eviction increments the generation before it
+     * invalidates the entry, so either the check sees the eviction or the eviction removes what was
+     * stored.
+     */
+    private void put(String key, Product product, String loadedBy, long generation) {
+        fresh.asMap().compute(key, (k, previous) -> isCurrent(loadedBy, generation) ? product : previous);
+        if (stale != null) {
+            stale.asMap().compute(key, (k, previous) -> isCurrent(loadedBy, generation) ? product : previous);
+        }
+    }
+
+    private boolean isCurrent(String key, long generation) {
+        return generations.get(stripe(key)) == generation;
+    }
+
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), GENERATION_STRIPES);
+    }
+
+    private void invalidate(String key) {
+        fresh.invalidate(key);
+        if (stale != null) {
+            stale.invalidate(key);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.psouza.online.sales.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the product cache counters at /actuator/productcache.
+ */
+@Component
+@Endpoint(id = "productcache")
+public class ProductCacheEndpoint {
+
+    private final ProductCache productCache;
+
+    @Autowired
+    public ProductCacheEndpoint(ProductCache productCache) {
+        this.productCache = productCache;
+    }
+
+    @ReadOperation
+    public ProductCacheStats stats() {
+        return productCache.stats();
+    }
+}
@@ -0,0 +1,14 @@
+package com.psouza.online.sales.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ProductCacheStats {
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long staleHitCount;
+}
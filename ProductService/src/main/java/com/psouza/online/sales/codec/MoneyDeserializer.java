@@ -0,0 +1,52 @@
+package com.psouza.online.sales.codec;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+/**
+ * Reads a monetary amount sent either as a JSON number or as a string such as "5500.00". Strings are
+ * parsed from the parser's character buffer, without materializing an intermediate String.
+ */
+public class MoneyDeserializer extends StdScalarDeserializer<BigDecimal> {
+
+    private static final long serialVersionUID = -2254706253838153626L;
+
+    public MoneyDeserializer() {
+        super(BigDecimal.class);
+    }
+
+    @Override
+    public BigDecimal deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return p.getDecimalValue();
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            return (BigDecimal) ctxt.handleUnexpectedToken(BigDecimal.class, p);
+        }
+
+        char[] chars = p.getTextCharacters();
+        int offset = p.getTextOffset();
+        int end = offset + p.getTextLength();
+        while (offset < end && Character.isWhitespace(chars[offset])) {
+            offset++;
+        }
+        while (end > offset && Character.isWhitespace(chars[end - 1])) {
+            end--;
+        }
+        if (offset == end) {
+            return null;
+        }
+
+        try {
+            return new BigDecimal(chars, offset, end - offset);
+        } catch (NumberFormatException ex) {
+            return (BigDecimal) ctxt.handleWeirdStringValue(BigDecimal.class, p.getText(), "not a valid monetary amount");
+        }
+    }
+}
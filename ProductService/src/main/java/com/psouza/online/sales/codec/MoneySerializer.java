@@ -0,0 +1,63 @@
+package com.psouza.online.sales.codec;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes a monetary amount as a JSON string with exactly two decimals, the same output as the
+ * "#0.00" pattern, but formatting the digits straight into a char buffer instead of going through
+ * DecimalFormat and an intermediate String. Binary formats such as CBOR and Smile write it as a native
+ * decimal number instead.
+ */
+public class MoneySerializer extends StdSerializer<BigDecimal> {
+
+    private static final long serialVersionUID = 4121963354216431837L;
+
+    private static final int SCALE = 2;
+    private static final int MAX_LONG_PRECISION = 18;
+
+    public MoneySerializer() {
+        super(BigDecimal.class);
+    }
+
+    @Override
+    public void serialize(BigDecimal value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        BigDecimal amount = value.scale() == SCALE ? value : value.setScale(SCALE, RoundingMode.HALF_EVEN);
+        if (gen.canWriteBinaryNatively()) {
+            gen.writeNumber(amount);
+            return;
+        }
+        if (amount.precision() > MAX_LONG_PRECISION) {
+            gen.writeString(amount.toPlainString());
+            return;
+        }
+
+        long cents = amount.unscaledValue().longValue();
+        boolean negative = cents < 0;
+        if (negative) {
+            cents = -cents;
+        }
+
+        char[] buffer = new char[MAX_LONG_PRECISION + 3];
+        int position = buffer.length;
+        buffer[--position] = (char) ('0' + cents % 10);
+        cents /= 10;
+        buffer[--position] = (char) ('0' + cents % 10);
+        cents /= 10;
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' + cents % 10);
+            cents /= 10;
+        } while (cents > 0);
+        if (negative) {
+            buffer[--position] = '-';
+        }
+
+        gen.writeString(buffer, position, buffer.length - position);
+    }
+}
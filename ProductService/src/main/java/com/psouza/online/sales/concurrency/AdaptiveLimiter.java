@@ -0,0 +1,135 @@
+package com.psouza.online.sales.concurrency;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows the latency of the requests it lets through, after the gradient
+ * algorithm of Netflix's concurrency-limits.
+ * <p>
+ * Latency is averaged over short windows and compared to a slow moving long-term average. While the
+ * two match, the limit grows by about its square root each window. When the window average rises
+ * above the long-term one times the tolerance, requests are queueing somewhere behind the service
+ * and the limit shrinks in proportion, at most by half. A failed request cuts it by a tenth. The
+ * limit only grows while at least half of it is used, so an idle service does not drift to the
+ * maximum.
+ * <p>
+ * Acquiring and releasing are lock free; the limit is recomputed once per window by whichever
+ * release closes it.
+ */
+public class AdaptiveLimiter {
+
+    /** Windows the long-term average spans. */
+    private static final int LONG_WINDOWS = 100;
+
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final long windowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder windowLatency = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final LongAdder windowDrops = new LongAdder();
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private volatile double limit;
+    private volatile long windowStart = System.nanoTime();
+    private double longLatency;
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+                           Duration window) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.windowNanos = window.toNanos();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * @return whether the request may proceed; if so {@link #release} must follow
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                peakInFlight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param latencyNanos how long the request took
+     * @param dropped      whether it failed in a way that signals overload, e.g. a 5xx
+     */
+    public void release(long latencyNanos, boolean dropped) {
+        inFlight.decrementAndGet();
+        if (dropped) {
+            windowDrops.increment();
+        } else {
+            windowLatency.add(latencyNanos);
+            windowSamples.increment();
+        }
+
+        long now = System.nanoTime();
+        if (now - windowStart < windowNanos || !updateLock.tryLock()) {
+            return;
+        }
+        try {
+            if (now - windowStart >= windowNanos) {
+                windowStart = now;
+                update();
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void update() {
+        long samples = windowSamples.sumThenReset();
+        long latency = windowLatency.sumThenReset();
+        long drops = windowDrops.sumThenReset();
+        int peak = peakInFlight.getAndSet(inFlight.get());
+        double current = limit;
+
+        double next;
+        if (drops > 0) {
+            next = current * BACKOFF;
+        } else if (samples == 0) {
+            return;
+        } else {
+            double shortLatency = (double) latency / samples;
+            longLatency = longLatency == 0 ? shortLatency : longLatency + (shortLatency - longLatency) / LONG_WINDOWS;
+            if (longLatency / shortLatency > 2) {
+                // Latency dropped for good, e.g. a slow dependency recovered: let the average catch up
+                longLatency *= 0.95;
+            }
+            if (peak < current / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longLatency / shortLatency));
+            double estimate = current * gradient + Math.sqrt(current);
+            next = current * (1 - smoothing) + estimate * smoothing;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -0,0 +1,10 @@
+package com.psouza.online.sales.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({ProductCacheProperties.class, ProductListingProperties.class})
+public class CacheConfig {
+
+}
@@ -0,0 +1,67 @@
+package com.psouza.online.sales.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product.concurrency")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Sent in the Retry-After header of a rejected request.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * How long latency is averaged before a limit is adjusted.
+     */
+    private Duration window = Duration.ofMillis(100);
+
+    /**
+     * How far the latency may rise above its long-term average before a limit shrinks.
+     */
+    private double tolerance = 1.5;
+
+    /**
+     * Weight of each new estimate in a limit, from 0 to 1.
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * Endpoint groups, each with its own limit. A request counts against the first group it
+     * matches; requests matching none are not limited.
+     */
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Group {
+
+        /**
+         * Ant-style path patterns, e.g. /product/**.
+         */
+        private List<String> paths = new ArrayList<>();
+
+        /**
+         * HTTP methods of the group, any method when empty.
+         */
+        private List<String> methods = new ArrayList<>();
+
+        private int initialLimit = 20;
+
+        private int minLimit = 1;
+
+        private int maxLimit = 200;
+    }
+}
@@ -0,0 +1,31 @@
+package com.psouza.online.sales.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.psouza.online.sales.grpc.ProductGrpcService;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.grpc.MetricCollectingServerInterceptor;
+
+/**
+ * gRPC server of the product lookups, on {@code product.grpc.port} next to the HTTP port. Callers
+ * keep multiplexed HTTP/2 connections to it instead of sending one HTTP/1.1 JSON request per lookup.
+ * Calls are timed in {@code grpc.server.processing.duration} per method and status code.
+ */
+@Configuration
+public class GrpcConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    public Server grpcServer(ProductGrpcService productGrpcService, MeterRegistry meterRegistry,
+                             @Value("${product.grpc.port:9090}") int port) {
+        return Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                .addService(ServerInterceptors.intercept(productGrpcService, new MetricCollectingServerInterceptor(meterRegistry)))
+                .build();
+    }
+}
@@ -1,9 +1,11 @@
 package com.psouza.online.sales.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.config.EnableMongoAuditing;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
 @Configuration
+@EnableMongoAuditing
 @EnableMongoRepositories(basePackages = "com.psouza.online.sales.repository")
 public class MongoConfig {
 
@@ -0,0 +1,82 @@
+package com.psouza.online.sales.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.mongo.MongoConnectionDetails;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.boot.autoconfigure.mongo.PropertiesMongoConnectionDetails;
+import org.springframework.boot.autoconfigure.mongo.StandardMongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import com.mongodb.MongoClientSettings;
+import com.psouza.online.sales.repository.ResizableMongoDatabaseFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sizes the MongoDB pools from product.mongodb.pool.
+ * <p>
+ * The MongoTemplate gets a {@link ResizableMongoDatabaseFactory}, which opens the blocking clients
+ * itself. Spring Boot then skips its own MongoDB client configuration, so the connection details,
+ * the client settings and the customizer applying the URI are declared here as Boot declares them;
+ * the reactive client, which gets the pool settings it starts with, is built from them too.
+ */
+@Configuration
+@EnableConfigurationProperties({MongoProperties.class, MongoPoolProperties.class})
+public class MongoPoolConfig {
+
+    public static final String MAX_SIZE = "mongodb.driver.pool.max";
+
+    @Bean
+    public PropertiesMongoConnectionDetails mongoConnectionDetails(MongoProperties mongoProperties) {
+        return new PropertiesMongoConnectionDetails(mongoProperties);
+    }
+
+    @Bean
+    public MongoClientSettings mongoClientSettings() {
+        return MongoClientSettings.builder().build();
+    }
+
+    @Bean
+    public StandardMongoClientSettingsBuilderCustomizer standardMongoSettingsCustomizer(MongoProperties mongoProperties,
+                                                                                      MongoConnectionDetails connectionDetails,
+                                                                                      ObjectProvider<SslBundles> sslBundles) {
+        return new StandardMongoClientSettingsBuilderCustomizer(connectionDetails.getConnectionString(),
+                mongoProperties.getUuidRepresentation(), mongoProperties.getSsl(), sslBundles.getIfAvailable());
+    }
+
+    /**
+     * Applied after the connection string, so these settings win over the pool options of the URI.
+     */
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public MongoClientSettingsBuilderCustomizer mongoPoolSettings(MongoPoolProperties properties) {
+        return settings -> settings.applyToConnectionPoolSettings(pool ->
+                ResizableMongoDatabaseFactory.apply(pool, properties.toPoolSettings(properties.getMaxSize())));
+    }
+
+    @Bean
+    public ResizableMongoDatabaseFactory mongoDatabaseFactory(MongoClientSettings settings,
+                                                              ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers,
+                                                              MongoProperties mongoProperties,
+                                                              MongoConnectionDetails connectionDetails,
+                                                              MongoPoolProperties properties,
+                                                              MeterRegistry meterRegistry) {
+        String database = mongoProperties.getDatabase() != null
+                ? mongoProperties.getDatabase()
+                : connectionDetails.getConnectionString().getDatabase();
+        ResizableMongoDatabaseFactory factory = new ResizableMongoDatabaseFactory(
+                properties.toPoolSettings(properties.getMaxSize()), settings, customizers.orderedStream().toList(),
+                database, properties::getRetireDelay, properties::getWarmUpTimeout);
+        Gauge.builder(MAX_SIZE, factory, f -> f.getPoolSettings().getMaxSize())
+                .description("Maximum size of the MongoDB pool in use")
+                .register(meterRegistry);
+        return factory;
+    }
+}
@@ -0,0 +1,104 @@
+package com.psouza.online.sales.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.mongodb.connection.ConnectionPoolSettings;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product.mongodb.pool")
+public class MongoPoolProperties {
+
+    /**
+     * Connections kept open even when idle.
+     */
+    private int minSize = 0;
+
+    private int maxSize = 100;
+
+    /**
+     * How long an operation waits for a free connection before failing.
+     */
+    private Duration maxWaitTime = Duration.ofMinutes(2);
+
+    /**
+     * How long a connection may sit idle before it is closed, 0 to keep it open.
+     */
+    private Duration maxConnectionIdleTime = Duration.ZERO;
+
+    /**
+     * Connections being established at the same time.
+     */
+    private int maxConnecting = 2;
+
+    /**
+     * How long a replaced client is kept open at least; after that it is closed as soon as no
+     * operation holds one of its connections and no cursor of it is open, so long streams finish.
+     */
+    private Duration retireDelay = Duration.ofSeconds(30);
+
+    /**
+     * How long a resize waits for the new client to open as many connections as the previous one
+     * has in use before switching to it anyway.
+     */
+    private Duration warmUpTimeout = Duration.ofSeconds(5);
+
+    private Adaptive adaptive = new Adaptive();
+
+    /**
+     * @param maxSize the maximum size of the pool, which the adaptive mode may have changed
+     * @return the pool settings, without listeners
+     */
+    public ConnectionPoolSettings toPoolSettings(int maxSize) {
+        return ConnectionPoolSettings.builder()
+                .minSize(Math.min(minSize, maxSize))
+                .maxSize(maxSize)
+                .maxWaitTime(maxWaitTime.toMillis(), TimeUnit.MILLISECONDS)
+                .maxConnectionIdleTime(maxConnectionIdleTime.toMillis(), TimeUnit.MILLISECONDS)
+                .maxConnecting(maxConnecting)
+                .build();
+    }
+
+    @Getter
+    @Setter
+    public static class Adaptive {
+
+        /**
+         * Resize the pool from the observed checkout waits and connections in use.
+         */
+        private boolean enabled = false;
+
+        /**
+         * How often the pool usage is evaluated.
+         */
+        private Duration interval = Duration.ofSeconds(15);
+
+        /**
+         * Bounds of the maximum size the adaptive mode may pick.
+         */
+        private int lowestMaxSize = 10;
+
+        private int highestMaxSize = 200;
+
+        /**
+         * Mean checkout wait over an interval above which a saturated pool grows.
+         */
+        private Duration waitThreshold = Duration.ofMillis(5);
+
+        private double growFactor = 1.5;
+
+        /**
+         * Share of the pool that must stay unused for shrinkAfter intervals in a row before it
+         * shrinks.
+         */
+        private double shrinkUtilization = 0.5;
+
+        private int shrinkAfter = 4;
+    }
+}
@@ -0,0 +1,27 @@
+package com.psouza.online.sales.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product.cache")
+public class ProductCacheProperties {
+
+    private boolean enabled = true;
+
+    private long maximumSize = 10_000;
+
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * Keep a longer lived copy of every loaded product and return it when MongoDB is unreachable.
+     */
+    private boolean serveStale = false;
+
+    private Duration staleTtl = Duration.ofHours(24);
+}
@@ -0,0 +1,26 @@
+package com.psouza.online.sales.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.psouza.online.sales.usecase.PageTotal;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product.listing")
+public class ProductListingProperties {
+
+    /**
+     * How GET /product counts the total when the request has no total parameter.
+     */
+    private PageTotal total = PageTotal.EXACT;
+
+    /**
+     * How long an estimated total is served before it is read again. Applied again on /actuator/refresh.
+     */
+    private Duration estimatedTotalTtl = Duration.ofMinutes(1);
+}
@@ -0,0 +1,12 @@
+package com.psouza.online.sales.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+@Configuration
+@Profile("reactive")
+@EnableReactiveMongoRepositories(basePackages = "com.psouza.online.sales.repository")
+public class ReactiveMongoConfig {
+
+}
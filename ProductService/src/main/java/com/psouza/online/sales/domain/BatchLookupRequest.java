@@ -0,0 +1,24 @@
+package com.psouza.online.sales.domain;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(name = "BatchLookupRequest", description = "Keys of a batch product lookup. Exactly one of ids or codes must be sent")
+public class BatchLookupRequest {
+
+    @Schema(description = "Ids of the products", example = "[\"507f1f77bcf86cd799439011\"]")
+    private List<String> ids;
+
+    @Schema(description = "Codes of the products", example = "[\"12345678900\"]")
+    private List<String> codes;
+}
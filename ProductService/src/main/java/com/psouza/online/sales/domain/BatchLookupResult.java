@@ -0,0 +1,20 @@
+package com.psouza.online.sales.domain;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@Schema(name = "BatchLookupResult", description = "Result of a batch product lookup")
+public class BatchLookupResult {
+
+    @Schema(description = "Products found, in request order")
+    private List<Product> products;
+
+    @Schema(description = "Requested keys without a matching product, in request order")
+    private List<String> missing;
+}
@@ -0,0 +1,40 @@
+package com.psouza.online.sales.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(name = "BulkItemResult", description = "A rejected item of a bulk registration")
+public class BulkItemResult {
+
+    public enum Status {
+        DUPLICATE_CODE,
+        /** The item carries the id of a product already registered. */
+        DUPLICATE_ID,
+        INVALID,
+        FAILED,
+        /**
+         * The array could not be parsed from this item on; it is the last entry and nothing after
+         * it was read.
+         */
+        MALFORMED
+    }
+
+    @Schema(description = "Position of the item in the request array", example = "0")
+    private int index;
+
+    @Schema(description = "Code of the product, when it could be read", example = "12345678900")
+    private String code;
+
+    @Schema(description = "Outcome of the item", example = "DUPLICATE_CODE")
+    private Status status;
+
+    @Schema(description = "Reason the item was rejected")
+    private String message;
+}
@@ -0,0 +1,26 @@
+package com.psouza.online.sales.domain;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@Schema(name = "BulkRegistrationResult", description = "Summary of a bulk registration")
+public class BulkRegistrationResult {
+
+    @Schema(description = "Number of products inserted", example = "998")
+    private long inserted;
+
+    @Schema(description = "Number of products rejected", example = "2")
+    private long rejected;
+
+    @Schema(description = "The rejected items in request order, at most product.bulk.max-reported-items of them")
+    private List<BulkItemResult> rejectedItems;
+
+    @Schema(description = "Whether rejected items were left out of rejectedItems", example = "false")
+    private boolean truncated;
+}
@@ -1,6 +1,9 @@
 package com.psouza.online.sales.domain;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.psouza.online.sales.codec.MoneyDeserializer;
+import com.psouza.online.sales.codec.MoneySerializer;
 
 import jakarta.validation.constraints.Size;
 import jakarta.validation.constraints.Digits;
@@ -8,16 +11,28 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.DecimalMin;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 import lombok.*;
 
 @Document(collection = "product")
+@CompoundIndexes({
+        @CompoundIndex(name = "value_id", def = "{'value': 1, '_id': 1}", background = true),
+        @CompoundIndex(name = "name_value", def = "{'name': 1, 'value': 1}", background = true)
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -37,11 +52,13 @@ public class Product {
 
     @NotNull
     @Size(min = 1, max = 50)
+    @TextIndexed(weight = 3)
     @Schema(description = "Name of the product", example = "Apple IPhone 16", minLength = 1, maxLength = 50, nullable = false)
     private String name;
 
     @NotNull
     @Size(min = 1, max = 300)
+    @TextIndexed
     @Schema(description = "Description of the product", example = "iPhone 16." +
             "Novo Controle da Câmera, câmera Fusion de 48 MP, cinco cores lindas e o chip A18.", minLength = 1, maxLength = 50, nullable = true)
     private String description;
@@ -50,11 +67,22 @@ public class Product {
     @NotNull
     @DecimalMin(value = "0.0", inclusive = false, message = "The value must be greater than 0(zero)")
     @Digits(integer = 10, fraction = 2, message = "The value must have a maximum of 10 integer digits an 2 decimals")
-    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "#0.00")
+    @JsonSerialize(using = MoneySerializer.class)
+    @JsonDeserialize(using = MoneyDeserializer.class)
+    @Field(targetType = FieldType.DECIMAL128)
     @Schema(
             description = "Price of the product in R$ (Brazilian Real). Must be greater than zero and have up to 2 decimal places.",
             example = "5500.00",
             nullable = false
     )
     private BigDecimal value;
+
+    @LastModifiedDate
+    @Indexed(background = true)
+    @Schema(description = "Instant of the last change of the product", accessMode = Schema.AccessMode.READ_ONLY)
+    private Instant updatedAt;
+
+    @Version
+    @Schema(description = "Version of the product, incremented on every change", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
 }
@@ -0,0 +1,38 @@
+package com.psouza.online.sales.domain;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Conditions of a filtered product listing. Each one is optional and they are combined with and;
+ * every combination is served by the compound indexes declared on {@link Product}.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductFilter {
+
+    /**
+     * Lowest value, inclusive.
+     */
+    private BigDecimal minValue;
+
+    /**
+     * Highest value, inclusive.
+     */
+    private BigDecimal maxValue;
+
+    /**
+     * Case sensitive start of the name, so that it is a range of the name index.
+     */
+    private String namePrefix;
+
+    public boolean isEmpty() {
+        return minValue == null && maxValue == null && (namePrefix == null || namePrefix.isEmpty());
+    }
+}
@@ -0,0 +1,37 @@
+package com.psouza.online.sales.domain;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.psouza.online.sales.codec.MoneySerializer;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(name = "ProductSearchHit", description = "Product fields shown in a search results list")
+public class ProductSearchHit {
+
+    @Schema(description = "Unique identifier of the product", example = "507f1f77bcf86cd799439011")
+    private String id;
+
+    @Schema(description = "Code of the product", example = "12345678900")
+    private String code;
+
+    @Schema(description = "Name of the product", example = "Apple IPhone 16")
+    private String name;
+
+    @JsonSerialize(using = MoneySerializer.class)
+    @Schema(description = "Price of the product in R$ (Brazilian Real)", example = "5500.00")
+    private BigDecimal value;
+
+    @Schema(description = "Relevance of the product for the searched terms", example = "1.5")
+    private Float score;
+}
@@ -0,0 +1,10 @@
+package com.psouza.online.sales.exception;
+
+public class NotImplementedException extends RuntimeException {
+
+    private static final long serialVersionUID = 7412503376914920417L;
+
+    public NotImplementedException(String message) {
+        super(message);
+    }
+}
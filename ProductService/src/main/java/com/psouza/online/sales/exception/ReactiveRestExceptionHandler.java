@@ -0,0 +1,156 @@
+package com.psouza.online.sales.exception;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+import com.psouza.online.sales.errorhandling.ApiError;
+import com.psouza.online.sales.metrics.ErrorMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
+import org.springframework.web.server.MissingRequestValueException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.server.UnsupportedMediaTypeStatusException;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of {@link RestExceptionHandler}, rendering the same {@link ApiError} bodies
+ * when the service runs with the reactive profile.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ControllerAdvice
+@Profile("reactive")
+public class ReactiveRestExceptionHandler extends ResponseEntityExceptionHandler {
+
+    private final ErrorMetrics errorMetrics;
+
+    @Autowired
+    public ReactiveRestExceptionHandler(ErrorMetrics errorMetrics) {
+        this.errorMetrics = errorMetrics;
+    }
+
+    @Override
+    protected Mono<ResponseEntity<Object>> handleWebExchangeBindException(
+            WebExchangeBindException ex, HttpHeaders headers, HttpStatusCode status, ServerWebExchange exchange) {
+        ApiError apiError = new ApiError(BAD_REQUEST);
+        apiError.setMessage("Validation error");
+        apiError.addValidationErrors(ex.getBindingResult().getFieldErrors());
+        apiError.addValidationError(ex.getBindingResult().getGlobalErrors());
+        return Mono.just(buildResponseEntity(apiError, "argument-not-valid", ex));
+    }
+
+    @Override
+    protected Mono<ResponseEntity<Object>> handleMissingRequestValueException(
+            MissingRequestValueException ex, HttpHeaders headers, HttpStatusCode status, ServerWebExchange exchange) {
+        ApiError apiError = new ApiError(BAD_REQUEST);
+        apiError.setMessage(ex.getName() + " parameter is missing");
+        return Mono.just(buildResponseEntity(apiError, headers, "missing-parameter", ex));
+    }
+
+    /**
+     * A parameter of the wrong type or an unreadable body.
+     */
+    @Override
+    protected Mono<ResponseEntity<Object>> handleServerWebInputException(
+            ServerWebInputException ex, HttpHeaders headers, HttpStatusCode status, ServerWebExchange exchange) {
+        ApiError apiError = new ApiError(BAD_REQUEST);
+        apiError.setMessage(ex.getReason());
+        return Mono.just(buildResponseEntity(apiError, headers, "bad-input", ex));
+    }
+
+    @Override
+    protected Mono<ResponseEntity<Object>> handleUnsupportedMediaTypeStatusException(
+            UnsupportedMediaTypeStatusException ex, HttpHeaders headers, HttpStatusCode status,
+            ServerWebExchange exchange) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(ex.getContentType());
+        builder.append(" media type is not supported. Supported media types are ");
+        ex.getSupportedMediaTypes().forEach(t -> builder.append(t).append(", "));
+        ApiError apiError = new ApiError(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        apiError.setMessage(builder.substring(0, builder.length() - 2));
+        return Mono.just(buildResponseEntity(apiError, headers, "unsupported-media-type", ex));
+    }
+
+    @ExceptionHandler(jakarta.validation.ConstraintViolationException.class)
+    protected ResponseEntity<Object> handleConstraintViolation(
+            jakarta.validation.ConstraintViolationException ex) {
+        ApiError apiError = new ApiError(BAD_REQUEST);
+        apiError.setMessage("Validation error");
+        apiError.addValidationErrors(ex.getConstraintViolations());
+        return buildResponseEntity(apiError, "constraint-violation", ex);
+    }
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    protected ResponseEntity<Object> handleEntityNotFound(EntityNotFoundException ex) {
+        ApiError apiError = new ApiError(NOT_FOUND);
+        apiError.setMessage(ex.getMessage());
+        return buildResponseEntity(apiError, "entity-not-found", ex);
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    protected ResponseEntity<Object> handleBadRequest(BadRequestException ex) {
+        ApiError apiError = new ApiError(BAD_REQUEST);
+        apiError.setMessage(ex.getMessage());
+        return buildResponseEntity(apiError, "bad-request", ex);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    protected ResponseEntity<Object> handlePreconditionFailed(PreconditionFailedException ex) {
+        ApiError apiError = new ApiError(HttpStatus.PRECONDITION_FAILED);
+        apiError.setMessage(ex.getMessage());
+        return buildResponseEntity(apiError, "precondition-failed", ex);
+    }
+
+    @ExceptionHandler(NotImplementedException.class)
+    protected ResponseEntity<Object> handleNotImplemented(NotImplementedException ex) {
+        ApiError apiError = new ApiError(HttpStatus.NOT_IMPLEMENTED);
+        apiError.setMessage(ex.getMessage());
+        return buildResponseEntity(apiError, "not-implemented", ex);
+    }
+
+    @ExceptionHandler(UnsupportedOperationException.class)
+    protected ResponseEntity<Object> handleUnsupportedOperationException(UnsupportedOperationException ex) {
+        ApiError apiError = new ApiError(HttpStatus.UNPROCESSABLE_ENTITY);
+        apiError.setMessage(ex.getMessage());
+        return buildResponseEntity(apiError, "unsupported-operation", ex);
+    }
+
+    @ExceptionHandler(DuplicateKeyException.class)
+    protected ResponseEntity<Object> handleDuplicateKeyException(DuplicateKeyException ex) {
+        ApiError apiError = new ApiError(BAD_REQUEST);
+        apiError.setMessage(ex.getMessage());
+        return buildResponseEntity(apiError, "duplicate-key", ex);
+    }
+
+    /**
+     * Counts the errors of the WebFlux exceptions handled by the base class, e.g. an unsupported
+     * HTTP method or an unreadable body, under the "framework" branch.
+     */
+    @Override
+    protected Mono<ResponseEntity<Object>> handleExceptionInternal(Exception ex, Object body, HttpHeaders headers,
+            HttpStatusCode status, ServerWebExchange exchange) {
+        errorMetrics.record("framework", status, ex);
+        return super.handleExceptionInternal(ex, body, headers, status, exchange);
+    }
+
+    private ResponseEntity<Object> buildResponseEntity(ApiError apiError, String branch, Exception ex) {
+        return buildResponseEntity(apiError, new HttpHeaders(), branch, ex);
+    }
+
+    private ResponseEntity<Object> buildResponseEntity(ApiError apiError, HttpHeaders headers, String branch, Exception ex) {
+        errorMetrics.record(branch, apiError.getStatus(), ex);
+        return new ResponseEntity<>(apiError, headers, apiError.getStatus());
+    }
+}
@@ -4,16 +4,18 @@ import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
 import com.psouza.online.sales.errorhandling.ApiError;
+import com.psouza.online.sales.metrics.ErrorMetrics;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Setter;
+import org.springframework.context.annotation.Profile;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
-import org.springframework.validation.BindException;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
@@ -29,29 +31,32 @@ import lombok.extern.slf4j.Slf4j;
 
 @Order(Ordered.HIGHEST_PRECEDENCE)
 @ControllerAdvice
+@Profile("!reactive")
 @Slf4j
 @Builder
 @Setter
 @AllArgsConstructor
 public class RestExceptionHandler extends ResponseEntityExceptionHandler {
+
+    private ErrorMetrics errorMetrics;
 	
 	/**
      * Handle MissingServletRequestParameterException. Triggered when a 'required' request parameter is missing.
      *
      * @param ex      MissingServletRequestParameterException
      * @param headers HttpHeaders
-     * @param status  HttpStatus
+     * @param status  HttpStatusCode
      * @param request WebRequest
      * @return the ApiError object
      */
-
+    @Override
     protected ResponseEntity<Object> handleMissingServletRequestParameter(
             MissingServletRequestParameterException ex, HttpHeaders headers,
-            HttpStatus status, WebRequest request) {
+            HttpStatusCode status, WebRequest request) {
         String error = ex.getParameterName() + " parameter is missing";
         ApiError apiError = new ApiError(BAD_REQUEST);
         apiError.setMessage(error);
-        return buildResponseEntity(apiError);
+        return buildResponseEntity(apiError, "missing-parameter", ex);
     }
 
 
@@ -60,14 +65,15 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
      *
      * @param ex      HttpMediaTypeNotSupportedException
      * @param headers HttpHeaders
-     * @param status  HttpStatus
+     * @param status  HttpStatusCode
      * @param request WebRequest
      * @return the ApiError object
      */
+    @Override
     protected ResponseEntity<Object> handleHttpMediaTypeNotSupported(
             HttpMediaTypeNotSupportedException ex,
             HttpHeaders headers,
-            HttpStatus status,
+            HttpStatusCode status,
             WebRequest request) {
         StringBuilder builder = new StringBuilder();
         builder.append(ex.getContentType());
@@ -75,7 +81,7 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         ex.getSupportedMediaTypes().forEach(t -> builder.append(t).append(", "));
         ApiError apiError = new ApiError(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
         apiError.setMessage(builder.substring(0, builder.length() - 2));
-        return buildResponseEntity(apiError);
+        return buildResponseEntity(apiError, "unsupported-media-type", ex);
     }
 
     /**
@@ -83,30 +89,23 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
      *
      * @param ex      the MethodArgumentNotValidException that is thrown when @Valid validation fails
      * @param headers HttpHeaders
-     * @param status  HttpStatus
+     * @param status  HttpStatusCode
      * @param request WebRequest
      * @return the ApiError object
      */
+    @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(
             MethodArgumentNotValidException ex,
             HttpHeaders headers,
-            HttpStatus status,
+            HttpStatusCode status,
             WebRequest request) {
         ApiError apiError = new ApiError(BAD_REQUEST);
         apiError.setMessage("Validation error");
         apiError.addValidationErrors(ex.getBindingResult().getFieldErrors());
         apiError.addValidationError(ex.getBindingResult().getGlobalErrors());
-        return buildResponseEntity(apiError);
+        return buildResponseEntity(apiError, "argument-not-valid", ex);
     }
 
-	protected ResponseEntity<Object> handleBindException(BindException ex, HttpHeaders headers, HttpStatus status,
-			WebRequest request) {
-		ApiError apiError = new ApiError(BAD_REQUEST);
-		apiError.setMessage(ex.getMessage());
-		return buildResponseEntity(apiError);
-	}
-
-
 	/**
      * Handles javax.validation.ConstraintViolationException. Thrown when @Validated fails.
      *
@@ -119,7 +118,7 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         ApiError apiError = new ApiError(BAD_REQUEST);
         apiError.setMessage("Validation error");
         apiError.addValidationErrors(ex.getConstraintViolations());
-        return buildResponseEntity(apiError);
+        return buildResponseEntity(apiError, "constraint-violation", ex);
     }
 
     /**
@@ -132,52 +131,84 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
     protected ResponseEntity<Object> handleEntityNotFound(EntityNotFoundException ex) {
         ApiError apiError = new ApiError(NOT_FOUND);
         apiError.setMessage(ex.getMessage());
-        return buildResponseEntity(apiError);
+        return buildResponseEntity(apiError, "entity-not-found", ex);
     }
     
     @ExceptionHandler(BadRequestException.class)
     protected ResponseEntity<Object> handleBadRequest(BadRequestException ex) {
         ApiError apiError = new ApiError(BAD_REQUEST);
         apiError.setMessage(ex.getMessage());
-        return buildResponseEntity(apiError);
+        return buildResponseEntity(apiError, "bad-request", ex);
+    }
+    
+    @ExceptionHandler(PreconditionFailedException.class)
+    protected ResponseEntity<Object> handlePreconditionFailed(PreconditionFailedException ex) {
+        ApiError apiError = new ApiError(HttpStatus.PRECONDITION_FAILED);
+        apiError.setMessage(ex.getMessage());
+        return buildResponseEntity(apiError, "precondition-failed", ex);
+    }
+    
+    @ExceptionHandler(ServiceUnavailableException.class)
+    protected ResponseEntity<Object> handleServiceUnavailable(ServiceUnavailableException ex) {
+        ApiError apiError = new ApiError(HttpStatus.SERVICE_UNAVAILABLE);
+        apiError.setMessage(ex.getMessage());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())));
+        return buildResponseEntity(apiError, headers, "service-unavailable", ex);
     }
     
     @ExceptionHandler(UnsupportedOperationException.class)
     protected ResponseEntity<Object> handleUnsupportedOperationException(UnsupportedOperationException ex) {
         ApiError apiError = new ApiError(HttpStatus.UNPROCESSABLE_ENTITY);
         apiError.setMessage(ex.getMessage());
-        return buildResponseEntity(apiError);
+        return buildResponseEntity(apiError, "unsupported-operation", ex);
     }
     
     @ExceptionHandler(DuplicateKeyException.class)
     protected ResponseEntity<Object> handleDuplicateKeyException(DuplicateKeyException ex) {
         ApiError apiError = new ApiError(BAD_REQUEST);
         apiError.setMessage(ex.getMessage());
-        return buildResponseEntity(apiError);
+        return buildResponseEntity(apiError, "duplicate-key", ex);
     }
     
     @ExceptionHandler(NotFound.class)
     protected ResponseEntity<Object> handleNotFound(NotFound ex) {
         ApiError apiError = new ApiError(NOT_FOUND);
         apiError.setMessage(ex.getMessage());
-        return buildResponseEntity(apiError);
+        return buildResponseEntity(apiError, "client-not-found", ex);
     }
     
     @ExceptionHandler(BadRequest.class)
     protected ResponseEntity<Object> handleBadRequest(BadRequest ex) {
         ApiError apiError = new ApiError(BAD_REQUEST);
         apiError.setMessage(ex.getMessage());
-        return buildResponseEntity(apiError);
+        return buildResponseEntity(apiError, "client-bad-request", ex);
     }
     
     @ExceptionHandler(UnprocessableEntity.class)
     protected ResponseEntity<Object> handleUnprocessableEntity(UnprocessableEntity ex) {
         ApiError apiError = new ApiError(HttpStatus.UNPROCESSABLE_ENTITY);
         apiError.setMessage(ex.getMessage());
-        return buildResponseEntity(apiError);
+        return buildResponseEntity(apiError, "client-unprocessable-entity", ex);
     }
     
-    private ResponseEntity<Object> buildResponseEntity(ApiError apiError) {
-        return new ResponseEntity<>(apiError, apiError.getStatus());
+    /**
+     * Counts the errors of the Spring MVC exceptions handled by the base class, e.g. an unsupported
+     * HTTP method or an unreadable body, under the "framework" branch.
+     */
+    @Override
+    protected ResponseEntity<Object> handleExceptionInternal(Exception ex, Object body, HttpHeaders headers,
+            HttpStatusCode statusCode, WebRequest request) {
+        errorMetrics.record("framework", statusCode, ex);
+        return super.handleExceptionInternal(ex, body, headers, statusCode, request);
+    }
+
+    private ResponseEntity<Object> buildResponseEntity(ApiError apiError, String branch, Exception ex) {
+        return buildResponseEntity(apiError, new HttpHeaders(), branch, ex);
+    }
+
+    private ResponseEntity<Object> buildResponseEntity(ApiError apiError, HttpHeaders headers, String branch, Exception ex) {
+        errorMetrics.record(branch, apiError.getStatus(), ex);
+        return new ResponseEntity<>(apiError, headers, apiError.getStatus());
     }
 }
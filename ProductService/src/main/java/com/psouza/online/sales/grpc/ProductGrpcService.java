@@ -0,0 +1,96 @@
+package com.psouza.online.sales.grpc;
+
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.psouza.online.sales.domain.BatchLookupRequest;
+import com.psouza.online.sales.domain.BatchLookupResult;
+import com.psouza.online.sales.exception.BadRequestException;
+import com.psouza.online.sales.exception.EntityNotFoundException;
+import com.psouza.online.sales.grpc.proto.BatchGetRequest;
+import com.psouza.online.sales.grpc.proto.BatchGetResponse;
+import com.psouza.online.sales.grpc.proto.GetByCodeRequest;
+import com.psouza.online.sales.grpc.proto.GetByIdRequest;
+import com.psouza.online.sales.grpc.proto.Product;
+import com.psouza.online.sales.grpc.proto.ProductLookupGrpc;
+import com.psouza.online.sales.usecase.SearchProduct;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * gRPC side of the product lookups. It runs the same {@link SearchProduct} use case as the REST
+ * endpoints, cache included, and maps its exceptions to gRPC status codes the way
+ * RestExceptionHandler maps them to HTTP ones.
+ */
+@Slf4j
+@Component
+public class ProductGrpcService extends ProductLookupGrpc.ProductLookupImplBase {
+
+    private final SearchProduct searchProduct;
+
+    @Autowired
+    public ProductGrpcService(SearchProduct searchProduct) {
+        this.searchProduct = searchProduct;
+    }
+
+    @Override
+    public void getById(GetByIdRequest request, StreamObserver<Product> responseObserver) {
+        reply(responseObserver, () -> ProductMessages.toMessage(searchProduct.searchById(request.getId())));
+    }
+
+    @Override
+    public void getByCode(GetByCodeRequest request, StreamObserver<Product> responseObserver) {
+        reply(responseObserver, () -> ProductMessages.toMessage(searchProduct.searchByCode(request.getCode())));
+    }
+
+    @Override
+    public void batchGet(BatchGetRequest request, StreamObserver<BatchGetResponse> responseObserver) {
+        boolean byId = request.getIdsCount() > 0;
+        BatchLookupResult result;
+        try {
+            result = searchProduct.searchBatch(new BatchLookupRequest(
+                    byId ? request.getIdsList() : null, request.getCodesCount() > 0 ? request.getCodesList() : null));
+        } catch (RuntimeException ex) {
+            responseObserver.onError(toStatus(ex).asRuntimeException());
+            return;
+        }
+
+        for (com.psouza.online.sales.domain.Product product : result.getProducts()) {
+            responseObserver.onNext(BatchGetResponse.newBuilder()
+                    .setKey(byId ? product.getId() : product.getCode())
+                    .setProduct(ProductMessages.toMessage(product))
+                    .build());
+        }
+        for (String key : result.getMissing()) {
+            responseObserver.onNext(BatchGetResponse.newBuilder().setKey(key).setMissing(true).build());
+        }
+        responseObserver.onCompleted();
+    }
+
+    private static <T> void reply(StreamObserver<T> responseObserver, Supplier<T> call) {
+        T response;
+        try {
+            response = call.get();
+        } catch (RuntimeException ex) {
+            responseObserver.onError(toStatus(ex).asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    private static Status toStatus(RuntimeException ex) {
+        if (ex instanceof EntityNotFoundException) {
+            return Status.NOT_FOUND.withDescription(ex.getMessage());
+        }
+        if (ex instanceof BadRequestException) {
+            return Status.INVALID_ARGUMENT.withDescription(ex.getMessage());
+        }
+        log.error("Product lookup failed", ex);
+        return Status.INTERNAL.withDescription("Unexpected error");
+    }
+}
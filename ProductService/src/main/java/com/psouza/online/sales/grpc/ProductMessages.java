@@ -0,0 +1,73 @@
+package com.psouza.online.sales.grpc;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Timestamp;
+import com.psouza.online.sales.grpc.proto.Decimal;
+import com.psouza.online.sales.grpc.proto.Product;
+
+/**
+ * Conversions between the product entity and its protobuf messages. Amounts travel as the unscaled
+ * value and the scale of the BigDecimal, so they are exact and need no text formatting.
+ */
+public final class ProductMessages {
+
+    private ProductMessages() {
+    }
+
+    public static Product toMessage(com.psouza.online.sales.domain.Product product) {
+        Product.Builder message = Product.newBuilder();
+        if (product.getId() != null) {
+            message.setId(product.getId());
+        }
+        if (product.getCode() != null) {
+            message.setCode(product.getCode());
+        }
+        if (product.getName() != null) {
+            message.setName(product.getName());
+        }
+        if (product.getDescription() != null) {
+            message.setDescription(product.getDescription());
+        }
+        if (product.getValue() != null) {
+            message.setValue(toDecimal(product.getValue()));
+        }
+        if (product.getUpdatedAt() != null) {
+            message.setUpdatedAt(Timestamp.newBuilder()
+                    .setSeconds(product.getUpdatedAt().getEpochSecond())
+                    .setNanos(product.getUpdatedAt().getNano()));
+        }
+        if (product.getVersion() != null) {
+            message.setVersion(product.getVersion());
+        }
+        return message.build();
+    }
+
+    public static com.psouza.online.sales.domain.Product toProduct(Product message) {
+        return com.psouza.online.sales.domain.Product.builder()
+                .id(message.getId())
+                .code(message.getCode())
+                .name(message.getName())
+                .description(message.getDescription())
+                .value(message.hasValue() ? toBigDecimal(message.getValue()) : null)
+                .updatedAt(message.hasUpdatedAt()
+                        ? Instant.ofEpochSecond(message.getUpdatedAt().getSeconds(), message.getUpdatedAt().getNanos())
+                        : null)
+                .version(message.getVersion())
+                .build();
+    }
+
+    public static Decimal toDecimal(BigDecimal value) {
+        return Decimal.newBuilder()
+                .setUnscaledValue(ByteString.copyFrom(value.unscaledValue().toByteArray()))
+                .setScale(value.scale())
+                .build();
+    }
+
+    public static BigDecimal toBigDecimal(Decimal decimal) {
+        return new BigDecimal(new BigInteger(decimal.getUnscaledValue().toByteArray()), decimal.getScale());
+    }
+}
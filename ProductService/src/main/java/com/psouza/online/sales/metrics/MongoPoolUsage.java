@@ -0,0 +1,43 @@
+package com.psouza.online.sales.metrics;
+
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts the connections opened and closed by the MongoDB pools of every client the service opens,
+ * the closed ones by reason, so the connection churn of pool resizes shows up next to the driver's
+ * pool gauges.
+ */
+public class MongoPoolUsage implements ConnectionPoolListener {
+
+    public static final String OPENED = "mongodb.driver.pool.opened";
+    public static final String CLOSED = "mongodb.driver.pool.closed";
+
+    private final MeterRegistry meterRegistry;
+    private final Counter opened;
+
+    public MongoPoolUsage(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.opened = Counter.builder(OPENED)
+                .description("Connections opened by the pool")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        opened.increment();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        Counter.builder(CLOSED)
+                .description("Connections closed by the pool")
+                .tag("reason", event.getReason().name().toLowerCase().replace('_', '-'))
+                .register(meterRegistry)
+                .increment();
+    }
+}
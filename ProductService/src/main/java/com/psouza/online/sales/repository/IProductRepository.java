@@ -1,14 +1,25 @@
 package com.psouza.online.sales.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import com.psouza.online.sales.domain.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 
 @Repository
-public interface IProductRepository extends MongoRepository<Product, String>{
+public interface IProductRepository extends MongoRepository<Product, String>, IProductRepositoryCustom {
 
     Optional<Product> findByCode(String code);
+
+    List<Product> findByCodeIn(Collection<String> codes);
+
+    /**
+     * Reads a page with limit size + 1 and no count, telling only whether a next page exists.
+     */
+    Slice<Product> findAllBy(Pageable pageable);
 }
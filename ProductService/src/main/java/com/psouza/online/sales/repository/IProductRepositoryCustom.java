@@ -0,0 +1,135 @@
+package com.psouza.online.sales.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.domain.ProductFilter;
+import com.psouza.online.sales.domain.ProductSearchHit;
+import org.bson.Document;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Product queries that derived repository methods cannot express. Keeping them behind the repository
+ * lets the use cases run against any {@link IProductRepository}, not only the MongoDB one.
+ */
+public interface IProductRepositoryCustom {
+
+    /**
+     * Reads the products whose id or code sorts after the given value, in ascending order.
+     *
+     * @param field     the sort key, either "id" or "code"
+     * @param lastValue the last key of the previous page, or null for the first page
+     * @param limit     maximum number of products to read
+     * @param fields    the properties to read, or null for the whole document
+     * @return the products in key order
+     */
+    List<Product> findAfter(String field, String lastValue, int limit, Set<String> fields);
+
+    /**
+     * Reads a page of products with limit size + 1 and no count, only with the given properties.
+     *
+     * @param pageable the page to read
+     * @param fields   the properties to read, or null for the whole document
+     * @return the products of the page and whether there is a next one
+     */
+    Slice<Product> findSlice(Pageable pageable, Set<String> fields);
+
+    /**
+     * Reads a single product by its id or code, only with the given properties.
+     *
+     * @param field  the key, either "id" or "code"
+     * @param value  the value of the key
+     * @param fields the properties to read
+     * @return the partially read product, empty when it does not exist
+     */
+    Optional<Product> findProjected(String field, String value, Set<String> fields);
+
+    /**
+     * Reads a page of the products matching the filter with limit size + 1 and no count. The id is
+     * appended to the sort so that pages do not overlap on equal values.
+     *
+     * @param filter   the value range and name prefix to match
+     * @param pageable the page to read, sorted by value, name, code or updatedAt
+     * @param fields   the properties to read, or null for the whole document
+     * @return the products of the page and whether there is a next one
+     */
+    Slice<Product> findFiltered(ProductFilter filter, Pageable pageable, Set<String> fields);
+
+    /**
+     * Number of products matching the filter, counted over the index that serves it.
+     */
+    long countFiltered(ProductFilter filter);
+
+    /**
+     * Explains the query {@link #findFiltered} runs for the filter and the page, without running it.
+     *
+     * @param filter   the value range and name prefix to match
+     * @param pageable the page the query would read
+     * @return the queryPlanner section of the explain output
+     */
+    Document explainFiltered(ProductFilter filter, Pageable pageable);
+
+    /**
+     * Full-text search over the name and description text index, ordered by relevance.
+     *
+     * @param text   the terms to search for
+     * @param offset number of hits to skip
+     * @param limit  maximum number of hits to read
+     * @return the code, name, value and score of the matching products
+     */
+    List<ProductSearchHit> searchText(String text, long offset, int limit);
+
+    /**
+     * Number of products from the collection metadata, without scanning the collection. It may be off
+     * by writes still in flight or after an unclean shutdown.
+     */
+    long estimatedCount();
+
+    Optional<Product> findVersionById(String id);
+
+    Optional<Product> findVersionByCode(String code);
+
+    /**
+     * Atomically sets the name, description and value of the product with the same code and
+     * increments its version.
+     *
+     * @param product         the product with the new values
+     * @param expectedId      the id the product must have, or null for any
+     * @param expectedVersion the version the product must have, or null for any
+     * @return the product as stored after the update, or null when no product matched
+     */
+    Product updateByCode(Product product, String expectedId, Long expectedVersion);
+
+    /**
+     * Deletes the product with the id in a single findAndRemove, returning its code so the caller
+     * can evict it from the caches keyed by code.
+     *
+     * @param id the id of the product
+     * @return the deleted product, holding only its id and code, empty when none had the id
+     */
+    Optional<Product> deleteAndGetCodeById(String id);
+
+    /**
+     * Inserts the products in a single unordered bulk write, so one failing document does not stop
+     * the others.
+     *
+     * @param products the products to insert, with their ids already assigned
+     * @return the write errors, indexed by position in the given list
+     */
+    List<BulkWriteError> insertUnordered(List<Product> products);
+
+    /**
+     * Streams the products changed after the given instant. The stream holds a database cursor and
+     * must be closed.
+     *
+     * @param updatedAfter the lower bound of the last change, or null for every product
+     * @return the products in natural order
+     */
+    Stream<Product> streamUpdatedAfter(Instant updatedAfter);
+}
@@ -0,0 +1,255 @@
+package com.psouza.online.sales.repository;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.ExplainVerbosity;
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.domain.ProductFilter;
+import com.psouza.online.sales.domain.ProductSearchHit;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+
+class IProductRepositoryCustomImpl implements IProductRepositoryCustom {
+
+    private static final int CURSOR_BATCH_SIZE = 1000;
+    private static final String REGEX_METACHARACTERS = "[\\\\^$.|?*+()\\[\\]{}]";
+
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    IProductRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Product> findAfter(String field, String lastValue, int limit, Set<String> fields) {
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, field))
+                .limit(limit);
+        if (lastValue != null) {
+            query.addCriteria(Criteria.where(field).gt(lastValue));
+        }
+        include(query, fields);
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    @Override
+    public Slice<Product> findSlice(Pageable pageable, Set<String> fields) {
+        Query query = new Query().with(pageable);
+        if (pageable.isPaged()) {
+            query.limit(pageable.getPageSize() + 1);
+        }
+        include(query, fields);
+
+        List<Product> products = mongoTemplate.find(query, Product.class);
+        boolean hasNext = pageable.isPaged() && products.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? products.subList(0, pageable.getPageSize()) : products, pageable, hasNext);
+    }
+
+    @Override
+    public Optional<Product> findProjected(String field, String value, Set<String> fields) {
+        Query query = Query.query(Criteria.where(field).is(value));
+        include(query, fields);
+        return Optional.ofNullable(mongoTemplate.findOne(query, Product.class));
+    }
+
+    @Override
+    public Slice<Product> findFiltered(ProductFilter filter, Pageable pageable, Set<String> fields) {
+        Query query = filteredQuery(filter, pageable);
+        include(query, fields);
+
+        List<Product> products = mongoTemplate.find(query, Product.class);
+        boolean hasNext = pageable.isPaged() && products.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? products.subList(0, pageable.getPageSize()) : products, pageable, hasNext);
+    }
+
+    @Override
+    public long countFiltered(ProductFilter filter) {
+        return mongoTemplate.count(Query.query(filterCriteria(filter)), Product.class);
+    }
+
+    @Override
+    public Document explainFiltered(ProductFilter filter, Pageable pageable) {
+        Query query = filteredQuery(filter, pageable);
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Product.class);
+        QueryMapper mapper = new QueryMapper(mongoTemplate.getConverter());
+        Document mappedQuery = mapper.getMappedObject(query.getQueryObject(), entity);
+        Document mappedSort = mapper.getMappedSort(query.getSortObject(), entity);
+
+        Document explain = mongoTemplate.execute(Product.class, collection -> collection.find(mappedQuery)
+                .sort(mappedSort)
+                .skip((int) query.getSkip())
+                .limit(query.getLimit())
+                .explain(ExplainVerbosity.QUERY_PLANNER));
+        return explain.get("queryPlanner", Document.class);
+    }
+
+    /**
+     * The filter with the sort of the page plus the id, limited to size + 1.
+     */
+    static Query filteredQuery(ProductFilter filter, Pageable pageable) {
+        Sort sort = pageable.getSort().getOrderFor("id") == null ? pageable.getSort().and(Sort.by("id")) : pageable.getSort();
+        Query query = Query.query(filterCriteria(filter));
+        if (pageable.isPaged()) {
+            query.with(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)).limit(pageable.getPageSize() + 1);
+        } else {
+            query.with(sort);
+        }
+        return query;
+    }
+
+    /**
+     * The value bounds and an anchored, case sensitive name regex, both of which MongoDB turns into
+     * index bounds: value_id serves value ranges and name_value serves name prefixes with or without
+     * a range. The bounds are given as Decimal128, the type the value field is stored as: the query
+     * mapper only applies the field's target type to a lone operator, and writes the BigDecimals of a
+     * $gte/$lte pair as strings, which never match a number.
+     */
+    static Criteria filterCriteria(ProductFilter filter) {
+        Criteria criteria = new Criteria();
+        if (filter.getMinValue() != null || filter.getMaxValue() != null) {
+            Criteria value = criteria.and("value");
+            if (filter.getMinValue() != null) {
+                value.gte(new Decimal128(filter.getMinValue()));
+            }
+            if (filter.getMaxValue() != null) {
+                value.lte(new Decimal128(filter.getMaxValue()));
+            }
+        }
+        if (filter.getNamePrefix() != null && !filter.getNamePrefix().isEmpty()) {
+            criteria.and("name").regex("^" + filter.getNamePrefix().replaceAll(REGEX_METACHARACTERS, "\\\\$0"));
+        }
+        return criteria;
+    }
+
+    static void include(Query query, Set<String> fields) {
+        if (fields != null) {
+            query.fields().include(fields.toArray(String[]::new));
+        }
+    }
+
+    @Override
+    public List<ProductSearchHit> searchText(String text, long offset, int limit) {
+        return mongoTemplate.query(Product.class)
+                .as(ProductSearchHit.class)
+                .matching(textQuery(text, offset, limit))
+                .all();
+    }
+
+    /**
+     * The terms matched against the text index, ordered by relevance, reading only the fields of a
+     * results list.
+     */
+    static Query textQuery(String text, long offset, int limit) {
+        TextQuery query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore()
+                .includeScore("score");
+        query.fields().include("code", "name", "value");
+        query.skip(offset).limit(limit);
+        return query;
+    }
+
+    @Override
+    public long estimatedCount() {
+        return mongoTemplate.estimatedCount(Product.class);
+    }
+
+    @Override
+    public Optional<Product> findVersionById(String id) {
+        return findVersion(Criteria.where("id").is(id));
+    }
+
+    @Override
+    public Optional<Product> findVersionByCode(String code) {
+        return findVersion(Criteria.where("code").is(code));
+    }
+
+    private Optional<Product> findVersion(Criteria criteria) {
+        Query query = Query.query(criteria);
+        query.fields().include("version");
+        return Optional.ofNullable(mongoTemplate.findOne(query, Product.class));
+    }
+
+    @Override
+    public Optional<Product> deleteAndGetCodeById(String id) {
+        Query query = Query.query(Criteria.where("id").is(id));
+        query.fields().include("code");
+        return Optional.ofNullable(mongoTemplate.findAndRemove(query, Product.class));
+    }
+
+    @Override
+    public Product updateByCode(Product product, String expectedId, Long expectedVersion) {
+        return mongoTemplate.findAndModify(updateQuery(product, expectedId, expectedVersion), update(product),
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+    }
+
+    /**
+     * The product with the code, and with the expected id and version when they are given. A
+     * document written before versioning has no version and matches version 0.
+     */
+    static Query updateQuery(Product product, String expectedId, Long expectedVersion) {
+        Criteria criteria = Criteria.where("code").is(product.getCode());
+        if (expectedId != null) {
+            criteria.and("id").is(expectedId);
+        }
+        if (expectedVersion != null) {
+            criteria.and("version").in(expectedVersion == 0 ? Arrays.asList(0L, null) : List.of(expectedVersion));
+        }
+        return Query.query(criteria);
+    }
+
+    static Update update(Product product) {
+        return new Update()
+                .set("name", product.getName())
+                .set("description", product.getDescription())
+                .set("value", product.getValue())
+                .set("updatedAt", Instant.now())
+                .inc("version", 1);
+    }
+
+    @Override
+    public List<BulkWriteError> insertUnordered(List<Product> products) {
+        BulkOperations operations = mongoTemplate.bulkOps(BulkMode.UNORDERED, Product.class);
+        operations.insert(products);
+        try {
+            operations.execute();
+            return Collections.emptyList();
+        } catch (BulkOperationException ex) {
+            return ex.getErrors();
+        }
+    }
+
+    @Override
+    public Stream<Product> streamUpdatedAfter(Instant updatedAfter) {
+        Query query = new Query().cursorBatchSize(CURSOR_BATCH_SIZE);
+        if (updatedAfter != null) {
+            query.addCriteria(Criteria.where("updatedAt").gt(updatedAfter));
+        }
+        return mongoTemplate.stream(query, Product.class);
+    }
+}
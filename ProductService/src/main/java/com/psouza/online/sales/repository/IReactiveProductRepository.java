@@ -0,0 +1,22 @@
+package com.psouza.online.sales.repository;
+
+import java.util.Collection;
+
+import com.psouza.online.sales.domain.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+@Repository
+public interface IReactiveProductRepository extends ReactiveMongoRepository<Product, String>, IReactiveProductRepositoryCustom {
+
+    Mono<Product> findByCode(String code);
+
+    Flux<Product> findByCodeIn(Collection<String> codes);
+
+    Flux<Product> findAllBy(Pageable pageable);
+}
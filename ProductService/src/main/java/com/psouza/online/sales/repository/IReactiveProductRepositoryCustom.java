@@ -0,0 +1,69 @@
+package com.psouza.online.sales.repository;
+
+import java.time.Instant;
+import java.util.Set;
+
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.domain.ProductFilter;
+import com.psouza.online.sales.domain.ProductSearchHit;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link IProductRepositoryCustom} for the reactive profile.
+ */
+public interface IReactiveProductRepositoryCustom {
+
+    /**
+     * @param fields the properties to read, or null for the whole document
+     */
+    Flux<Product> findAfter(String field, String lastValue, int limit, Set<String> fields);
+
+    /**
+     * Reads the products of a page plus the first one of the next page, with no count, so the caller
+     * can tell whether a next page exists.
+     *
+     * @param pageable the page to read
+     * @param fields   the properties to read, or null for the whole document
+     * @return up to the page size + 1 products
+     */
+    Flux<Product> findSlice(Pageable pageable, Set<String> fields);
+
+    Mono<Product> findProjected(String field, String value, Set<String> fields);
+
+    /**
+     * Reads the products of a page of the filter plus the first one of the next page, with the same
+     * query as {@link IProductRepositoryCustom#findFiltered}.
+     */
+    Flux<Product> findFiltered(ProductFilter filter, Pageable pageable, Set<String> fields);
+
+    Mono<Long> countFiltered(ProductFilter filter);
+
+    Flux<ProductSearchHit> searchText(String text, long offset, int limit);
+
+    /**
+     * Number of products from the collection metadata, without scanning the collection.
+     */
+    Mono<Long> estimatedCount();
+
+    /**
+     * Atomically sets the name, description and value of the product with the same code and
+     * increments its version, only when the id and the version are the expected ones if given.
+     *
+     * @param product         the product with the new values
+     * @param expectedId      the id the caller last read, or null to update unconditionally
+     * @param expectedVersion the version the caller last read, or null to update unconditionally
+     * @return the product as stored after the update, empty when no product matched
+     */
+    Mono<Product> updateByCode(Product product, String expectedId, Long expectedVersion);
+
+    /**
+     * Streams the products changed after the given instant. Documents are requested from the cursor
+     * only as fast as the subscriber consumes them.
+     *
+     * @param updatedAfter the lower bound of the last change, or null for every product
+     * @return the products in natural order
+     */
+    Flux<Product> streamUpdatedAfter(Instant updatedAfter);
+}
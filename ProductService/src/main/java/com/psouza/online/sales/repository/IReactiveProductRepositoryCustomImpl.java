@@ -0,0 +1,98 @@
+package com.psouza.online.sales.repository;
+
+import java.time.Instant;
+import java.util.Set;
+
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.domain.ProductFilter;
+import com.psouza.online.sales.domain.ProductSearchHit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class IReactiveProductRepositoryCustomImpl implements IReactiveProductRepositoryCustom {
+
+    private static final int CURSOR_BATCH_SIZE = 1000;
+
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    IReactiveProductRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<Product> findAfter(String field, String lastValue, int limit, Set<String> fields) {
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, field))
+                .limit(limit);
+        if (lastValue != null) {
+            query.addCriteria(Criteria.where(field).gt(lastValue));
+        }
+        IProductRepositoryCustomImpl.include(query, fields);
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    @Override
+    public Flux<Product> findSlice(Pageable pageable, Set<String> fields) {
+        Query query = new Query().with(pageable);
+        if (pageable.isPaged()) {
+            query.limit(pageable.getPageSize() + 1);
+        }
+        IProductRepositoryCustomImpl.include(query, fields);
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    @Override
+    public Mono<Product> findProjected(String field, String value, Set<String> fields) {
+        Query query = Query.query(Criteria.where(field).is(value));
+        IProductRepositoryCustomImpl.include(query, fields);
+        return mongoTemplate.findOne(query, Product.class);
+    }
+
+    @Override
+    public Flux<Product> findFiltered(ProductFilter filter, Pageable pageable, Set<String> fields) {
+        Query query = IProductRepositoryCustomImpl.filteredQuery(filter, pageable);
+        IProductRepositoryCustomImpl.include(query, fields);
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    @Override
+    public Mono<Long> countFiltered(ProductFilter filter) {
+        return mongoTemplate.count(Query.query(IProductRepositoryCustomImpl.filterCriteria(filter)), Product.class);
+    }
+
+    @Override
+    public Flux<ProductSearchHit> searchText(String text, long offset, int limit) {
+        return mongoTemplate.query(Product.class)
+                .as(ProductSearchHit.class)
+                .matching(IProductRepositoryCustomImpl.textQuery(text, offset, limit))
+                .all();
+    }
+
+    @Override
+    public Mono<Long> estimatedCount() {
+        return mongoTemplate.estimatedCount(Product.class);
+    }
+
+    @Override
+    public Mono<Product> updateByCode(Product product, String expectedId, Long expectedVersion) {
+        return mongoTemplate.findAndModify(IProductRepositoryCustomImpl.updateQuery(product, expectedId, expectedVersion),
+                IProductRepositoryCustomImpl.update(product), FindAndModifyOptions.options().returnNew(true), Product.class);
+    }
+
+    @Override
+    public Flux<Product> streamUpdatedAfter(Instant updatedAfter) {
+        Query query = new Query().cursorBatchSize(CURSOR_BATCH_SIZE);
+        if (updatedAfter != null) {
+            query.addCriteria(Criteria.where("updatedAt").gt(updatedAfter));
+        }
+        return mongoTemplate.find(query, Product.class);
+    }
+}
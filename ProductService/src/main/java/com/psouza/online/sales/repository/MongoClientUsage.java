@@ -0,0 +1,165 @@
+package com.psouza.online.sales.repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import com.mongodb.event.ConnectionReadyEvent;
+
+/**
+ * Follows the use of one MongoDB client: the connections checked out of its pool and the cursors
+ * it keeps open on the server. The adaptive pool sizing reads the {@link #snapshot()}s of the
+ * client in use, and a client replaced by a resize is only closed once it is {@link #isIdle()}.
+ */
+class MongoClientUsage implements ConnectionPoolListener, CommandListener {
+
+    /**
+     * MongoDB closes a cursor after this long without a getMore, its default cursorTimeoutMillis, so
+     * a cursor the application abandoned stops counting after that.
+     */
+    private static final long CURSOR_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger peakInUse = new AtomicInteger();
+    private final AtomicInteger ready = new AtomicInteger();
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Last use of each open cursor, by cursor id.
+     */
+    private final Map<Long, Long> cursors = new ConcurrentHashMap<>();
+    /**
+     * Cursor of each getMore running, by request id.
+     */
+    private final Map<Integer, Long> getMores = new ConcurrentHashMap<>();
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        peakInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+        checkouts.increment();
+        waitNanos.add(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        inUse.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        if (event.getReason() == ConnectionCheckOutFailedEvent.Reason.TIMEOUT) {
+            timeouts.increment();
+        }
+    }
+
+    @Override
+    public void connectionReady(ConnectionReadyEvent event) {
+        ready.incrementAndGet();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        switch (event.getCommandName()) {
+            case "getMore" -> getMores.put(event.getRequestId(), command.getNumber("getMore").longValue());
+            case "killCursors" -> {
+                for (BsonValue id : command.getArray("cursors")) {
+                    cursors.remove(id.asNumber().longValue());
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Long getMore = getMores.remove(event.getRequestId());
+        BsonDocument cursor = event.getResponse().getDocument("cursor", null);
+        long id = cursor == null || !cursor.isNumber("id") ? 0 : cursor.getNumber("id").longValue();
+        if (id != 0) {
+            cursors.put(id, System.nanoTime());
+        } else if (getMore != null) {
+            cursors.remove(getMore);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Long getMore = getMores.remove(event.getRequestId());
+        if (getMore != null) {
+            cursors.remove(getMore);
+        }
+    }
+
+    /**
+     * @return the connections this client opened and made ready so far
+     */
+    int getReady() {
+        return ready.get();
+    }
+
+    int getInUse() {
+        return Math.max(0, inUse.get());
+    }
+
+    /**
+     * @return whether no operation holds a connection and no cursor is open on the server
+     */
+    boolean isIdle() {
+        long now = System.nanoTime();
+        cursors.values().removeIf(lastUse -> now - lastUse > CURSOR_TIMEOUT_NANOS);
+        return inUse.get() <= 0 && cursors.isEmpty();
+    }
+
+    /**
+     * @return the usage since the previous snapshot, whose peak starts again from the connections
+     * in use now
+     */
+    Snapshot snapshot() {
+        int current = inUse.get();
+        return new Snapshot(peakInUse.getAndSet(current), checkouts.sumThenReset(), waitNanos.sumThenReset(),
+                timeouts.sumThenReset());
+    }
+
+    static class Snapshot {
+        private final int peakInUse;
+        private final long checkouts;
+        private final long waitNanos;
+        private final long timeouts;
+
+        Snapshot(int peakInUse, long checkouts, long waitNanos, long timeouts) {
+            this.peakInUse = peakInUse;
+            this.checkouts = checkouts;
+            this.waitNanos = waitNanos;
+            this.timeouts = timeouts;
+        }
+
+        int getPeakInUse() {
+            return peakInUse;
+        }
+
+        long getTimeouts() {
+            return timeouts;
+        }
+
+        long getMeanWaitNanos() {
+            return checkouts == 0 ? 0 : waitNanos / checkouts;
+        }
+    }
+}
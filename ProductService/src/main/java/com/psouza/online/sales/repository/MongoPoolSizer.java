@@ -0,0 +1,118 @@
+package com.psouza.online.sales.repository;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.psouza.online.sales.config.MongoPoolProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the MongoDB pool in line with product.mongodb.pool.
+ * <p>
+ * A refresh of the configuration resizes the pool when its settings changed. In the adaptive mode
+ * the maximum size also follows the usage of the pool: it grows when checkouts time out, or when
+ * every connection was in use and checkouts waited longer than the threshold on average. Once the
+ * peak in use stayed below the shrink utilization for shrink-after intervals in a row, it shrinks
+ * so that this peak fills that share of the pool. Each resize replaces the client, so the pool is
+ * evaluated seldom and only resized when operations queue or connections sit unused; the usage is
+ * read from the client in use only, so the operations still finishing on a replaced client do not
+ * make the new pool look saturated.
+ * <p>
+ * The pool is evaluated every adaptive.interval, read at startup, on a thread of its own rather
+ * than on the scheduler shared by the other periodic tasks of the service.
+ */
+@Slf4j
+@Component
+public class MongoPoolSizer implements InitializingBean, DisposableBean {
+
+    private final ResizableMongoDatabaseFactory databaseFactory;
+    private final MongoPoolProperties properties;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mongo-pool-sizer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private int quietIntervals;
+    private int quietPeak;
+
+    @Autowired
+    public MongoPoolSizer(ResizableMongoDatabaseFactory databaseFactory, MongoPoolProperties properties) {
+        this.databaseFactory = databaseFactory;
+        this.properties = properties;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long interval = properties.getAdaptive().getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                adapt();
+            } catch (RuntimeException ex) {
+                // A failed evaluation must not cancel the next ones
+                log.warn("Could not adapt the MongoDB pool", ex);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    void adapt() {
+        // Only the client in use, a replaced one still finishing its operations is not counted
+        MongoClientUsage.Snapshot snapshot = databaseFactory.usageSnapshot();
+        MongoPoolProperties.Adaptive adaptive = properties.getAdaptive();
+        if (!adaptive.isEnabled()) {
+            return;
+        }
+
+        int maxSize = databaseFactory.getPoolSettings().getMaxSize();
+        int peak = snapshot.getPeakInUse();
+        boolean saturated = snapshot.getTimeouts() > 0
+                || (peak >= maxSize && snapshot.getMeanWaitNanos() > adaptive.getWaitThreshold().toNanos());
+        int target = maxSize;
+        if (saturated) {
+            target = (int) Math.ceil(maxSize * adaptive.getGrowFactor());
+            quietIntervals = 0;
+            quietPeak = 0;
+        } else if (peak < maxSize * adaptive.getShrinkUtilization()) {
+            quietPeak = Math.max(quietPeak, peak);
+            if (++quietIntervals >= adaptive.getShrinkAfter()) {
+                target = (int) Math.ceil(quietPeak / adaptive.getShrinkUtilization());
+                quietIntervals = 0;
+                quietPeak = 0;
+            }
+        } else {
+            quietIntervals = 0;
+            quietPeak = 0;
+        }
+        databaseFactory.resize(properties.toPoolSettings(bounded(target)));
+    }
+
+    /**
+     * Runs once the refreshed configuration was bound to the properties.
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void refreshed() {
+        int maxSize = properties.getAdaptive().isEnabled()
+                ? bounded(databaseFactory.getPoolSettings().getMaxSize())
+                : properties.getMaxSize();
+        databaseFactory.resize(properties.toPoolSettings(maxSize));
+    }
+
+    private int bounded(int maxSize) {
+        MongoPoolProperties.Adaptive adaptive = properties.getAdaptive();
+        return Math.max(adaptive.getLowestMaxSize(), Math.min(adaptive.getHighestMaxSize(), maxSize));
+    }
+}
@@ -0,0 +1,16 @@
+package com.psouza.online.sales.repository;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ProductQueryPlan {
+    private String filter;
+    private String sort;
+    private List<String> stages;
+    private List<String> indexes;
+    private boolean collectionScan;
+}
@@ -0,0 +1,84 @@
+package com.psouza.online.sales.repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.psouza.online.sales.domain.ProductFilter;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * Explains the filtered product query for every supported combination of filters and sorts at
+ * /actuator/productqueryplans, telling whether MongoDB would scan the collection for any of them.
+ * Run it after changing the indexes or the filter, against a database with the indexes created.
+ */
+@Component
+@Endpoint(id = "productqueryplans")
+public class ProductQueryPlanEndpoint {
+
+    static final List<Map.Entry<String, ProductFilter>> FILTERS = List.of(
+            Map.entry("value range", new ProductFilter(new BigDecimal("100.00"), new BigDecimal("500.00"), null)),
+            Map.entry("min value", new ProductFilter(new BigDecimal("100.00"), null, null)),
+            Map.entry("max value", new ProductFilter(null, new BigDecimal("500.00"), null)),
+            Map.entry("name prefix", new ProductFilter(null, null, "Apple")),
+            Map.entry("name prefix and value range", new ProductFilter(new BigDecimal("100.00"), new BigDecimal("500.00"), "Apple")));
+
+    static final List<Sort> SORTS = List.of(
+            Sort.unsorted(),
+            Sort.by("value"),
+            Sort.by(Sort.Direction.DESC, "value"),
+            Sort.by("name"),
+            Sort.by("code"),
+            Sort.by("updatedAt"));
+
+    private final IProductRepository productRepository;
+
+    @Autowired
+    public ProductQueryPlanEndpoint(IProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @ReadOperation
+    public List<ProductQueryPlan> plans() {
+        List<ProductQueryPlan> plans = new ArrayList<>();
+        for (Map.Entry<String, ProductFilter> filter : FILTERS) {
+            for (Sort sort : SORTS) {
+                Document queryPlanner = productRepository.explainFiltered(filter.getValue(), PageRequest.of(0, 20, sort));
+                List<String> stages = new ArrayList<>();
+                List<String> indexes = new ArrayList<>();
+                collect(queryPlanner.get("winningPlan", Document.class), stages, indexes);
+                plans.add(new ProductQueryPlan(filter.getKey(), sort.toString(), stages, indexes, stages.contains("COLLSCAN")));
+            }
+        }
+        return plans;
+    }
+
+    /**
+     * Walks the plan tree from the root stage down. Servers running the slot based engine nest the
+     * classic plan under queryPlan.
+     */
+    static void collect(Document plan, List<String> stages, List<String> indexes) {
+        if (plan == null) {
+            return;
+        }
+        if (plan.containsKey("queryPlan")) {
+            collect(plan.get("queryPlan", Document.class), stages, indexes);
+            return;
+        }
+        stages.add(plan.getString("stage"));
+        if (plan.containsKey("indexName")) {
+            indexes.add(plan.getString("indexName"));
+        }
+        collect(plan.get("inputStage", Document.class), stages, indexes);
+        for (Document input : plan.getList("inputStages", Document.class, List.of())) {
+            collect(input, stages, indexes);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.psouza.online.sales.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.client.result.UpdateResult;
+import com.psouza.online.sales.domain.Product;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Converts the product values stored as strings, as they were written before the value became a
+ * Decimal128, into Decimal128.
+ * <p>
+ * The value range filter and the value sort compare numbers, so a product whose value is still a
+ * string is never matched by a range and sorts apart from the others. The conversion runs once the
+ * service is ready, as a single updateMany whose pipeline converts the field in place, and selects
+ * the strings by type over the value_id index, so once every value is converted it reads nothing.
+ * A string that is not a number is kept as it is and reported.
+ */
+@Slf4j
+@Component
+public class ProductValueMigration {
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    @Autowired
+    public ProductValueMigration(MongoTemplate mongoTemplate,
+                                 @Value("${product.migration.string-values:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ready() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long converted = convertStringValues();
+            if (converted > 0) {
+                log.info("Converted the string value of {} products to Decimal128", converted);
+            }
+            long remaining = mongoTemplate.count(stringValues(), Product.class);
+            if (remaining > 0) {
+                log.warn("{} products keep a string value that is not a number and are left out of value filters", remaining);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Could not convert the string product values to Decimal128", ex);
+        }
+    }
+
+    /**
+     * @return the number of products whose value was converted
+     */
+    long convertStringValues() {
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("value").toValue(ConvertOperators.Convert.convertValueOf("value")
+                        .to("decimal")
+                        .onErrorReturnValueOf("value"));
+        UpdateResult result = mongoTemplate.updateMulti(stringValues(), update, Product.class);
+        return result.getModifiedCount();
+    }
+
+    static Query stringValues() {
+        return Query.query(Criteria.where("value").type(JsonSchemaObject.Type.STRING));
+    }
+}
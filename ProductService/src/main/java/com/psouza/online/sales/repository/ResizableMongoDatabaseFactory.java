@@ -0,0 +1,274 @@
+package com.psouza.online.sales.repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.mongo.MongoClientFactory;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.connection.ConnectionPoolSettings;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * MongoDatabaseFactory whose connection pool can be resized while the service runs.
+ * <p>
+ * The driver fixes the pool settings when a client is built, so a resize builds a new client from
+ * the same settings and customizers, as Spring Boot would, and switches the factory to it. The new
+ * client first opens as many connections as the previous one has in use, so the load that asked
+ * for the resize does not wait on a cold pool. Operations and cursors already running keep the
+ * database they obtained from the previous client, which is closed once the retire delay passed
+ * and none of them uses it anymore.
+ * <p>
+ * A resize only starts the new client and returns: the warm-up is polled on the factory's own
+ * scheduler, which switches to the new client once it is warm or the warm-up timeout passed. The
+ * caller, e.g. the refresh of the configuration, never waits for connections to open.
+ */
+@Slf4j
+public class ResizableMongoDatabaseFactory implements MongoDatabaseFactory, DisposableBean {
+
+    private static final long RETIRE_CHECK_MILLIS = 1000;
+    private static final long WARM_UP_POLL_MILLIS = 100;
+
+    private final MongoClientSettings settings;
+    private final List<MongoClientSettingsBuilderCustomizer> customizers;
+    private final String databaseName;
+    private final Supplier<Duration> retireDelay;
+    private final Supplier<Duration> warmUpTimeout;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mongo-client-resizer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Queue<Current> retiring = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Current current;
+    /** The client warming up to replace the current one, guarded by the lock. */
+    private Current pending;
+
+    /**
+     * @param pool         the pool settings of the first client, without listeners
+     * @param settings     the settings of the clients
+     * @param customizers  the customizers of the clients, the pool settings are applied after them
+     * @param databaseName the database of the service
+     * @param retireDelay    how long a replaced client is kept open at least
+     * @param warmUpTimeout  how long a resize waits for the new client to open its connections
+     */
+    public ResizableMongoDatabaseFactory(ConnectionPoolSettings pool, MongoClientSettings settings,
+                                         List<MongoClientSettingsBuilderCustomizer> customizers, String databaseName,
+                                         Supplier<Duration> retireDelay, Supplier<Duration> warmUpTimeout) {
+        this.settings = settings;
+        this.customizers = customizers;
+        this.databaseName = databaseName;
+        this.retireDelay = retireDelay;
+        this.warmUpTimeout = warmUpTimeout;
+        this.current = new Current(pool, 0);
+    }
+
+    /**
+     * @return the pool settings of the client in use, without listeners
+     */
+    public ConnectionPoolSettings getPoolSettings() {
+        return current.pool;
+    }
+
+    /**
+     * @return the usage of the client in use since the previous snapshot
+     */
+    MongoClientUsage.Snapshot usageSnapshot() {
+        return current.usage.snapshot();
+    }
+
+    /**
+     * Starts a client built with the given pool settings, unless the client in use or the one
+     * warming up already has them, and switches to it in the background. The new client is warmed up
+     * with as many connections as the previous one has in use, which it keeps as its minimum size. A
+     * client still warming up is dropped, either for the new one or because the client in use
+     * already has the settings asked for.
+     *
+     * @param pool the pool settings, without listeners
+     * @return whether the settings the factory is heading to changed
+     */
+    public boolean resize(ConnectionPoolSettings pool) {
+        Current superseded;
+        lock.lock();
+        try {
+            if ((pending != null ? pending : current).pool.equals(pool)) {
+                return false;
+            }
+            superseded = pending;
+            pending = null;
+
+            if (!current.pool.equals(pool)) {
+                int warmUp = Math.min(current.usage.getInUse(), pool.getMaxSize());
+                Current next = new Current(pool, warmUp);
+                pending = next;
+                long deadline = System.nanoTime() + warmUpTimeout.get().toNanos();
+                scheduler.execute(() -> switchWhenWarm(next, warmUp, deadline));
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (superseded != null) {
+            // Never handed out, so nothing runs on it
+            superseded.client.close();
+        }
+        return true;
+    }
+
+    /**
+     * Switches to the client once it opened its warm-up connections or the deadline passed, looking
+     * again every {@value #WARM_UP_POLL_MILLIS} ms until then.
+     */
+    private void switchWhenWarm(Current next, int warmUp, long deadline) {
+        boolean warm = next.usage.getReady() >= warmUp;
+        if (!warm && System.nanoTime() - deadline < 0) {
+            scheduler.schedule(() -> switchWhenWarm(next, warmUp, deadline), WARM_UP_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        Current previous;
+        lock.lock();
+        try {
+            if (pending != next) {
+                return;
+            }
+            pending = null;
+            previous = current;
+            current = next;
+        } finally {
+            lock.unlock();
+        }
+
+        if (!warm) {
+            log.warn("New MongoDB client opened {} of {} connections before switching to it",
+                    next.usage.getReady(), warmUp);
+        }
+        log.info("MongoDB pool resized from {} to {}", previous.pool, next.pool);
+        retiring.add(previous);
+        scheduler.schedule(() -> retire(previous), retireDelay.get().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Copies the sizes and timeouts of a pool, leaving the listeners the customizers added.
+     */
+    public static void apply(ConnectionPoolSettings.Builder builder, ConnectionPoolSettings pool) {
+        builder.minSize(pool.getMinSize())
+                .maxSize(pool.getMaxSize())
+                .maxWaitTime(pool.getMaxWaitTime(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS)
+                .maxConnectionIdleTime(pool.getMaxConnectionIdleTime(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS)
+                .maxConnecting(pool.getMaxConnecting());
+    }
+
+    @Override
+    public MongoDatabase getMongoDatabase() throws DataAccessException {
+        return current.factory.getMongoDatabase();
+    }
+
+    @Override
+    public MongoDatabase getMongoDatabase(String dbName) throws DataAccessException {
+        return current.factory.getMongoDatabase(dbName);
+    }
+
+    @Override
+    public PersistenceExceptionTranslator getExceptionTranslator() {
+        return current.factory.getExceptionTranslator();
+    }
+
+    @Override
+    public ClientSession getSession(ClientSessionOptions options) {
+        return current.factory.getSession(options);
+    }
+
+    /**
+     * The session belongs to the client that started it, so its operations stay on that client even
+     * after a resize.
+     */
+    @Override
+    public MongoDatabaseFactory withSession(ClientSession session) {
+        return current.factory.withSession(session);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        lock.lock();
+        try {
+            if (pending != null) {
+                pending.client.close();
+                pending = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        Current replaced;
+        while ((replaced = retiring.poll()) != null) {
+            replaced.client.close();
+        }
+        current.client.close();
+    }
+
+    /**
+     * Closes a replaced client once nothing uses it, looking again every second until then.
+     */
+    private void retire(Current replaced) {
+        if (!replaced.usage.isIdle()) {
+            scheduler.schedule(() -> retire(replaced), RETIRE_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+            return;
+        }
+        if (retiring.remove(replaced)) {
+            replaced.client.close();
+            log.info("Closed the MongoDB client replaced by a pool resize");
+        }
+    }
+
+    private class Current {
+        private final MongoClient client;
+        private final ConnectionPoolSettings pool;
+        private final MongoClientUsage usage = new MongoClientUsage();
+        private final SimpleMongoClientDatabaseFactory factory;
+
+        /**
+         * @param pool   the pool settings, without listeners
+         * @param warmUp connections to open right away, kept as the minimum size of the pool
+         */
+        Current(ConnectionPoolSettings pool, int warmUp) {
+            List<MongoClientSettingsBuilderCustomizer> withPool = new ArrayList<>(customizers);
+            withPool.add(builder -> builder
+                    .addCommandListener(usage)
+                    .applyToConnectionPoolSettings(poolBuilder -> {
+                        apply(poolBuilder, pool);
+                        poolBuilder.addConnectionPoolListener(usage);
+                        if (warmUp > pool.getMinSize()) {
+                            // The driver fills the pool up to its minimum size in its maintenance
+                            // task, which otherwise only runs every minute
+                            poolBuilder.minSize(warmUp)
+                                    .maintenanceFrequency(WARM_UP_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                        }
+                    }));
+            this.client = new MongoClientFactory(withPool).createMongoClient(settings);
+            this.pool = pool;
+            this.factory = new SimpleMongoClientDatabaseFactory(client, databaseName);
+        }
+    }
+}
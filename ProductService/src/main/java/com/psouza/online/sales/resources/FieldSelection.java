@@ -0,0 +1,82 @@
+package com.psouza.online.sales.resources;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.psouza.online.sales.config.JacksonConfig;
+import com.psouza.online.sales.exception.BadRequestException;
+
+/**
+ * Sparse fieldset asked for with the {@code fields} request parameter, e.g. {@code fields=name,code,value}.
+ * The names are checked against a whitelist of the entity, read from MongoDB as a projection and
+ * written by Jackson through the {@value JacksonConfig#FIELDS_FILTER} filter. The id is always
+ * written, and the version is always read so the entity tag can still be computed.
+ */
+class FieldSelection {
+
+    private static final FieldSelection ALL = new FieldSelection(null);
+
+    private final Set<String> names;
+
+    private FieldSelection(Set<String> names) {
+        this.names = names;
+    }
+
+    /**
+     * @param fields  comma separated property names, or null for the whole entity
+     * @param allowed the properties that can be selected
+     * @return the selection, every property when no field was asked for
+     */
+    static FieldSelection parse(String fields, List<String> allowed) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> names = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        for (String name : names) {
+            if (!allowed.contains(name)) {
+                throw new BadRequestException("fields accepts only " + String.join(", ", allowed));
+            }
+        }
+        names.add("id");
+        return new FieldSelection(names);
+    }
+
+    /**
+     * @return the properties to read, or null to read the whole document
+     */
+    Set<String> projection() {
+        if (names == null) {
+            return null;
+        }
+        Set<String> projection = new LinkedHashSet<>(names);
+        projection.add("version");
+        return projection;
+    }
+
+    /**
+     * @return the tag of the entity as written with this selection, weak when only some fields are
+     */
+    EntityTag entityTag(String id, Long version) {
+        EntityTag tag = EntityTag.of(id, version);
+        return names == null ? tag : tag.weak();
+    }
+
+    MappingJacksonValue apply(Object body) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (names != null) {
+            value.setFilters(new SimpleFilterProvider()
+                    .addFilter(JacksonConfig.FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(names)));
+        }
+        return value;
+    }
+}
@@ -1,59 +1,192 @@
 package com.psouza.online.sales.resources;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.psouza.online.sales.domain.BatchLookupRequest;
+import com.psouza.online.sales.domain.BatchLookupResult;
+import com.psouza.online.sales.domain.BulkRegistrationResult;
+import com.psouza.online.sales.domain.CursorPage;
 import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.domain.ProductFilter;
+import com.psouza.online.sales.domain.ProductSearchHit;
+import com.psouza.online.sales.usecase.ProductBulkRegistration;
+import com.psouza.online.sales.usecase.ProductExport;
 import com.psouza.online.sales.usecase.ProductRegistration;
 import com.psouza.online.sales.usecase.SearchProduct;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 
+@Validated
 @RestController
+@Profile("!reactive")
 @RequestMapping(value = "/product")
 @Tag(name = "Product", description = "Endpoints for managing products")
 public class ProductResource {
+    private static final String SMILE_VALUE = "application/x-jackson-smile";
+    private static final JsonFactory CBOR = new CBORFactory();
+    private static final JsonFactory SMILE = new SmileFactory();
+    private static final List<String> FIELDS = List.of("id", "code", "name", "description", "value", "updatedAt", "version");
+
     private final SearchProduct searchProduct;
     private final ProductRegistration productRegistration;
+    private final ProductBulkRegistration productBulkRegistration;
+    private final ProductExport productExport;
 
     @Autowired
-    public ProductResource(SearchProduct searchProduct, ProductRegistration productRegistration) {
+    public ProductResource(SearchProduct searchProduct, ProductRegistration productRegistration,
+                           ProductBulkRegistration productBulkRegistration, ProductExport productExport) {
         this.searchProduct = searchProduct;
         this.productRegistration = productRegistration;
+        this.productBulkRegistration = productBulkRegistration;
+        this.productExport = productExport;
     }
 
     @GetMapping
-    @Operation(summary = "Search products", description = "Retrieve a paginated list of products")
+    @Operation(summary = "Search products", description = "Retrieve a paginated list of products, optionally filtered by a value range and a name prefix. The total is counted exactly, estimated from the collection metadata or left out, in which case only whether a next page exists is returned. A filtered list is sorted by value, name, code or updatedAt and only counts an exact total")
     @ApiResponse(responseCode = "200", description = "Products found", content = @Content(schema = @Schema(implementation = Page.class)))
-    public ResponseEntity<Page<Product>> search(Pageable pageable) {
-        return ResponseEntity.ok(searchProduct.search(pageable));
+    @ApiResponse(responseCode = "400", description = "Invalid filter, sort, total mode or fields")
+    public ResponseEntity<MappingJacksonValue> search(
+            Pageable pageable,
+            @Parameter(description = "How to count the total: exact, estimated or none. Defaults to the service configuration", example = "estimated")
+            @RequestParam(value = "total", required = false) String total,
+            @Parameter(description = "Comma separated properties to return, the whole product when absent", example = "name,code,value")
+            @RequestParam(value = "fields", required = false) String fields,
+            @Parameter(description = "Lowest value in R$, inclusive", example = "100.00")
+            @RequestParam(value = "minValue", required = false) @DecimalMin("0.0") @Digits(integer = 10, fraction = 2) BigDecimal minValue,
+            @Parameter(description = "Highest value in R$, inclusive", example = "500.00")
+            @RequestParam(value = "maxValue", required = false) @DecimalMin("0.0") @Digits(integer = 10, fraction = 2) BigDecimal maxValue,
+            @Parameter(description = "Case sensitive start of the name", example = "Apple")
+            @RequestParam(value = "namePrefix", required = false) @Size(max = 50) String namePrefix) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        ProductFilter filter = new ProductFilter(minValue, maxValue, namePrefix);
+        Slice<Product> products = filter.isEmpty()
+                ? searchProduct.search(pageable, total, selection.projection())
+                : searchProduct.search(filter, pageable, total, selection.projection());
+        return ResponseEntity.ok(selection.apply(products));
+    }
+
+    @GetMapping(params = "cursor")
+    @Operation(summary = "Search products by cursor", description = "Retrieve products with keyset pagination. Send an empty cursor for the first page and the returned nextCursor for the following ones")
+    @ApiResponse(responseCode = "200", description = "Products found", content = @Content(schema = @Schema(implementation = CursorPage.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid cursor, sort key or fields")
+    public ResponseEntity<MappingJacksonValue> searchByCursor(
+            @Parameter(description = "Token of the next page, empty for the first page", required = true)
+            @RequestParam(value = "cursor") String cursor,
+            @Parameter(description = "Number of products per page", example = "20")
+            @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(1000) int size,
+            @Parameter(description = "Sort key of the listing, either id or code", example = "code")
+            @RequestParam(value = "sortBy", defaultValue = "id") String sortBy,
+            @Parameter(description = "Comma separated properties to return, the whole product when absent", example = "name,code,value")
+            @RequestParam(value = "fields", required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        return ResponseEntity.ok(selection.apply(searchProduct.search(cursor, size, sortBy, selection.projection())));
+    }
+
+    @GetMapping(value = "/search")
+    @Operation(summary = "Search products by text", description = "Full-text search over the name and description of the products, ordered by relevance")
+    @ApiResponse(responseCode = "200", description = "Products found", content = @Content(schema = @Schema(implementation = Slice.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid search terms")
+    public ResponseEntity<Slice<ProductSearchHit>> searchByText(
+            @Parameter(description = "Terms to search for", required = true, example = "iphone")
+            @RequestParam(value = "q") @NotBlank @Size(max = 200) String q,
+            Pageable pageable) {
+        return ResponseEntity.ok(searchProduct.searchByText(q, pageable));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export products", description = "Stream every product as newline-delimited JSON, gzip compressed when the client accepts it")
+    @ApiResponse(responseCode = "200", description = "Products streamed", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = Product.class)))
+    public ResponseEntity<StreamingResponseBody> export(
+            @Parameter(description = "Only export products changed after this instant", example = "2025-01-01T00:00:00Z")
+            @RequestParam(value = "updatedAfter", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedAfter,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        // Caches must not hand the compressed body to a client that refused it, nor the other way round
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(out -> {
+            if (gzip) {
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+                    productExport.export(updatedAfter, gzipOut);
+                }
+            } else {
+                productExport.export(updatedAfter, out);
+            }
+        });
     }
 
     @GetMapping(value = "/{id}")
     @Operation(summary = "Product search by id", description = "Retrieve a product by its unique identifier")
     @ApiResponse(responseCode = "200", description = "Product found", content = @Content(schema = @Schema(implementation = Product.class)))
+    @ApiResponse(responseCode = "304", description = "Product not modified since the entity tag sent in If-None-Match")
+    @ApiResponse(responseCode = "400", description = "Invalid fields")
     @ApiResponse(responseCode = "404", description = "Product not found")
-    public ResponseEntity<Product> searchById(
+    public ResponseEntity<MappingJacksonValue> searchById(
             @Parameter(description = "ID of the product to be searched", required = true, example = "507f1f77bcf86cd799439011")
-            @PathVariable(value = "id", required = true) String id) {
-        return ResponseEntity.ok(searchProduct.searchById(id));
+            @PathVariable(value = "id", required = true) String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @Parameter(description = "Comma separated properties to return, the whole product when absent", example = "name,code,value")
+            @RequestParam(value = "fields", required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        if (ifNoneMatch != null) {
+            Optional<EntityTag> current = searchProduct.searchVersionById(id).map(p -> selection.entityTag(p.getId(), p.getVersion()));
+            if (current.isPresent() && current.get().matchesAny(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current.get().toString()).build();
+            }
+        }
+        return withETag(searchProduct.searchById(id, selection.projection()), selection);
     }
 
     @GetMapping(value = "isRegistered/{id}")
@@ -75,25 +208,71 @@ public class ProductResource {
         return ResponseEntity.ok(productRegistration.register(product));
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, SMILE_VALUE})
+    @Operation(summary = "Register products in bulk", description = "Register an array of products, in JSON, CBOR or Smile, counting the items inserted and rejected and listing the first rejected ones. A syntax error halfway through the array ends the load with a MALFORMED item; the items before it are still registered")
+    @ApiResponse(responseCode = "200", description = "Bulk registration processed", content = @Content(schema = @Schema(implementation = BulkRegistrationResult.class)))
+    @ApiResponse(responseCode = "400", description = "Body is not an array of products")
+    public ResponseEntity<BulkRegistrationResult> bulkRegister(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Array of products to be registered", required = true, content = @Content(array = @ArraySchema(schema = @Schema(implementation = Product.class))))
+            InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE) MediaType contentType) {
+        if (MediaType.APPLICATION_CBOR.isCompatibleWith(contentType)) {
+            return ResponseEntity.ok(productBulkRegistration.register(body, CBOR));
+        }
+        if (MediaType.valueOf(SMILE_VALUE).isCompatibleWith(contentType)) {
+            return ResponseEntity.ok(productBulkRegistration.register(body, SMILE));
+        }
+        return ResponseEntity.ok(productBulkRegistration.register(body));
+    }
+
+    @PostMapping(value = "/batch")
+    @Operation(summary = "Search products in batch", description = "Retrieve many products by their ids or by their codes in a single request")
+    @ApiResponse(responseCode = "200", description = "Batch lookup processed", content = @Content(schema = @Schema(implementation = BatchLookupResult.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid keys or batch too large")
+    public ResponseEntity<BatchLookupResult> searchBatch(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Ids or codes of the products", required = true, content = @Content(schema = @Schema(implementation = BatchLookupRequest.class)))
+            @RequestBody BatchLookupRequest request) {
+        return ResponseEntity.ok(searchProduct.searchBatch(request));
+    }
+
     @GetMapping(value = "/code/{code}")
     @Operation(summary = "Search product by code", description = "Retrieve a product by its code")
     @ApiResponse(responseCode = "200", description = "Product found", content = @Content(schema = @Schema(implementation = Product.class)))
+    @ApiResponse(responseCode = "304", description = "Product not modified since the entity tag sent in If-None-Match")
+    @ApiResponse(responseCode = "400", description = "Invalid fields")
     @ApiResponse(responseCode = "404", description = "Product not found")
-    public ResponseEntity<Product> searchByCode(
+    public ResponseEntity<MappingJacksonValue> searchByCode(
             @Parameter(description = "Code of the product to be searched", required = true, example = "12345678900")
-            @PathVariable(value = "code", required = true) String code) {
-        return ResponseEntity.ok(searchProduct.searchByCode(code));
+            @PathVariable(value = "code", required = true) String code,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @Parameter(description = "Comma separated properties to return, the whole product when absent", example = "name,code,value")
+            @RequestParam(value = "fields", required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        if (ifNoneMatch != null) {
+            Optional<EntityTag> current = searchProduct.searchVersionByCode(code).map(p -> selection.entityTag(p.getId(), p.getVersion()));
+            if (current.isPresent() && current.get().matchesAny(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current.get().toString()).build();
+            }
+        }
+        return withETag(searchProduct.searchByCode(code, selection.projection()), selection);
     }
 
     @PutMapping
-    @Operation(summary = "Update a product", description = "Update an existing product with the provided details")
+    @Operation(summary = "Update a product", description = "Update an existing product with the provided details. Send the entity tag of the last read in If-Match to reject the update when the product changed meanwhile")
     @ApiResponse(responseCode = "200", description = "Product updated successfully", content = @Content(schema = @Schema(implementation = Product.class)))
     @ApiResponse(responseCode = "400", description = "Invalid input")
     @ApiResponse(responseCode = "404", description = "Product not found")
+    @ApiResponse(responseCode = "412", description = "Product changed since the entity tag sent in If-Match")
     public ResponseEntity<Product> update(
             @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Product object to be updated", required = true, content = @Content(schema = @Schema(implementation = Product.class)))
-            @RequestBody @Valid Product product) {
-        return ResponseEntity.ok(productRegistration.update(product));
+            @RequestBody @Valid Product product,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        // An unconditional update already answers 404 when the product does not exist
+        if (ifMatch == null || EntityTag.isAny(ifMatch)) {
+            return withETag(productRegistration.update(product));
+        }
+        EntityTag expected = EntityTag.parse(ifMatch);
+        return withETag(productRegistration.update(product, expected.getId(), expected.getVersion()));
     }
 
     @DeleteMapping(value = "/{id}")
@@ -106,4 +285,50 @@ public class ProductResource {
         productRegistration.delete(id);
         return ResponseEntity.ok("Successfully deleted");
     }
+
+    private ResponseEntity<Product> withETag(Product product) {
+        return ResponseEntity.ok()
+                .eTag(EntityTag.of(product.getId(), product.getVersion()).toString())
+                .body(product);
+    }
+
+    private ResponseEntity<MappingJacksonValue> withETag(Product product, FieldSelection selection) {
+        return ResponseEntity.ok()
+                .eTag(selection.entityTag(product.getId(), product.getVersion()).toString())
+                .body(selection.apply(product));
+    }
+
+    /**
+     * Whether the Accept-Encoding header accepts gzip with a non-zero quality, either by name or
+     * through *. A coding listed with q=0 is refused, and a malformed quality counts as refused.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException ex) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = quality;
+            } else if (coding.equals("*")) {
+                any = quality;
+            }
+        }
+        Double quality = gzip != null ? gzip : any;
+        return quality != null && quality > 0;
+    }
 }
@@ -0,0 +1,186 @@
+package com.psouza.online.sales.resources;
+
+import com.psouza.online.sales.domain.BatchLookupRequest;
+import com.psouza.online.sales.domain.BatchLookupResult;
+import com.psouza.online.sales.domain.CursorPage;
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.domain.ProductFilter;
+import com.psouza.online.sales.domain.ProductSearchHit;
+import com.psouza.online.sales.exception.NotImplementedException;
+import com.psouza.online.sales.usecase.ReactiveProductRegistration;
+import com.psouza.online.sales.usecase.ReactiveSearchProduct;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux version of {@link ProductResource}, active with the reactive profile. It serves the same
+ * paths, parameters, payloads and entity tags, except for the bulk registration, which answers 501
+ * Not Implemented. Products are not cached in this mode.
+ */
+@Validated
+@RestController
+@Profile("reactive")
+@RequestMapping(value = "/product")
+public class ReactiveProductResource {
+    private static final List<String> FIELDS = List.of("id", "code", "name", "description", "value", "updatedAt", "version");
+
+    private final ReactiveSearchProduct searchProduct;
+    private final ReactiveProductRegistration productRegistration;
+
+    @Autowired
+    public ReactiveProductResource(ReactiveSearchProduct searchProduct, ReactiveProductRegistration productRegistration) {
+        this.searchProduct = searchProduct;
+        this.productRegistration = productRegistration;
+    }
+
+    @GetMapping
+    public Mono<MappingJacksonValue> search(
+            Pageable pageable,
+            @RequestParam(value = "total", required = false) String total,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "minValue", required = false) @DecimalMin("0.0") @Digits(integer = 10, fraction = 2) BigDecimal minValue,
+            @RequestParam(value = "maxValue", required = false) @DecimalMin("0.0") @Digits(integer = 10, fraction = 2) BigDecimal maxValue,
+            @RequestParam(value = "namePrefix", required = false) @Size(max = 50) String namePrefix) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        ProductFilter filter = new ProductFilter(minValue, maxValue, namePrefix);
+        Mono<Slice<Product>> products = filter.isEmpty()
+                ? searchProduct.search(pageable, total, selection.projection())
+                : searchProduct.search(filter, pageable, total, selection.projection());
+        return products.map(selection::apply);
+    }
+
+    @GetMapping(params = "cursor")
+    public Mono<MappingJacksonValue> searchByCursor(
+            @RequestParam(value = "cursor") String cursor,
+            @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(1000) int size,
+            @RequestParam(value = "sortBy", defaultValue = "id") String sortBy,
+            @RequestParam(value = "fields", required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        Mono<CursorPage<Product>> page = searchProduct.search(cursor, size, sortBy, selection.projection());
+        return page.map(selection::apply);
+    }
+
+    @GetMapping(value = "/search")
+    public Mono<Slice<ProductSearchHit>> searchByText(
+            @RequestParam(value = "q") @NotBlank @Size(max = 200) String q,
+            Pageable pageable) {
+        return searchProduct.searchByText(q, pageable);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Product> export(
+            @RequestParam(value = "updatedAfter", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedAfter) {
+        return searchProduct.export(updatedAfter);
+    }
+
+    @GetMapping(value = "/{id}")
+    public Mono<ResponseEntity<MappingJacksonValue>> searchById(
+            @PathVariable(value = "id", required = true) String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(value = "fields", required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        return searchProduct.searchById(id, selection.projection()).map(product -> withETag(product, selection, ifNoneMatch));
+    }
+
+    @GetMapping(value = "isRegistered/{id}")
+    public Mono<Boolean> isRegistered(@PathVariable(value = "id", required = true) String id) {
+        return searchProduct.isRegistered(id);
+    }
+
+    @PostMapping
+    public Mono<Product> register(@RequestBody @Valid Product product) {
+        return productRegistration.register(product);
+    }
+
+    @PostMapping(value = "/bulk")
+    public Mono<Void> bulkRegister() {
+        return Mono.error(new NotImplementedException("Bulk registration is not available in the reactive mode"));
+    }
+
+    @PostMapping(value = "/batch")
+    public Mono<BatchLookupResult> searchBatch(@RequestBody BatchLookupRequest request) {
+        return searchProduct.searchBatch(request);
+    }
+
+    @GetMapping(value = "/code/{code}")
+    public Mono<ResponseEntity<MappingJacksonValue>> searchByCode(
+            @PathVariable(value = "code", required = true) String code,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(value = "fields", required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, FIELDS);
+        return searchProduct.searchByCode(code, selection.projection()).map(product -> withETag(product, selection, ifNoneMatch));
+    }
+
+    @PutMapping
+    public Mono<ResponseEntity<Product>> update(
+            @RequestBody @Valid Product product,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        // An unconditional update already answers 404 when the product does not exist
+        if (ifMatch == null || EntityTag.isAny(ifMatch)) {
+            return productRegistration.update(product).map(ReactiveProductResource::withETag);
+        }
+        EntityTag expected = EntityTag.parse(ifMatch);
+        return productRegistration.update(product, expected.getId(), expected.getVersion())
+                .map(ReactiveProductResource::withETag);
+    }
+
+    @DeleteMapping(value = "/{id}")
+    public Mono<String> delete(@PathVariable(value = "id") String id) {
+        return productRegistration.delete(id).thenReturn("Successfully deleted");
+    }
+
+    private static ResponseEntity<Product> withETag(Product product) {
+        return ResponseEntity.ok()
+                .eTag(EntityTag.of(product.getId(), product.getVersion()).toString())
+                .body(product);
+    }
+
+    /**
+     * The product, or 304 Not Modified when its tag matches If-None-Match. Without a cache there is
+     * no copy to agree with, so the tag is taken from the product read instead of a version query.
+     */
+    private static ResponseEntity<MappingJacksonValue> withETag(Product product, FieldSelection selection, String ifNoneMatch) {
+        EntityTag tag = selection.entityTag(product.getId(), product.getVersion());
+        if (ifNoneMatch != null && tag.matchesAny(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag.toString()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(tag.toString())
+                .body(selection.apply(product));
+    }
+}
@@ -0,0 +1,42 @@
+package com.psouza.online.sales.usecase;
+
+import com.psouza.online.sales.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Opaque next-page token of a keyset paginated listing. It carries the sort key and the last value
+ * returned, so the next page is a range query on an indexed field instead of a skip.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorToken {
+
+    private static final char SEPARATOR = ':';
+
+    private String field;
+    private String lastValue;
+
+    public String encode() {
+        String raw = field + SEPARATOR + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorToken decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        int separator = raw.indexOf(SEPARATOR);
+        if (separator <= 0) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        return new CursorToken(raw.substring(0, separator), raw.substring(separator + 1));
+    }
+}
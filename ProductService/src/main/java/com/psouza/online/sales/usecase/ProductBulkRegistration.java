@@ -0,0 +1,229 @@
+package com.psouza.online.sales.usecase;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.psouza.online.sales.domain.BulkItemResult;
+import com.psouza.online.sales.domain.BulkItemResult.Status;
+import com.psouza.online.sales.domain.BulkRegistrationResult;
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.exception.BadRequestException;
+import com.psouza.online.sales.repository.IProductRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.annotation.Timed;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Registers a large JSON array of products. The array is read one element at a time and the valid
+ * products are written in unordered bulk inserts of {@code product.bulk.batch-size} documents, so a
+ * duplicate code or an invalid item only rejects that item instead of the whole load. A syntax error
+ * halfway through the array ends the load: the items read before it are still written, and the
+ * report ends with a MALFORMED entry locating the error.
+ * <p>
+ * The report counts every item but only lists the rejected ones, and at most the first
+ * {@code product.bulk.max-reported-items} of them, so that its size does not grow with the load.
+ */
+@Service
+@Timed("usecase")
+public class ProductBulkRegistration {
+
+    private static final int DUPLICATE_KEY = 11000;
+    private static final Pattern DUPLICATE_INDEX = Pattern.compile("index: (\\S+) dup key");
+    private static final String ID_INDEX = "_id_";
+    private static final String CODE_INDEX = "code";
+
+    private IProductRepository productRepository;
+    private ObjectMapper objectMapper;
+    private Validator validator;
+    private int batchSize;
+    private int maxReportedItems;
+
+    @Autowired
+    public ProductBulkRegistration(IProductRepository productRepository, ObjectMapper objectMapper,
+                                   Validator validator, @Value("${product.bulk.batch-size:500}") int batchSize,
+                                   @Value("${product.bulk.max-reported-items:1000}") int maxReportedItems) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxReportedItems = maxReportedItems;
+    }
+
+    public BulkRegistrationResult register(InputStream body) {
+        return register(body, objectMapper.getFactory());
+    }
+
+    /**
+     * @param body   the array of products
+     * @param format the factory of the parser of the body, JSON or a binary format such as CBOR
+     * @return the counts of the items inserted and rejected, and the first rejected items
+     */
+    public BulkRegistrationResult register(InputStream body, JsonFactory format) {
+        Report report = new Report(maxReportedItems);
+        List<Product> batch = new ArrayList<>(batchSize);
+        List<Integer> batchIndexes = new ArrayList<>(batchSize);
+
+        try (JsonParser parser = format.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Request body must be an array of products");
+            }
+
+            try {
+                readItems(parser, report, batch, batchIndexes);
+            } catch (IOException ex) {
+                // The items before the error are written and reported, the error ends the report
+                flush(batch, batchIndexes, report);
+                report.reject(new BulkItemResult(report.read, null, Status.MALFORMED, describe(ex)));
+            }
+        } catch (IOException ex) {
+            throw new BadRequestException("Malformed product array: " + ex.getMessage());
+        }
+
+        flush(batch, batchIndexes, report);
+
+        return new BulkRegistrationResult(report.inserted, report.rejected,
+                new ArrayList<>(report.rejectedItems.values()), report.rejected > report.rejectedItems.size());
+    }
+
+    private void readItems(JsonParser parser, Report report, List<Product> batch,
+                           List<Integer> batchIndexes) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new JsonParseException(parser, "Unexpected end of the product array");
+            }
+
+            int index = report.read;
+            JsonNode node = objectMapper.readTree(parser);
+            report.read++;
+
+            Product product;
+            try {
+                product = objectMapper.treeToValue(node, Product.class);
+            } catch (JsonProcessingException ex) {
+                report.reject(new BulkItemResult(index, node.path("code").asText(null), Status.INVALID,
+                        ex.getOriginalMessage()));
+                continue;
+            }
+
+            Set<ConstraintViolation<Product>> violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                report.reject(new BulkItemResult(index, product.getCode(), Status.INVALID,
+                        describe(violations)));
+                continue;
+            }
+
+            if (product.getId() == null) {
+                product.setId(new ObjectId().toHexString());
+            }
+            product.setVersion(0L);
+            batch.add(product);
+            batchIndexes.add(index);
+
+            if (batch.size() >= batchSize) {
+                flush(batch, batchIndexes, report);
+            }
+        }
+    }
+
+    private void flush(List<Product> batch, List<Integer> batchIndexes, Report report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<BulkWriteError> errors = productRepository.insertUnordered(batch);
+        for (BulkWriteError error : errors) {
+            int position = error.getIndex();
+            report.reject(new BulkItemResult(batchIndexes.get(position), batch.get(position).getCode(),
+                    status(error), error.getMessage()));
+        }
+        report.inserted += batch.size() - errors.size();
+
+        batch.clear();
+        batchIndexes.clear();
+    }
+
+    /**
+     * Tells a duplicate code from a duplicate id by the unique index named in the error message,
+     * e.g. "E11000 duplicate key error collection: online_sales.product index: _id_ dup key: ...".
+     */
+    static Status status(BulkWriteError error) {
+        if (error.getCode() != DUPLICATE_KEY) {
+            return Status.FAILED;
+        }
+        Matcher index = DUPLICATE_INDEX.matcher(String.valueOf(error.getMessage()));
+        if (!index.find()) {
+            return Status.FAILED;
+        }
+        return switch (index.group(1)) {
+            case ID_INDEX -> Status.DUPLICATE_ID;
+            case CODE_INDEX -> Status.DUPLICATE_CODE;
+            default -> Status.FAILED;
+        };
+    }
+
+    private static String describe(IOException ex) {
+        if (!(ex instanceof JsonProcessingException parseError) || parseError.getLocation() == null) {
+            return "Malformed product array: " + ex.getMessage() + "; the items after it were not read";
+        }
+        JsonLocation location = parseError.getLocation();
+        String where = location.getLineNr() > 0
+                ? "line " + location.getLineNr() + ", column " + location.getColumnNr()
+                : "byte " + location.getByteOffset();
+        return "Malformed product array at " + where + ": " + parseError.getOriginalMessage()
+                + "; the items after it were not read";
+    }
+
+    private String describe(Set<ConstraintViolation<Product>> violations) {
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Counts of a load, and its first rejected items by position in the array. Items are rejected
+     * out of order, invalid ones when read and the others when their batch is written, so the
+     * rejections past the limit are dropped by position rather than by arrival.
+     */
+    private static final class Report {
+        private final int maxItems;
+        private final TreeMap<Integer, BulkItemResult> rejectedItems = new TreeMap<>();
+        private int read;
+        private long inserted;
+        private long rejected;
+
+        private Report(int maxItems) {
+            this.maxItems = maxItems;
+        }
+
+        private void reject(BulkItemResult item) {
+            rejected++;
+            rejectedItems.put(item.getIndex(), item);
+            if (rejectedItems.size() > maxItems) {
+                rejectedItems.pollLastEntry();
+            }
+        }
+    }
+}
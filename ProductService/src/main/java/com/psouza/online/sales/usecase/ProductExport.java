@@ -0,0 +1,46 @@
+package com.psouza.online.sales.usecase;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.repository.IProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the product catalog as newline-delimited JSON straight from a MongoDB cursor, holding at
+ * most one cursor batch in memory regardless of the catalog size.
+ */
+@Service
+public class ProductExport {
+
+    private IProductRepository productRepository;
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    public ProductExport(IProductRepository productRepository, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(Instant updatedAfter, OutputStream out) throws IOException {
+        try (Stream<Product> products = productRepository.streamUpdatedAfter(updatedAfter);
+             SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            Iterator<Product> iterator = products.iterator();
+            if (!iterator.hasNext()) {
+                return;
+            }
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+            }
+            writer.flush();
+            out.write('\n');
+        }
+    }
+}
@@ -1,20 +1,27 @@
 package com.psouza.online.sales.usecase;
 
+import com.psouza.online.sales.cache.ProductCache;
 import com.psouza.online.sales.domain.Product;
 import com.psouza.online.sales.exception.EntityNotFoundException;
+import com.psouza.online.sales.exception.PreconditionFailedException;
 import com.psouza.online.sales.repository.IProductRepository;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.annotation.Timed;
+
 @Service
+@Timed("usecase")
 public class ProductRegistration {
 
     private IProductRepository productRepository;
+    private ProductCache productCache;
 
     @Autowired
-    public ProductRegistration(IProductRepository productRepository) {
+    public ProductRegistration(IProductRepository productRepository, ProductCache productCache) {
         this.productRepository = productRepository;
+        this.productCache = productCache;
     }
 
     public Product register(@Valid Product product) {
@@ -22,18 +29,35 @@ public class ProductRegistration {
     }
 
     public Product update(Product product) {
-        Product existingProduct = productRepository.findByCode(product.getCode())
-                .orElseThrow(() -> new EntityNotFoundException(Product.class, product));
-
-        existingProduct.setName(product.getName());
-        existingProduct.setDescription(product.getDescription());
-        existingProduct.setValue(product.getValue());
+        return update(product, null, null);
+    }
 
-        return productRepository.save(existingProduct);
+    /**
+     * Updates the product with the same code in a single atomic findAndModify, so concurrent updates
+     * cannot overwrite each other with stale copies of the document. When an expected id and version
+     * are given the update only applies to that version of the product.
+     *
+     * @param product         the product with the new values
+     * @param expectedId      the id the caller last read, or null to update unconditionally
+     * @param expectedVersion the version the caller last read, or null to update unconditionally
+     * @return the product as stored after the update
+     */
+    public Product update(Product product, String expectedId, Long expectedVersion) {
+        Product updatedProduct = productRepository.updateByCode(product, expectedId, expectedVersion);
+        if (updatedProduct == null) {
+            if (expectedVersion != null && productRepository.findByCode(product.getCode()).isPresent()) {
+                throw new PreconditionFailedException("Product was changed since it was read, code " + product.getCode());
+            }
+            throw new EntityNotFoundException(Product.class, "code", String.valueOf(product.getCode()));
+        }
+
+        productCache.evict(updatedProduct);
+        return updatedProduct;
     }
 
     public void delete(String id) {
-        this.productRepository.deleteById(id);
+        this.productRepository.deleteAndGetCodeById(id)
+                .ifPresentOrElse(productCache::evict, () -> productCache.evictById(id));
     }
 
 }
@@ -0,0 +1,55 @@
+package com.psouza.online.sales.usecase;
+
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.exception.EntityNotFoundException;
+import com.psouza.online.sales.exception.PreconditionFailedException;
+import com.psouza.online.sales.repository.IReactiveProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link ProductRegistration} used by the reactive profile.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveProductRegistration {
+
+    private IReactiveProductRepository productRepository;
+
+    @Autowired
+    public ReactiveProductRegistration(IReactiveProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    public Mono<Product> register(Product product) {
+        return productRepository.insert(product);
+    }
+
+    public Mono<Product> update(Product product) {
+        return update(product, null, null);
+    }
+
+    /**
+     * Non-blocking counterpart of {@link ProductRegistration#update(Product, String, Long)}.
+     */
+    public Mono<Product> update(Product product, String expectedId, Long expectedVersion) {
+        return productRepository.updateByCode(product, expectedId, expectedVersion)
+                .switchIfEmpty(Mono.defer(() -> notUpdated(product, expectedVersion)));
+    }
+
+    private Mono<Product> notUpdated(Product product, Long expectedVersion) {
+        Mono<Boolean> exists = expectedVersion == null
+                ? Mono.just(false)
+                : productRepository.findByCode(product.getCode()).hasElement();
+        return exists.flatMap(changed -> Mono.error(changed
+                ? new PreconditionFailedException("Product was changed since it was read, code " + product.getCode())
+                : new EntityNotFoundException(Product.class, "code", String.valueOf(product.getCode()))));
+    }
+
+    public Mono<Void> delete(String id) {
+        return productRepository.deleteById(id);
+    }
+}
@@ -0,0 +1,210 @@
+package com.psouza.online.sales.usecase;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.psouza.online.sales.config.ProductListingProperties;
+import com.psouza.online.sales.domain.BatchLookupRequest;
+import com.psouza.online.sales.domain.BatchLookupResult;
+import com.psouza.online.sales.domain.CursorPage;
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.domain.ProductFilter;
+import com.psouza.online.sales.domain.ProductSearchHit;
+import com.psouza.online.sales.exception.BadRequestException;
+import com.psouza.online.sales.exception.EntityNotFoundException;
+import com.psouza.online.sales.repository.IReactiveProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link SearchProduct} used by the reactive profile.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveSearchProduct {
+
+    private static final String ESTIMATED_TOTAL = "products";
+
+    private IReactiveProductRepository productRepository;
+    private ProductListingProperties listingProperties;
+    private volatile AsyncLoadingCache<String, Long> estimatedTotal;
+    private int batchMaxSize;
+
+    @Autowired
+    public ReactiveSearchProduct(IReactiveProductRepository productRepository, ProductListingProperties listingProperties,
+                                 @Value("${product.batch.max-size:200}") int batchMaxSize) {
+        this.productRepository = productRepository;
+        this.listingProperties = listingProperties;
+        this.estimatedTotal = estimatedTotalCache();
+        this.batchMaxSize = batchMaxSize;
+    }
+
+    /**
+     * Starts a new estimated total cache once a refresh was bound to the listing properties, so a
+     * changed estimated-total-ttl applies without a restart.
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void refreshed() {
+        estimatedTotal = estimatedTotalCache();
+    }
+
+    private AsyncLoadingCache<String, Long> estimatedTotalCache() {
+        return Caffeine.newBuilder()
+                .refreshAfterWrite(listingProperties.getEstimatedTotalTtl())
+                .buildAsync((key, executor) -> productRepository.estimatedCount().toFuture());
+    }
+
+    public Mono<Page<Product>> search(Pageable pageable) {
+        return productRepository.findAllBy(pageable)
+                .collectList()
+                .zipWith(productRepository.count())
+                .map(page -> new PageImpl<>(page.getT1(), pageable, page.getT2()));
+    }
+
+    /**
+     * Non-blocking counterpart of {@link SearchProduct#search(Pageable, String, Set)}.
+     */
+    public Mono<Slice<Product>> search(Pageable pageable, String total, Set<String> fields) {
+        PageTotal pageTotal;
+        try {
+            pageTotal = PageTotal.parse(total, listingProperties.getTotal());
+        } catch (BadRequestException ex) {
+            return Mono.error(ex);
+        }
+        if (pageTotal == PageTotal.EXACT && fields == null) {
+            return search(pageable).map(page -> page);
+        }
+
+        Mono<Slice<Product>> slice = productRepository.findSlice(pageable, fields)
+                .collectList()
+                .map(products -> toSlice(products, pageable));
+        return switch (pageTotal) {
+            case EXACT -> slice.zipWith(productRepository.count())
+                    .map(page -> new PageImpl<>(page.getT1().getContent(), pageable, page.getT2()));
+            // The cached future is shared by every request, so a cancelled request must not cancel it
+            case ESTIMATED -> slice.zipWith(Mono.fromFuture(estimatedTotal.get(ESTIMATED_TOTAL), true))
+                    .map(page -> SearchProduct.estimatedPage(page.getT1(), page.getT2()));
+            case NONE -> slice;
+        };
+    }
+
+    /**
+     * Non-blocking counterpart of {@link SearchProduct#search(ProductFilter, Pageable, String, Set)}.
+     */
+    public Mono<Slice<Product>> search(ProductFilter filter, Pageable pageable, String total, Set<String> fields) {
+        return Mono.defer(() -> {
+            SearchProduct.checkFilter(filter, pageable);
+            PageTotal pageTotal = PageTotal.parse(total, listingProperties.getTotal());
+            Mono<Slice<Product>> slice = productRepository.findFiltered(filter, pageable, fields)
+                    .collectList()
+                    .map(products -> toSlice(products, pageable));
+            if (pageTotal != PageTotal.EXACT) {
+                return slice;
+            }
+            return slice.zipWith(productRepository.countFiltered(filter))
+                    .map(page -> new PageImpl<>(page.getT1().getContent(), pageable, page.getT2()));
+        });
+    }
+
+    private static Slice<Product> toSlice(List<Product> products, Pageable pageable) {
+        if (pageable.isUnpaged() || products.size() <= pageable.getPageSize()) {
+            return new SliceImpl<>(products, pageable, false);
+        }
+        return new SliceImpl<>(products.subList(0, pageable.getPageSize()), pageable, true);
+    }
+
+    public Mono<CursorPage<Product>> search(String cursor, int size, String sortBy, Set<String> fields) {
+        CursorToken token = cursor.isEmpty() ? new CursorToken(sortBy, null) : CursorToken.decode(cursor);
+        String field = token.getField();
+        if (!"id".equals(field) && !"code".equals(field)) {
+            return Mono.error(new BadRequestException("Products can only be paginated by id or code"));
+        }
+
+        Set<String> projection = fields;
+        if (fields != null && !fields.contains(field)) {
+            projection = new LinkedHashSet<>(fields);
+            projection.add(field);
+        }
+        return productRepository.findAfter(field, token.getLastValue(), size + 1, projection)
+                .collectList()
+                .map(products -> {
+                    if (products.size() <= size) {
+                        return new CursorPage<>(products, null);
+                    }
+                    Product last = products.get(size - 1);
+                    String lastValue = "id".equals(field) ? last.getId() : last.getCode();
+                    return new CursorPage<>(products.subList(0, size), new CursorToken(field, lastValue).encode());
+                });
+    }
+
+    /**
+     * Non-blocking counterpart of {@link SearchProduct#searchByText(String, Pageable)}.
+     */
+    public Mono<Slice<ProductSearchHit>> searchByText(String text, Pageable pageable) {
+        return productRepository.searchText(text, pageable.getOffset(), pageable.getPageSize() + 1)
+                .collectList()
+                .map(hits -> {
+                    boolean hasNext = hits.size() > pageable.getPageSize();
+                    return new SliceImpl<>(hasNext ? hits.subList(0, pageable.getPageSize()) : hits, pageable, hasNext);
+                });
+    }
+
+    /**
+     * Non-blocking counterpart of {@link SearchProduct#searchBatch(BatchLookupRequest)}.
+     */
+    public Mono<BatchLookupResult> searchBatch(BatchLookupRequest request) {
+        return Mono.defer(() -> {
+            boolean byId = SearchProduct.isBatchById(request);
+            Set<String> keys = SearchProduct.batchKeys(request, byId, batchMaxSize);
+            return (byId ? productRepository.findAllById(keys) : productRepository.findByCodeIn(keys))
+                    .collectList()
+                    .map(found -> SearchProduct.batchResult(keys, found, byId));
+        });
+    }
+
+    /**
+     * Streams the catalog from a MongoDB cursor. Documents are requested from the cursor only as fast
+     * as the subscriber consumes them.
+     *
+     * @param updatedAfter only products changed after this instant, or null for all of them
+     * @return the products
+     */
+    public Flux<Product> export(Instant updatedAfter) {
+        return productRepository.streamUpdatedAfter(updatedAfter);
+    }
+
+    /**
+     * @param id     the id of the product
+     * @param fields the properties to read, or null for the whole document
+     * @return the product
+     */
+    public Mono<Product> searchById(String id, Set<String> fields) {
+        Mono<Product> product = fields == null ? productRepository.findById(id) : productRepository.findProjected("id", id, fields);
+        return product.switchIfEmpty(Mono.error(() -> new EntityNotFoundException(Product.class, "id", id)));
+    }
+
+    public Mono<Boolean> isRegistered(String id) {
+        return productRepository.existsById(id);
+    }
+
+    public Mono<Product> searchByCode(String code, Set<String> fields) {
+        Mono<Product> product = fields == null ? productRepository.findByCode(code) : productRepository.findProjected("code", code, fields);
+        return product.switchIfEmpty(Mono.error(() -> new EntityNotFoundException(Product.class, "code", String.valueOf(code))));
+    }
+}
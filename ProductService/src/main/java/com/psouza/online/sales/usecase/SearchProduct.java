@@ -1,40 +1,365 @@
 package com.psouza.online.sales.usecase;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.psouza.online.sales.cache.LookupCoalescer;
+import com.psouza.online.sales.cache.ProductCache;
+import com.psouza.online.sales.config.ProductListingProperties;
+import com.psouza.online.sales.domain.BatchLookupRequest;
+import com.psouza.online.sales.domain.BatchLookupResult;
+import com.psouza.online.sales.domain.CursorPage;
 import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.domain.ProductFilter;
+import com.psouza.online.sales.domain.ProductSearchHit;
+import com.psouza.online.sales.exception.BadRequestException;
 import com.psouza.online.sales.exception.EntityNotFoundException;
 import com.psouza.online.sales.repository.IProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.annotation.Timed;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Timed("usecase")
 public class SearchProduct {
+    private static final String ESTIMATED_TOTAL = "products";
+    private static final List<String> FILTER_SORTS = List.of("value", "name", "code", "updatedAt");
+
     private IProductRepository productRepository;
+    private ProductCache productCache;
+    private LookupCoalescer lookupCoalescer;
+    private ProductListingProperties listingProperties;
+    private volatile LoadingCache<String, Long> estimatedTotal;
+    private int batchMaxSize;
 
     @Autowired
-    public SearchProduct(IProductRepository productRepository) {
+    public SearchProduct(IProductRepository productRepository, ProductCache productCache,
+                         LookupCoalescer lookupCoalescer, ProductListingProperties listingProperties,
+                         @Value("${product.batch.max-size:200}") int batchMaxSize) {
         this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.lookupCoalescer = lookupCoalescer;
+        this.listingProperties = listingProperties;
+        this.estimatedTotal = estimatedTotalCache();
+        this.batchMaxSize = batchMaxSize;
+    }
+
+    /**
+     * Starts a new estimated total cache once a refresh was bound to the listing properties, so a
+     * changed estimated-total-ttl applies without a restart.
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void refreshed() {
+        estimatedTotal = estimatedTotalCache();
+    }
+
+    private LoadingCache<String, Long> estimatedTotalCache() {
+        return Caffeine.newBuilder()
+                .refreshAfterWrite(listingProperties.getEstimatedTotalTtl())
+                .build(key -> productRepository.estimatedCount());
     }
 
     public Page<Product> search(Pageable pageable) {
         return productRepository.findAll(pageable);
     }
 
+    /**
+     * Lists a page of products, counting the total as the request or the configuration asks. A
+     * slice is read with limit size + 1 and no count; an estimated page is that slice with the cached
+     * metadata count as its total.
+     *
+     * @param pageable the page to read
+     * @param total    exact, estimated or none, null for the configured default
+     * @return a page with a total, or a slice when no total was asked for
+     */
+    public Slice<Product> search(Pageable pageable, String total) {
+        return search(pageable, total, null);
+    }
+
+    /**
+     * Lists a page of products reading only the given properties, counting the total as
+     * {@link #search(Pageable, String)} does. An exact total is counted only when the page does not
+     * already tell it.
+     *
+     * @param pageable the page to read
+     * @param total    exact, estimated or none, null for the configured default
+     * @param fields   the properties to read, or null for the whole document
+     * @return a page with a total, or a slice when no total was asked for
+     */
+    public Slice<Product> search(Pageable pageable, String total, Set<String> fields) {
+        PageTotal mode = PageTotal.parse(total, listingProperties.getTotal());
+        if (fields == null) {
+            return switch (mode) {
+                case EXACT -> productRepository.findAll(pageable);
+                case ESTIMATED -> estimatedPage(productRepository.findAllBy(pageable), estimatedTotal.get(ESTIMATED_TOTAL));
+                case NONE -> productRepository.findAllBy(pageable);
+            };
+        }
+        Slice<Product> slice = productRepository.findSlice(pageable, fields);
+        return switch (mode) {
+            case EXACT -> PageableExecutionUtils.getPage(slice.getContent(), pageable, productRepository::count);
+            case ESTIMATED -> estimatedPage(slice, estimatedTotal.get(ESTIMATED_TOTAL));
+            case NONE -> slice;
+        };
+    }
+
+    /**
+     * Lists a page of the products matching the filter, which is run by MongoDB over the value_id or
+     * the name_value index. The sort is limited to properties whose order an index gives or that are
+     * sorted after the index narrowed the products down. Only an exact total is counted, with the
+     * same filter; the collection estimate says nothing about a filter, so otherwise a slice is
+     * returned.
+     *
+     * @param filter   the value range and name prefix to match
+     * @param pageable the page to read, sorted by value, name, code or updatedAt
+     * @param total    exact, estimated or none, null for the configured default
+     * @param fields   the properties to read, or null for the whole document
+     * @return a page with a total, or a slice when no exact total was asked for
+     */
+    public Slice<Product> search(ProductFilter filter, Pageable pageable, String total, Set<String> fields) {
+        checkFilter(filter, pageable);
+
+        PageTotal mode = PageTotal.parse(total, listingProperties.getTotal());
+        Slice<Product> slice = productRepository.findFiltered(filter, pageable, fields);
+        if (mode != PageTotal.EXACT) {
+            return slice;
+        }
+        return PageableExecutionUtils.getPage(slice.getContent(), pageable, () -> productRepository.countFiltered(filter));
+    }
+
+    static void checkFilter(ProductFilter filter, Pageable pageable) {
+        if (filter.getMinValue() != null && filter.getMaxValue() != null
+                && filter.getMinValue().compareTo(filter.getMaxValue()) > 0) {
+            throw new BadRequestException("minValue must not be greater than maxValue");
+        }
+        for (Sort.Order order : pageable.getSort()) {
+            if (!FILTER_SORTS.contains(order.getProperty())) {
+                throw new BadRequestException("Filtered products can only be sorted by " + String.join(", ", FILTER_SORTS));
+            }
+        }
+    }
+
+    /**
+     * The estimate may lag behind inserts, so the total is never lower than what the slice shows to
+     * exist; PageImpl itself corrects it on the last page.
+     */
+    static <T> Page<T> estimatedPage(Slice<T> slice, long estimatedTotal) {
+        long seen = slice.getPageable().isPaged()
+                ? slice.getPageable().getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0)
+                : slice.getNumberOfElements();
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), Math.max(estimatedTotal, seen));
+    }
+
+    /**
+     * Keyset pagination on the id or on the unique code index. Each page is a range query on the sort
+     * key fetched with limit size + 1, so its cost does not depend on the depth and no count is run.
+     *
+     * @param cursor token of the previous page, empty for the first page
+     * @param size   maximum number of products of the page
+     * @param sortBy sort key of the first page, either "id" or "code"
+     * @return the page and the token of the next one
+     */
+    public CursorPage<Product> search(String cursor, int size, String sortBy) {
+        return search(cursor, size, sortBy, null);
+    }
+
+    /**
+     * Keyset pagination reading only the given properties and the sort key.
+     *
+     * @param cursor token of the previous page, empty for the first page
+     * @param size   maximum number of products of the page
+     * @param sortBy sort key of the first page, either "id" or "code"
+     * @param fields the properties to read, or null for the whole document
+     * @return the page and the token of the next one
+     */
+    public CursorPage<Product> search(String cursor, int size, String sortBy, Set<String> fields) {
+        CursorToken token = cursor.isEmpty() ? new CursorToken(sortBy, null) : CursorToken.decode(cursor);
+        String field = token.getField();
+        if (!"id".equals(field) && !"code".equals(field)) {
+            throw new BadRequestException("Products can only be paginated by id or code");
+        }
+
+        Set<String> projection = fields;
+        if (fields != null && !fields.contains(field)) {
+            projection = new LinkedHashSet<>(fields);
+            projection.add(field);
+        }
+        List<Product> products = productRepository.findAfter(field, token.getLastValue(), size + 1, projection);
+        if (products.size() <= size) {
+            return new CursorPage<>(products, null);
+        }
+
+        List<Product> content = products.subList(0, size);
+        Product last = content.get(size - 1);
+        String lastValue = "id".equals(field) ? last.getId() : last.getCode();
+        return new CursorPage<>(content, new CursorToken(field, lastValue).encode());
+    }
+
+    /**
+     * Full-text search over the name and description text index, ordered by relevance. Only the
+     * fields of a results list are read and no count is run, the slice tells whether there is a next
+     * page.
+     *
+     * @param text     the terms to search for
+     * @param pageable page number and size, the sort is always by relevance
+     * @return the matching products of the requested page
+     */
+    public Slice<ProductSearchHit> searchByText(String text, Pageable pageable) {
+        List<ProductSearchHit> hits = productRepository.searchText(text, pageable.getOffset(),
+                pageable.getPageSize() + 1);
+        boolean hasNext = hits.size() > pageable.getPageSize();
+        List<ProductSearchHit> content = hasNext ? hits.subList(0, pageable.getPageSize()) : hits;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /**
+     * Reads a product through the cache. On a miss, concurrent lookups of the same id share one
+     * repository call, as long as they started at the same cache generation: a lookup arriving after
+     * an update evicted the product never joins a call that may have read it before the update.
+     *
+     * @param id the id of the product
+     * @return the product
+     */
     public Product searchById(String id) {
-        return productRepository.findById(id)
+        return productCache.getById(id,
+                generation -> lookupCoalescer.coalesce("product.id", id + '@' + generation,
+                        () -> productRepository.findById(id)))
+                .orElseThrow(() -> new EntityNotFoundException(Product.class, "id", id));
+    }
+
+    /**
+     * Reads a product with only the given properties. A cached product is served whole, the response
+     * filters it anyway; a partially read one is never cached.
+     *
+     * @param id     the id of the product
+     * @param fields the properties to read, or null for the whole document
+     * @return the product
+     */
+    public Product searchById(String id, Set<String> fields) {
+        if (fields == null) {
+            return searchById(id);
+        }
+        return productCache.peekById(id)
+                .or(() -> productRepository.findProjected("id", id, fields))
                 .orElseThrow(() -> new EntityNotFoundException(Product.class, "id", id));
     }
 
+    /**
+     * Reads only the id and the version of a product, preferring the cached copy so that the answer
+     * matches what {@link #searchById(String)} would return.
+     *
+     * @param id the id of the product
+     * @return a product holding only its id and version, empty when it does not exist
+     */
+    public Optional<Product> searchVersionById(String id) {
+        return productCache.peekById(id).or(() -> productRepository.findVersionById(id));
+    }
+
+    public Optional<Product> searchVersionByCode(String code) {
+        return productCache.peekByCode(code).or(() -> productRepository.findVersionByCode(code));
+    }
+
     public Boolean isRegistered(String id) {
         Optional<Product> product = productRepository.findById(id);
         return product.isPresent() ? true : false;
     }
 
     public Product searchByCode(String code) {
-        return productRepository.findByCode(code)
+        return productCache.getByCode(code,
+                generation -> lookupCoalescer.coalesce("product.code", code + '@' + generation,
+                        () -> productRepository.findByCode(code)))
+                .orElseThrow(() -> new EntityNotFoundException(Product.class, "code", String.valueOf(code)));
+    }
+
+    public Product searchByCode(String code, Set<String> fields) {
+        if (fields == null) {
+            return searchByCode(code);
+        }
+        return productCache.peekByCode(code)
+                .or(() -> productRepository.findProjected("code", code, fields))
                 .orElseThrow(() -> new EntityNotFoundException(Product.class, "code", String.valueOf(code)));
     }
+
+    /**
+     * Resolves up to {@code product.batch.max-size} keys by id or by code with a single $in query.
+     * Duplicated keys are collapsed and missing keys are reported instead of failing the lookup.
+     *
+     * @param request the ids or the codes to look up
+     * @return the products found and the missing keys, both in request order
+     */
+    public BatchLookupResult searchBatch(BatchLookupRequest request) {
+        boolean byId = isBatchById(request);
+        Set<String> keys = batchKeys(request, byId, batchMaxSize);
+        List<Product> found = byId ? productRepository.findAllById(keys) : productRepository.findByCodeIn(keys);
+        return batchResult(keys, found, byId);
+    }
+
+    static boolean isBatchById(BatchLookupRequest request) {
+        boolean byId = request.getIds() != null && !request.getIds().isEmpty();
+        boolean byCode = request.getCodes() != null && !request.getCodes().isEmpty();
+        if (byId == byCode) {
+            throw new BadRequestException("Exactly one of ids or codes must be informed");
+        }
+        return byId;
+    }
+
+    /**
+     * Checks the size of the batch before copying it, so that an oversized request is not hashed
+     * first, and rejects null keys, which the $in query cannot take.
+     *
+     * @return the distinct keys of the batch in request order
+     */
+    static Set<String> batchKeys(BatchLookupRequest request, boolean byId, int batchMaxSize) {
+        List<String> requested = byId ? request.getIds() : request.getCodes();
+        if (requested.size() > batchMaxSize) {
+            throw new BadRequestException("A batch lookup accepts at most " + batchMaxSize + " keys");
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        for (String key : requested) {
+            if (key == null) {
+                throw new BadRequestException((byId ? "ids" : "codes") + " must not contain null");
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Orders the products found as their keys were requested and lists the keys without one.
+     */
+    static BatchLookupResult batchResult(Set<String> keys, List<Product> found, boolean byId) {
+        Function<Product, String> keyOf = byId ? Product::getId : Product::getCode;
+        Map<String, Product> byKey = found.stream().collect(Collectors.toMap(keyOf, Function.identity()));
+
+        List<Product> products = new ArrayList<>(keys.size());
+        List<String> missing = new ArrayList<>();
+        for (String key : keys) {
+            Product product = byKey.get(key);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missing.add(key);
+            }
+        }
+        return new BatchLookupResult(products, missing);
+    }
 }
@@ -0,0 +1,123 @@
+package com.psouza.online.sales.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LookupCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LookupCoalescer coalescer = new LookupCoalescer(meterRegistry);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersOfAKeyShareOneCall() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        Future<String> first = executor.submit(() -> coalescer.coalesce("product.id", "p1", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "loaded";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<Future<String>> joined = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            joined.add(executor.submit(() -> coalescer.coalesce("product.id", "p1", () -> {
+                calls.incrementAndGet();
+                return "second call";
+            })));
+        }
+        waitForCount("coalesced", 4);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+        for (Future<String> future : joined) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(count("loaded")).isEqualTo(1);
+    }
+
+    @Test
+    void finishedCallIsNotReused() {
+        AtomicInteger calls = new AtomicInteger();
+
+        coalescer.coalesce("product.id", "p1", calls::incrementAndGet);
+        int second = coalescer.coalesce("product.id", "p1", calls::incrementAndGet);
+
+        assertThat(second).isEqualTo(2);
+    }
+
+    @Test
+    void differentKeysOrLookupsDoNotShare() {
+        assertThat(coalescer.coalesce("product.id", "p1", () -> "id p1")).isEqualTo("id p1");
+        assertThat(coalescer.coalesce("product.id", "p2", () -> "id p2")).isEqualTo("id p2");
+        assertThat(coalescer.coalesce("product.code", "p1", () -> "code p1")).isEqualTo("code p1");
+    }
+
+    @Test
+    void joinedCallersReceiveTheSameException() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("down");
+
+        Future<Object> first = executor.submit(() -> coalescer.coalesce("product.id", "p1", () -> {
+            started.countDown();
+            await(release);
+            throw failure;
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<Object> joined = executor.submit(() -> coalescer.coalesce("product.id", "p1", () -> "second call"));
+        waitForCount("coalesced", 1);
+        release.countDown();
+
+        for (Future<Object> future : List.of(first, joined)) {
+            assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS)).hasCauseReference(failure);
+        }
+        // The failed call is forgotten, the next caller tries again
+        assertThat(coalescer.coalesce("product.id", "p1", () -> "retried")).isEqualTo("retried");
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter(LookupCoalescer.LOOKUPS, "lookup", "product.id", "result", result).count();
+    }
+
+    private void waitForCount(String result, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count(result) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(count(result)).isEqualTo(expected);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.psouza.online.sales.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.psouza.online.sales.config.ProductCacheProperties;
+import com.psouza.online.sales.domain.Product;
+
+class ProductCacheTest {
+
+    private static final Product IPHONE = Product.builder().id("p1").code("IPHONE16").name("iPhone 16").build();
+
+    private final ProductCacheProperties properties = new ProductCacheProperties();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void loadedProductIsServedByIdAndByCode() {
+        ProductCache cache = new ProductCache(properties);
+
+        assertThat(cache.getById("p1", this::load)).contains(IPHONE);
+        assertThat(cache.getByCode("IPHONE16", this::load)).contains(IPHONE);
+        assertThat(cache.getById("p1", this::load)).contains(IPHONE);
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void loadRacingAnEvictionIsNotStored() {
+        ProductCache cache = new ProductCache(properties);
+
+        // The product is changed while its old version is being read
+        Optional<Product> read = cache.getById("p1", generation -> {
+            cache.evict(IPHONE);
+            return load(generation);
+        });
+
+        assertThat(read).contains(IPHONE);
+        assertThat(cache.peekById("p1")).isEmpty();
+        assertThat(cache.peekByCode("IPHONE16")).isEmpty();
+    }
+
+    @Test
+    void evictionAdvancesTheGenerationGivenToTheLoader() {
+        ProductCache cache = new ProductCache(properties);
+        List<Long> generations = new ArrayList<>();
+
+        cache.getByCode("IPHONE16", generation -> {
+            generations.add(generation);
+            return Optional.empty();
+        });
+        cache.evict(IPHONE);
+        cache.getByCode("IPHONE16", generation -> {
+            generations.add(generation);
+            return Optional.empty();
+        });
+
+        assertThat(generations).hasSize(2);
+        assertThat(generations.get(1)).isGreaterThan(generations.get(0));
+    }
+
+    @Test
+    void evictionOfAnotherProductKeepsTheLoad() {
+        ProductCache cache = new ProductCache(properties);
+
+        cache.getById("p1", generation -> {
+            cache.evict(Product.builder().id("p2").code("GALAXY25").build());
+            return load(generation);
+        });
+
+        assertThat(cache.peekById("p1")).contains(IPHONE);
+    }
+
+    @Test
+    void evictByIdAlsoRemovesTheCodeTheIdEntryTells() {
+        ProductCache cache = new ProductCache(properties);
+        cache.getById("p1", this::load);
+
+        cache.evictById("p1");
+
+        assertThat(cache.peekById("p1")).isEmpty();
+        assertThat(cache.peekByCode("IPHONE16")).isEmpty();
+    }
+
+    @Test
+    void staleCopyIsServedWhileMongoIsUnavailable() {
+        properties.setTtl(Duration.ofNanos(1));
+        properties.setServeStale(true);
+        ProductCache cache = new ProductCache(properties);
+        cache.getById("p1", this::load);
+
+        Optional<Product> read = cache.getByCode("IPHONE16", generation -> {
+            throw new DataAccessResourceFailureException("Timed out");
+        });
+
+        assertThat(read).contains(IPHONE);
+        assertThat(cache.stats().getStaleHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void unavailableMongoFailsWithoutAStaleCopy() {
+        ProductCache cache = new ProductCache(properties);
+
+        assertThatThrownBy(() -> cache.getById("p1", generation -> {
+            throw new DataAccessResourceFailureException("Timed out");
+        })).isInstanceOf(DataAccessResourceFailureException.class);
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        properties.setEnabled(false);
+        ProductCache cache = new ProductCache(properties);
+
+        cache.getById("p1", this::load);
+        cache.getById("p1", this::load);
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.peekById("p1")).isEmpty();
+    }
+
+    private Optional<Product> load(long generation) {
+        loads.incrementAndGet();
+        return Optional.of(IPHONE);
+    }
+}
@@ -0,0 +1,103 @@
+package com.psouza.online.sales.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs with an empty window, so every release recomputes the limit, and a smoothing of 1, so the
+ * limit moves straight to each new estimate.
+ */
+class AdaptiveLimiterTest {
+
+    private static final long FAST = 1_000_000;
+    private static final long SLOW = 10_000_000;
+
+    @Test
+    void requestsOverTheLimitAreRejectedUntilOneIsReleased() {
+        AdaptiveLimiter limiter = limiter(2, 1, 10);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+
+        limiter.release(FAST, false);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void initialLimitIsKeptWithinTheBounds() {
+        assertThat(limiter(100, 1, 10).getLimit()).isEqualTo(10);
+        assertThat(limiter(0, 2, 10).getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void steadyLatencyGrowsAUsedLimitByItsSquareRoot() {
+        AdaptiveLimiter limiter = limiter(16, 1, 100);
+        acquire(limiter, 16);
+
+        limiter.release(FAST, false);
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void risingLatencyShrinksTheLimit() {
+        AdaptiveLimiter limiter = limiter(16, 1, 100);
+        acquire(limiter, 16);
+        limiter.release(FAST, false);
+
+        limiter.release(SLOW, false);
+
+        // The gradient bottoms out at half the limit, plus its square root
+        assertThat(limiter.getLimit()).isCloseTo(10 + Math.sqrt(20), within(1e-9));
+    }
+
+    @Test
+    void failedRequestCutsTheLimitByATenth() {
+        AdaptiveLimiter limiter = limiter(10, 8, 100);
+        acquire(limiter, 3);
+
+        limiter.release(FAST, true);
+        assertThat(limiter.getLimit()).isCloseTo(9, within(1e-9));
+
+        limiter.release(FAST, true);
+        limiter.release(FAST, true);
+        assertThat(limiter.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    void limitLessThanHalfUsedDoesNotGrow() {
+        AdaptiveLimiter limiter = limiter(10, 1, 100);
+        acquire(limiter, 4);
+
+        limiter.release(FAST, false);
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void limitDoesNotGrowPastTheMaximum() {
+        AdaptiveLimiter limiter = limiter(10, 1, 12);
+        acquire(limiter, 10);
+
+        limiter.release(FAST, false);
+        limiter.release(FAST, false);
+
+        assertThat(limiter.getLimit()).isEqualTo(12);
+    }
+
+    private static AdaptiveLimiter limiter(int initialLimit, int minLimit, int maxLimit) {
+        return new AdaptiveLimiter(initialLimit, minLimit, maxLimit, 1.5, 1.0, Duration.ZERO);
+    }
+
+    private static void acquire(AdaptiveLimiter limiter, int requests) {
+        for (int i = 0; i < requests; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.psouza.online.sales.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.psouza.online.sales.cache.LookupCoalescer;
+import com.psouza.online.sales.cache.ProductCache;
+import com.psouza.online.sales.config.ProductCacheProperties;
+import com.psouza.online.sales.config.ProductListingProperties;
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.grpc.proto.BatchGetRequest;
+import com.psouza.online.sales.grpc.proto.BatchGetResponse;
+import com.psouza.online.sales.grpc.proto.Decimal;
+import com.psouza.online.sales.grpc.proto.GetByCodeRequest;
+import com.psouza.online.sales.grpc.proto.GetByIdRequest;
+import com.psouza.online.sales.grpc.proto.ProductLookupGrpc;
+import com.psouza.online.sales.repository.IProductRepository;
+import com.psouza.online.sales.usecase.SearchProduct;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Calls {@link ProductGrpcService} through an in-process channel, so the requests and responses go
+ * through the generated stubs and the protobuf encoding like those of a remote client.
+ */
+class ProductGrpcServiceTest {
+
+    private static final Product IPHONE = Product.builder()
+            .id("p1")
+            .code("IPHONE16")
+            .name("iPhone 16")
+            .description("iPhone 16.")
+            .value(new BigDecimal("5500.00"))
+            .updatedAt(Instant.parse("2024-10-01T12:30:15.123456789Z"))
+            .version(3L)
+            .build();
+
+    private final IProductRepository productRepository = mock(IProductRepository.class);
+    private Server server;
+    private ManagedChannel channel;
+    private ProductLookupGrpc.ProductLookupBlockingStub stub;
+
+    @BeforeEach
+    void start() throws Exception {
+        SearchProduct searchProduct = new SearchProduct(productRepository,
+                new ProductCache(new ProductCacheProperties()), new LookupCoalescer(new SimpleMeterRegistry()),
+                new ProductListingProperties(), 3);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new ProductGrpcService(searchProduct))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        stub = ProductLookupGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        channel.shutdownNow();
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void getByIdReturnsTheProduct() {
+        when(productRepository.findById("p1")).thenReturn(Optional.of(IPHONE));
+
+        com.psouza.online.sales.grpc.proto.Product message = stub.getById(GetByIdRequest.newBuilder().setId("p1").build());
+
+        assertThat(ProductMessages.toProduct(message)).usingRecursiveComparison().isEqualTo(IPHONE);
+    }
+
+    @Test
+    void unknownIdOrCodeIsNotFound() {
+        when(productRepository.findById("none")).thenReturn(Optional.empty());
+        when(productRepository.findByCode("NONE")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> stub.getById(GetByIdRequest.newBuilder().setId("none").build()))
+                .isInstanceOfSatisfying(StatusRuntimeException.class, ex -> {
+                    assertThat(ex.getStatus().getCode()).isEqualTo(Status.Code.NOT_FOUND);
+                    assertThat(ex.getStatus().getDescription()).contains("none");
+                });
+        assertThatThrownBy(() -> stub.getByCode(GetByCodeRequest.newBuilder().setCode("NONE").build()))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        ex -> assertThat(ex.getStatus().getCode()).isEqualTo(Status.Code.NOT_FOUND));
+    }
+
+    @Test
+    void batchWithIdsAndCodesOrTooManyKeysIsInvalid() {
+        BatchGetRequest both = BatchGetRequest.newBuilder().addIds("p1").addCodes("IPHONE16").build();
+        BatchGetRequest none = BatchGetRequest.newBuilder().build();
+        BatchGetRequest tooMany = BatchGetRequest.newBuilder().addAllIds(List.of("a", "b", "c", "d")).build();
+
+        for (BatchGetRequest request : List.of(both, none, tooMany)) {
+            assertThatThrownBy(() -> stub.batchGet(request).forEachRemaining(response -> { }))
+                    .isInstanceOfSatisfying(StatusRuntimeException.class,
+                            ex -> assertThat(ex.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT));
+        }
+    }
+
+    @Test
+    void batchStreamsTheProductsThenTheMissingKeys() {
+        Product other = Product.builder().id("p2").code("IPAD").name("iPad").value(new BigDecimal("4999.90")).build();
+        when(productRepository.findAllById(any())).thenReturn(List.of(other, IPHONE));
+
+        List<BatchGetResponse> responses = new ArrayList<>();
+        stub.batchGet(BatchGetRequest.newBuilder().addAllIds(List.of("p1", "gone", "p2")).build())
+                .forEachRemaining(responses::add);
+
+        assertThat(responses).extracting(BatchGetResponse::getKey).containsExactly("p1", "p2", "gone");
+        assertThat(responses.get(0).getProduct().getCode()).isEqualTo("IPHONE16");
+        assertThat(responses.get(1).getProduct().getCode()).isEqualTo("IPAD");
+        assertThat(responses.get(2).getMissing()).isTrue();
+        assertThat(responses.get(2).hasProduct()).isFalse();
+    }
+
+    @Test
+    void unexpectedFailureIsInternalWithoutDetails() {
+        when(productRepository.findByCode("BOOM")).thenThrow(new IllegalStateException("connection reset"));
+
+        assertThatThrownBy(() -> stub.getByCode(GetByCodeRequest.newBuilder().setCode("BOOM").build()))
+                .isInstanceOfSatisfying(StatusRuntimeException.class, ex -> {
+                    assertThat(ex.getStatus().getCode()).isEqualTo(Status.Code.INTERNAL);
+                    assertThat(ex.getStatus().getDescription()).doesNotContain("connection reset");
+                });
+    }
+
+    @Test
+    void decimalsKeepTheirValueAndScale() {
+        for (String value : List.of("5500.00", "0.01", "-12.5", "0", "1E+3", "12345678901234567890.99")) {
+            BigDecimal decimal = new BigDecimal(value);
+            Decimal message = ProductMessages.toDecimal(decimal);
+
+            BigDecimal decoded = ProductMessages.toBigDecimal(message);
+
+            assertThat(decoded).isEqualTo(decimal);
+            assertThat(decoded.scale()).isEqualTo(decimal.scale());
+        }
+    }
+}
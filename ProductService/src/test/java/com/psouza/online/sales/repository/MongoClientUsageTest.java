@@ -0,0 +1,99 @@
+package com.psouza.online.sales.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+
+/**
+ * The usage a replaced client is retired by, and the snapshots the adaptive sizing reads.
+ */
+class MongoClientUsageTest {
+
+    private static final ServerId SERVER = new ServerId(new ClusterId(), new ServerAddress());
+    private static final ConnectionId CONNECTION = new ConnectionId(SERVER);
+    private static final ConnectionDescription DESCRIPTION = new ConnectionDescription(SERVER);
+
+    private final MongoClientUsage usage = new MongoClientUsage();
+
+    @Test
+    void connectionCheckedOutKeepsTheClientBusy() {
+        usage.connectionCheckedOut(new ConnectionCheckedOutEvent(CONNECTION, 1, 0));
+        assertThat(usage.isIdle()).isFalse();
+
+        usage.connectionCheckedIn(new ConnectionCheckedInEvent(CONNECTION, 1));
+        assertThat(usage.isIdle()).isTrue();
+    }
+
+    @Test
+    void openCursorKeepsTheClientBusyUntilExhausted() {
+        succeeded(1, "find", cursor(42));
+        assertThat(usage.isIdle()).isFalse();
+
+        started(2, "getMore", new BsonDocument("getMore", new BsonInt64(42)));
+        succeeded(2, "getMore", cursor(42));
+        assertThat(usage.isIdle()).isFalse();
+
+        started(3, "getMore", new BsonDocument("getMore", new BsonInt64(42)));
+        succeeded(3, "getMore", cursor(0));
+        assertThat(usage.isIdle()).isTrue();
+    }
+
+    @Test
+    void killedCursorNoLongerKeepsTheClientBusy() {
+        succeeded(1, "aggregate", cursor(7));
+
+        started(2, "killCursors", new BsonDocument("killCursors", new BsonInt64(1))
+                .append("cursors", new BsonArray(List.of(new BsonInt64(7)))));
+
+        assertThat(usage.isIdle()).isTrue();
+    }
+
+    @Test
+    void snapshotReportsThePeakAndMeanWaitSinceThePreviousOne() {
+        usage.connectionCheckedOut(new ConnectionCheckedOutEvent(CONNECTION, 1, TimeUnit.MILLISECONDS.toNanos(2)));
+        usage.connectionCheckedOut(new ConnectionCheckedOutEvent(CONNECTION, 2, TimeUnit.MILLISECONDS.toNanos(4)));
+        usage.connectionCheckedIn(new ConnectionCheckedInEvent(CONNECTION, 1));
+        usage.connectionCheckOutFailed(new ConnectionCheckOutFailedEvent(SERVER, 3,
+                ConnectionCheckOutFailedEvent.Reason.TIMEOUT, 0));
+
+        MongoClientUsage.Snapshot first = usage.snapshot();
+        assertThat(first.getPeakInUse()).isEqualTo(2);
+        assertThat(first.getMeanWaitNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(3));
+        assertThat(first.getTimeouts()).isEqualTo(1);
+
+        // The next peak starts from the connection still in use
+        MongoClientUsage.Snapshot second = usage.snapshot();
+        assertThat(second.getPeakInUse()).isEqualTo(1);
+        assertThat(second.getMeanWaitNanos()).isZero();
+        assertThat(second.getTimeouts()).isZero();
+    }
+
+    private void started(int requestId, String command, BsonDocument body) {
+        usage.commandStarted(new CommandStartedEvent(null, 1, requestId, DESCRIPTION, "online_sales", command, body));
+    }
+
+    private void succeeded(int requestId, String command, BsonDocument response) {
+        usage.commandSucceeded(new CommandSucceededEvent(null, 1, requestId, DESCRIPTION, "online_sales", command, response, 0));
+    }
+
+    private static BsonDocument cursor(long id) {
+        return new BsonDocument("cursor", new BsonDocument("id", new BsonInt64(id)));
+    }
+}
@@ -0,0 +1,112 @@
+package com.psouza.online.sales.repository;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.psouza.online.sales.config.MongoPoolProperties;
+
+class MongoPoolSizerTest {
+
+    private final ResizableMongoDatabaseFactory databaseFactory = mock(ResizableMongoDatabaseFactory.class);
+    private final MongoPoolProperties properties = new MongoPoolProperties();
+    private final MongoPoolSizer sizer = new MongoPoolSizer(databaseFactory, properties);
+
+    @BeforeEach
+    void adaptive() {
+        properties.getAdaptive().setEnabled(true);
+        properties.getAdaptive().setWaitThreshold(Duration.ofMillis(5));
+        properties.getAdaptive().setShrinkAfter(2);
+        properties.getAdaptive().setHighestMaxSize(40);
+        when(databaseFactory.getPoolSettings()).thenReturn(properties.toPoolSettings(20));
+    }
+
+    @Test
+    void checkoutTimeoutsGrowThePool() {
+        usage(5, 100, 0, 1);
+
+        sizer.adapt();
+
+        verify(databaseFactory).resize(maxSize(30));
+    }
+
+    @Test
+    void fullPoolWithLongWaitsGrows() {
+        usage(20, 10, TimeUnit.MILLISECONDS.toNanos(10 * 10), 0);
+
+        sizer.adapt();
+
+        verify(databaseFactory).resize(maxSize(30));
+    }
+
+    @Test
+    void fullPoolWithShortWaitsKeepsItsSize() {
+        usage(20, 10, TimeUnit.MILLISECONDS.toNanos(10), 0);
+
+        sizer.adapt();
+
+        verify(databaseFactory).resize(maxSize(20));
+    }
+
+    @Test
+    void growthStopsAtTheHighestMaxSize() {
+        when(databaseFactory.getPoolSettings()).thenReturn(properties.toPoolSettings(35));
+        usage(5, 100, 0, 1);
+
+        sizer.adapt();
+
+        verify(databaseFactory).resize(maxSize(40));
+    }
+
+    @Test
+    void quietPoolShrinksToItsPeakAfterEnoughIntervals() {
+        usage(4, 100, 0, 0);
+        sizer.adapt();
+        verify(databaseFactory, never()).resize(maxSize(12));
+
+        usage(6, 100, 0, 0);
+        sizer.adapt();
+
+        // The peak of the quiet intervals fills shrink-utilization, 0.5, of the pool, within the bounds
+        verify(databaseFactory).resize(maxSize(12));
+    }
+
+    @Test
+    void busyIntervalRestartsTheQuietCount() {
+        usage(4, 100, 0, 0);
+        sizer.adapt();
+        usage(15, 100, 0, 0);
+        sizer.adapt();
+        usage(4, 100, 0, 0);
+        sizer.adapt();
+
+        verify(databaseFactory, never()).resize(maxSize(10));
+    }
+
+    @Test
+    void refreshWithoutTheAdaptiveModeAppliesTheConfiguredSize() {
+        properties.getAdaptive().setEnabled(false);
+        properties.setMaxSize(50);
+
+        sizer.refreshed();
+
+        verify(databaseFactory).resize(maxSize(50));
+    }
+
+    private void usage(int peakInUse, long checkouts, long waitNanos, long timeouts) {
+        when(databaseFactory.usageSnapshot()).thenReturn(new MongoClientUsage.Snapshot(peakInUse, checkouts, waitNanos, timeouts));
+    }
+
+    private static ConnectionPoolSettings maxSize(int maxSize) {
+        return argThat(pool -> pool != null && pool.getMaxSize() == maxSize);
+    }
+}
@@ -0,0 +1,195 @@
+package com.psouza.online.sales.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.domain.ProductFilter;
+
+/**
+ * Checks the filtered product queries against the indexes declared on {@link Product} without a
+ * database: every supported filter and sort must give MongoDB index bounds or an index order to
+ * follow, since with neither the planner can only scan the collection. The endpoint, which runs
+ * explain on a live database, is checked to flag the collection scans of the plans it reads.
+ */
+class ProductQueryPlanEndpointTest {
+
+    private final MongoMappingContext mappingContext = new MongoMappingContext();
+    private final QueryMapper queryMapper;
+
+    ProductQueryPlanEndpointTest() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        queryMapper = new QueryMapper(converter);
+    }
+
+    @Test
+    void everySupportedFilterAndSortIsServedByAnIndex() {
+        List<Document> indexes = indexKeys();
+        List<String> scans = new ArrayList<>();
+        for (Map.Entry<String, ProductFilter> filter : ProductQueryPlanEndpoint.FILTERS) {
+            for (Sort sort : ProductQueryPlanEndpoint.SORTS) {
+                Document[] mapped = map(filter.getValue(), sort);
+                if (!servedByIndex(mapped[0], mapped[1], indexes)) {
+                    scans.add(filter.getKey() + " sorted by " + sort);
+                }
+            }
+        }
+        assertThat(scans).as("filters and sorts no index serves").isEmpty();
+    }
+
+    @Test
+    void boundsAreIndexable() {
+        ProductFilter filter = new ProductFilter(new BigDecimal("100.00"), new BigDecimal("500.00"), "Apple (new)");
+        Document query = map(filter, Sort.unsorted())[0];
+
+        // A string bound would match no stored value
+        Document value = query.get("value", Document.class);
+        assertThat(value.get("$gte")).isEqualTo(new Decimal128(new BigDecimal("100.00")));
+        assertThat(value.get("$lte")).isEqualTo(new Decimal128(new BigDecimal("500.00")));
+
+        // Only an anchored, case sensitive regex becomes index bounds
+        Pattern name = (Pattern) query.get("name");
+        assertThat(name.pattern()).isEqualTo("^Apple \\(new\\)");
+        assertThat(name.flags() & Pattern.CASE_INSENSITIVE).isZero();
+    }
+
+    @Test
+    void queryWithoutIndexedFieldIsReportedAsScan() {
+        Document query = new Document("description", "phone");
+        Document sort = new Document("description", 1);
+        assertThat(servedByIndex(query, sort, indexKeys())).isFalse();
+    }
+
+    @Test
+    void collectWalksClassicAndSlotBasedPlans() {
+        Document classic = new Document("stage", "LIMIT")
+                .append("inputStage", new Document("stage", "FETCH")
+                        .append("inputStage", new Document("stage", "IXSCAN").append("indexName", "value_id")));
+        List<String> stages = new ArrayList<>();
+        List<String> indexes = new ArrayList<>();
+        ProductQueryPlanEndpoint.collect(new Document("queryPlan", classic).append("slotBasedPlan", new Document()),
+                stages, indexes);
+        assertThat(stages).containsExactly("LIMIT", "FETCH", "IXSCAN");
+        assertThat(indexes).containsExactly("value_id");
+
+        Document merged = new Document("stage", "SORT_MERGE")
+                .append("inputStages", List.of(
+                        new Document("stage", "IXSCAN").append("indexName", "name_value"),
+                        new Document("stage", "COLLSCAN")));
+        stages.clear();
+        indexes.clear();
+        ProductQueryPlanEndpoint.collect(merged, stages, indexes);
+        assertThat(stages).containsExactly("SORT_MERGE", "IXSCAN", "COLLSCAN");
+    }
+
+    @Test
+    void planWithCollectionScanIsFlagged() {
+        IProductRepository repository = mock(IProductRepository.class);
+        Document indexScan = new Document("winningPlan", new Document("stage", "FETCH")
+                .append("inputStage", new Document("stage", "IXSCAN").append("indexName", "value_id")));
+        Document collectionScan = new Document("winningPlan", new Document("stage", "SORT")
+                .append("inputStage", new Document("stage", "COLLSCAN")));
+        when(repository.explainFiltered(any(), any())).thenReturn(indexScan, collectionScan);
+
+        List<ProductQueryPlan> plans = new ProductQueryPlanEndpoint(repository).plans();
+
+        assertThat(plans).hasSize(ProductQueryPlanEndpoint.FILTERS.size() * ProductQueryPlanEndpoint.SORTS.size());
+        assertThat(plans.get(0).isCollectionScan()).isFalse();
+        assertThat(plans.get(0).getIndexes()).containsExactly("value_id");
+        assertThat(plans.subList(1, plans.size())).allMatch(ProductQueryPlan::isCollectionScan);
+    }
+
+    /**
+     * @return the mapped query and sort the repository sends for the first page of the filter
+     */
+    private Document[] map(ProductFilter filter, Sort sort) {
+        MongoPersistentEntity<?> entity = mappingContext.getRequiredPersistentEntity(Product.class);
+        Query query = IProductRepositoryCustomImpl.filteredQuery(filter, PageRequest.of(0, 20, sort));
+        return new Document[] {
+                queryMapper.getMappedObject(query.getQueryObject(), entity),
+                queryMapper.getMappedSort(query.getSortObject(), entity)};
+    }
+
+    /**
+     * The key patterns of the _id index and of the indexes declared on the entity, leaving out the
+     * text index, which serves neither ranges nor sorts.
+     */
+    private List<Document> indexKeys() {
+        List<Document> keys = new ArrayList<>();
+        keys.add(new Document("_id", 1));
+        for (IndexDefinition index : new MongoPersistentEntityIndexResolver(mappingContext).resolveIndexFor(Product.class)) {
+            Document indexKeys = index.getIndexKeys();
+            if (indexKeys.values().stream().allMatch(Number.class::isInstance)) {
+                keys.add(indexKeys);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Mirrors when the query planner can use an index: the query constrains its leading field, which
+     * gives the scan bounds, or the sort is a prefix of its keys in the same or the reverse order.
+     */
+    private static boolean servedByIndex(Document query, Document sort, List<Document> indexes) {
+        for (Document index : indexes) {
+            List<String> fields = new ArrayList<>(index.keySet());
+            if (query.containsKey(fields.get(0))) {
+                return true;
+            }
+            if (!sort.isEmpty() && isPrefix(sort, index)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPrefix(Document sort, Document index) {
+        List<String> sortFields = new ArrayList<>(sort.keySet());
+        List<String> indexFields = new ArrayList<>(index.keySet());
+        if (sortFields.size() > indexFields.size()) {
+            return false;
+        }
+        Boolean reversed = null;
+        for (int i = 0; i < sortFields.size(); i++) {
+            if (!sortFields.get(i).equals(indexFields.get(i))) {
+                return false;
+            }
+            boolean same = ((Number) sort.get(sortFields.get(i))).intValue()
+                    == ((Number) index.get(indexFields.get(i))).intValue();
+            if (reversed == null) {
+                reversed = !same;
+            } else if (reversed == same) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
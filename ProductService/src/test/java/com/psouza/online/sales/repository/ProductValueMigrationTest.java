@@ -0,0 +1,65 @@
+package com.psouza.online.sales.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.mongodb.client.result.UpdateResult;
+import com.psouza.online.sales.domain.Product;
+
+class ProductValueMigrationTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+    @Test
+    void convertsOnlyStringValuesInPlace() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(3, 3L, null));
+
+        long converted = new ProductValueMigration(mongoTemplate, true).convertStringValues();
+
+        assertThat(converted).isEqualTo(3);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(Product.class));
+
+        assertThat(query.getValue().getQueryObject().toJson()).isEqualTo("{\"value\": {\"$type\": [\"string\"]}}");
+        // A pipeline update, so the new value is computed from the stored one
+        assertThat(update.getValue()).isInstanceOf(AggregationUpdate.class);
+        List<Document> pipeline = ((AggregationUpdate) update.getValue()).toPipeline(Aggregation.DEFAULT_CONTEXT);
+        Document convert = pipeline.get(0).get("$set", Document.class).get("value", Document.class).get("$convert", Document.class);
+        assertThat(convert.get("input")).isEqualTo("$value");
+        assertThat(convert.get("to")).isEqualTo("decimal");
+        assertThat(convert.get("onError")).isEqualTo("$value");
+    }
+
+    @Test
+    void disabledMigrationDoesNotTouchTheCollection() {
+        new ProductValueMigration(mongoTemplate, false).ready();
+
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Product.class));
+    }
+
+    @Test
+    void failedMigrationDoesNotStopTheService() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Product.class)))
+                .thenThrow(new IllegalStateException("not primary"));
+
+        new ProductValueMigration(mongoTemplate, true).ready();
+    }
+}
@@ -0,0 +1,119 @@
+package com.psouza.online.sales.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.connection.ConnectionPoolSettings;
+
+/**
+ * Runs against an address nothing listens on: the clients are built and closed, and an operation
+ * fails fast on server selection while its client is open, and at once once it is closed.
+ */
+class ResizableMongoDatabaseFactoryTest {
+
+    private static final MongoClientSettings SETTINGS = MongoClientSettings.builder()
+            .applyConnectionString(new ConnectionString("mongodb://localhost:1/online_sales"))
+            .applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(50, TimeUnit.MILLISECONDS))
+            .build();
+
+    private ResizableMongoDatabaseFactory factory;
+
+    @AfterEach
+    void close() {
+        if (factory != null) {
+            factory.destroy();
+        }
+    }
+
+    @Test
+    void sameSettingsKeepTheClient() {
+        factory = factory(Duration.ofSeconds(30));
+
+        assertThat(factory.resize(pool(10))).isFalse();
+    }
+
+    @Test
+    void resizeSwitchesToTheNewSettings() throws InterruptedException {
+        factory = factory(Duration.ofSeconds(30));
+
+        assertThat(factory.resize(pool(20))).isTrue();
+        assertThat(factory.resize(pool(20))).isFalse();
+
+        await(() -> factory.getPoolSettings().getMaxSize() == 20);
+    }
+
+    @Test
+    void replacedClientIsClosedOnceIdleAfterTheRetireDelay() throws InterruptedException {
+        factory = factory(Duration.ZERO);
+        MongoDatabase before = factory.getMongoDatabase();
+
+        factory.resize(pool(20));
+        await(() -> closed(before));
+
+        assertThat(closed(factory.getMongoDatabase())).isFalse();
+    }
+
+    @Test
+    void replacedClientIsKeptForTheRetireDelay() throws InterruptedException {
+        factory = factory(Duration.ofMinutes(1));
+        MongoDatabase before = factory.getMongoDatabase();
+
+        factory.resize(pool(20));
+        await(() -> factory.getPoolSettings().getMaxSize() == 20);
+
+        assertThat(closed(before)).isFalse();
+    }
+
+    @Test
+    void destroyClosesTheClientInUse() {
+        factory = factory(Duration.ofSeconds(30));
+        MongoDatabase database = factory.getMongoDatabase();
+
+        factory.destroy();
+
+        assertThatThrownBy(() -> database.runCommand(new Document("ping", 1))).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static ResizableMongoDatabaseFactory factory(Duration retireDelay) {
+        return new ResizableMongoDatabaseFactory(pool(10), SETTINGS, List.of(), "online_sales",
+                () -> retireDelay, () -> Duration.ofSeconds(5));
+    }
+
+    private static ConnectionPoolSettings pool(int maxSize) {
+        return ConnectionPoolSettings.builder().maxSize(maxSize).build();
+    }
+
+    /**
+     * @return whether the client of the database was closed, rather than only unable to reach the server
+     */
+    private static boolean closed(MongoDatabase database) {
+        try {
+            database.runCommand(new Document("ping", 1));
+            return false;
+        } catch (IllegalStateException ex) {
+            return true;
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("condition met in time").isNegative();
+            Thread.sleep(20);
+        }
+    }
+}
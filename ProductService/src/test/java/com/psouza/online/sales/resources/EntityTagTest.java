@@ -0,0 +1,52 @@
+package com.psouza.online.sales.resources;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.psouza.online.sales.exception.PreconditionFailedException;
+
+class EntityTagTest {
+
+    @Test
+    void rendersIdAndVersion() {
+        assertThat(EntityTag.of("p1", 3L)).hasToString("\"p1-3\"");
+        assertThat(EntityTag.of("p1", null)).hasToString("\"p1-0\"");
+        assertThat(EntityTag.of("p1", 3L).weak()).hasToString("W/\"p1-3\"");
+    }
+
+    @Test
+    void parsesTheLastDashAsTheVersionSeparator() {
+        EntityTag tag = EntityTag.parse(" \"a-b-c-12\" ");
+
+        assertThat(tag.getId()).isEqualTo("a-b-c");
+        assertThat(tag.getVersion()).isEqualTo(12L);
+    }
+
+    @Test
+    void weakOrMalformedIfMatchIsPreconditionFailed() {
+        for (String header : new String[] {"W/\"p1-3\"", "p1-3", "\"p1\"", "\"p1-x\"", "\"-3\"", "\""}) {
+            assertThatThrownBy(() -> EntityTag.parse(header)).as(header).isInstanceOf(PreconditionFailedException.class);
+        }
+    }
+
+    @Test
+    void asteriskMatchesAnyVersion() {
+        assertThat(EntityTag.isAny(" * ")).isTrue();
+        assertThat(EntityTag.isAny("\"p1-3\"")).isFalse();
+        assertThat(EntityTag.of("p1", 3L).matchesAny("*")).isTrue();
+    }
+
+    @Test
+    void ifNoneMatchComparesWeakly() {
+        EntityTag strong = EntityTag.of("p1", 3L);
+        EntityTag weak = strong.weak();
+
+        assertThat(strong.matchesAny("\"p1-2\", \"p1-3\"")).isTrue();
+        assertThat(strong.matchesAny("W/\"p1-3\"")).isTrue();
+        assertThat(weak.matchesAny("W/\"p1-3\"")).isTrue();
+        assertThat(weak.matchesAny("\"p1-3\"")).isTrue();
+        assertThat(strong.matchesAny("\"p1-2\", W/\"p2-3\"")).isFalse();
+    }
+}
@@ -0,0 +1,130 @@
+package com.psouza.online.sales.resources;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.psouza.online.sales.config.JacksonConfig;
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.exception.PreconditionFailedException;
+import com.psouza.online.sales.metrics.ErrorMetrics;
+import com.psouza.online.sales.usecase.ProductBulkRegistration;
+import com.psouza.online.sales.usecase.ProductExport;
+import com.psouza.online.sales.usecase.ProductRegistration;
+import com.psouza.online.sales.usecase.SearchProduct;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Entity tags and conditional requests of the product lookups and updates.
+ */
+@WebMvcTest(controllers = ProductResource.class, properties = "spring.cloud.config.fail-fast=false")
+@Import({JacksonConfig.class, ErrorMetrics.class, SimpleMeterRegistry.class})
+class ProductResourceTest {
+
+    private static final String BODY = "{\"code\":\"IPHONE16\",\"name\":\"iPhone 16\",\"description\":\"iPhone 16.\",\"value\":5000.00}";
+
+    private static final Product IPHONE = Product.builder()
+            .id("p1")
+            .code("IPHONE16")
+            .name("iPhone 16")
+            .description("iPhone 16.")
+            .value(new BigDecimal("5500.00"))
+            .version(3L)
+            .build();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private SearchProduct searchProduct;
+
+    @MockitoBean
+    private ProductRegistration productRegistration;
+
+    @MockitoBean
+    private ProductBulkRegistration productBulkRegistration;
+
+    @MockitoBean
+    private ProductExport productExport;
+
+    @Test
+    void wholeProductHasAStrongTag() throws Exception {
+        when(searchProduct.searchById("p1", null)).thenReturn(IPHONE);
+
+        mockMvc.perform(get("/product/p1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"p1-3\""))
+                .andExpect(jsonPath("$.code").value("IPHONE16"));
+    }
+
+    @Test
+    void projectionHasAWeakTag() throws Exception {
+        when(searchProduct.searchByCode("IPHONE16", Set.of("id", "name", "version"))).thenReturn(IPHONE);
+
+        mockMvc.perform(get("/product/code/IPHONE16").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"p1-3\""))
+                .andExpect(jsonPath("$.name").value("iPhone 16"))
+                .andExpect(jsonPath("$.code").doesNotExist());
+    }
+
+    @Test
+    void currentTagInIfNoneMatchIsNotModified() throws Exception {
+        when(searchProduct.searchVersionById("p1")).thenReturn(Optional.of(IPHONE));
+
+        mockMvc.perform(get("/product/p1").param("fields", "name").header(HttpHeaders.IF_NONE_MATCH, "W/\"p1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"p1-3\""));
+    }
+
+    @Test
+    void ifMatchUpdatesTheVersionItNames() throws Exception {
+        Product updated = Product.builder().id("p1").code("IPHONE16").version(4L).build();
+        when(productRegistration.update(any(Product.class), eq("p1"), eq(3L))).thenReturn(updated);
+
+        mockMvc.perform(put("/product").header(HttpHeaders.IF_MATCH, "\"p1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"p1-4\""));
+    }
+
+    @Test
+    void staleIfMatchIsPreconditionFailed() throws Exception {
+        when(productRegistration.update(any(Product.class), eq("p1"), eq(2L)))
+                .thenThrow(new PreconditionFailedException("Product was changed since it was read, code IPHONE16"));
+
+        mockMvc.perform(put("/product").header(HttpHeaders.IF_MATCH, "\"p1-2\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message").value("Product was changed since it was read, code IPHONE16"));
+    }
+
+    @Test
+    void weakTagOfAProjectionCannotBeUsedInIfMatch() throws Exception {
+        mockMvc.perform(put("/product").header(HttpHeaders.IF_MATCH, "W/\"p1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isPreconditionFailed());
+
+        verifyNoInteractions(productRegistration);
+    }
+}
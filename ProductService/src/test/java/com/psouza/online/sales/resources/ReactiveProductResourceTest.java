@@ -0,0 +1,153 @@
+package com.psouza.online.sales.resources;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.psouza.online.sales.config.JacksonConfig;
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.domain.ProductFilter;
+import com.psouza.online.sales.exception.PreconditionFailedException;
+import com.psouza.online.sales.metrics.ErrorMetrics;
+import com.psouza.online.sales.usecase.ReactiveProductRegistration;
+import com.psouza.online.sales.usecase.ReactiveSearchProduct;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+@ActiveProfiles("reactive")
+@WebFluxTest(controllers = ReactiveProductResource.class, properties = "spring.cloud.config.fail-fast=false")
+@Import({JacksonConfig.class, ErrorMetrics.class, SimpleMeterRegistry.class})
+class ReactiveProductResourceTest {
+
+    private static final Product IPHONE = Product.builder()
+            .id("p1")
+            .code("IPHONE16")
+            .name("iPhone 16")
+            .description("iPhone 16.")
+            .value(new BigDecimal("5500.00"))
+            .version(3L)
+            .build();
+
+    @Autowired
+    private WebTestClient client;
+
+    @MockitoBean
+    private ReactiveSearchProduct searchProduct;
+
+    @MockitoBean
+    private ReactiveProductRegistration productRegistration;
+
+    @Test
+    void lookupSendsTheEntityTag() {
+        when(searchProduct.searchById("p1", null)).thenReturn(Mono.just(IPHONE));
+
+        client.get().uri("/product/p1").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"p1-3\"")
+                .expectBody().jsonPath("$.code").isEqualTo("IPHONE16");
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() {
+        when(searchProduct.searchByCode("IPHONE16", null)).thenReturn(Mono.just(IPHONE));
+
+        client.get().uri("/product/code/IPHONE16").header(HttpHeaders.IF_NONE_MATCH, "\"p1-2\", \"p1-3\"").exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"p1-3\"")
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void fieldsAreReadAndWritten() {
+        when(searchProduct.searchById(eq("p1"), eq(Set.of("id", "name", "version")))).thenReturn(Mono.just(IPHONE));
+
+        client.get().uri("/product/p1?fields=name").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"p1-3\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("iPhone 16")
+                .jsonPath("$.id").isEqualTo("p1")
+                .jsonPath("$.code").doesNotExist();
+    }
+
+    @Test
+    void weakTagOfAProjectionIsNotModified() {
+        when(searchProduct.searchById(eq("p1"), eq(Set.of("id", "name", "version")))).thenReturn(Mono.just(IPHONE));
+
+        client.get().uri("/product/p1?fields=name").header(HttpHeaders.IF_NONE_MATCH, "W/\"p1-3\"").exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"p1-3\"");
+    }
+
+    @Test
+    void weakTagIsNotAcceptedByIfMatch() {
+        client.put().uri("/product").header(HttpHeaders.IF_MATCH, "W/\"p1-3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"code\":\"IPHONE16\",\"name\":\"iPhone 16\",\"description\":\"iPhone 16.\",\"value\":5000.00}")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    @Test
+    void updateSendsTheTagOfIfMatch() {
+        Product updated = Product.builder().id("p1").code("IPHONE16").name("iPhone 16").value(new BigDecimal("5000.00")).version(4L).build();
+        when(productRegistration.update(any(Product.class), eq("p1"), eq(3L))).thenReturn(Mono.just(updated));
+
+        client.put().uri("/product").header(HttpHeaders.IF_MATCH, "\"p1-3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"code\":\"IPHONE16\",\"name\":\"iPhone 16\",\"description\":\"iPhone 16.\",\"value\":5000.00}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"p1-4\"");
+    }
+
+    @Test
+    void staleIfMatchIsPreconditionFailed() {
+        when(productRegistration.update(any(Product.class), eq("p1"), eq(2L)))
+                .thenReturn(Mono.error(new PreconditionFailedException("Product was changed since it was read, code IPHONE16")));
+
+        client.put().uri("/product").header(HttpHeaders.IF_MATCH, "\"p1-2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"code\":\"IPHONE16\",\"name\":\"iPhone 16\",\"description\":\"iPhone 16.\",\"value\":5000.00}")
+                .exchange()
+                .expectStatus().isEqualTo(412)
+                .expectBody().jsonPath("$.message").isEqualTo("Product was changed since it was read, code IPHONE16");
+    }
+
+    @Test
+    void filterParametersAreApplied() {
+        when(searchProduct.search(any(ProductFilter.class), any(), any(), any())).thenReturn(Mono.empty());
+
+        client.get().uri("/product?minValue=100.00&namePrefix=Apple").exchange().expectStatus().isOk();
+
+        ArgumentCaptor<ProductFilter> filter = ArgumentCaptor.forClass(ProductFilter.class);
+        verify(searchProduct).search(filter.capture(), any(), any(), any());
+        assertThat(filter.getValue().getMinValue()).isEqualByComparingTo("100.00");
+        assertThat(filter.getValue().getMaxValue()).isNull();
+        assertThat(filter.getValue().getNamePrefix()).isEqualTo("Apple");
+    }
+
+    @Test
+    void bulkRegistrationIsNotImplemented() {
+        client.post().uri("/product/bulk").contentType(MediaType.APPLICATION_JSON).bodyValue("[]").exchange()
+                .expectStatus().isEqualTo(501)
+                .expectBody().jsonPath("$.message").isEqualTo("Bulk registration is not available in the reactive mode");
+    }
+}
@@ -0,0 +1,99 @@
+package com.psouza.online.sales.usecase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.psouza.online.sales.domain.BulkItemResult;
+import com.psouza.online.sales.domain.BulkItemResult.Status;
+import com.psouza.online.sales.domain.BulkRegistrationResult;
+import com.psouza.online.sales.repository.IProductRepository;
+
+import jakarta.validation.Validation;
+
+class ProductBulkRegistrationTest {
+
+    private final IProductRepository productRepository = mock(IProductRepository.class);
+    private final ProductBulkRegistration bulkRegistration = new ProductBulkRegistration(productRepository,
+            new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(), 500, 2);
+
+    @Test
+    void duplicateIdIsToldFromDuplicateCode() {
+        when(productRepository.insertUnordered(anyList())).thenReturn(List.of(
+                duplicate(0, "_id_", "{ _id: \"p1\" }"),
+                duplicate(1, "code", "{ code: \"IPHONE16\" }")));
+
+        BulkRegistrationResult result = register(product("p1", "GALAXY") + "," + product("p2", "IPHONE16") + ","
+                + product("p3", "PIXEL"));
+
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(2);
+        assertThat(result.getRejectedItems()).extracting(BulkItemResult::getStatus)
+                .containsExactly(Status.DUPLICATE_ID, Status.DUPLICATE_CODE);
+        assertThat(result.isTruncated()).isFalse();
+    }
+
+    @Test
+    void otherWriteErrorsAreFailures() {
+        assertThat(ProductBulkRegistration.status(new BulkWriteError(121, "Document failed validation",
+                new BsonDocument(), 0))).isEqualTo(Status.FAILED);
+        assertThat(ProductBulkRegistration.status(new BulkWriteError(11000, "E11000 duplicate key error",
+                new BsonDocument(), 0))).isEqualTo(Status.FAILED);
+    }
+
+    /**
+     * The invalid items are rejected as they are read and the duplicate when the batch is written,
+     * after them: the report must still keep the first rejections in request order.
+     */
+    @Test
+    void reportListsOnlyTheFirstRejectedItems() {
+        when(productRepository.insertUnordered(anyList())).thenReturn(List.of(duplicate(0, "code", "{ code: \"GALAXY\" }")));
+
+        BulkRegistrationResult result = register(product("p1", "GALAXY") + ",{\"code\":\"A\"},{\"code\":\"B\"},"
+                + product("p4", "PIXEL") + ",{\"code\":\"C\"}");
+
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(4);
+        assertThat(result.getRejectedItems()).extracting(BulkItemResult::getIndex).containsExactly(0, 1);
+        assertThat(result.getRejectedItems()).extracting(BulkItemResult::getStatus)
+                .containsExactly(Status.DUPLICATE_CODE, Status.INVALID);
+        assertThat(result.isTruncated()).isTrue();
+    }
+
+    @Test
+    void loadWithoutRejectionsOnlyCountsTheInserts() {
+        when(productRepository.insertUnordered(anyList())).thenReturn(Collections.emptyList());
+
+        BulkRegistrationResult result = register(product("p1", "GALAXY") + "," + product("p2", "IPHONE16"));
+
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getRejected()).isZero();
+        assertThat(result.getRejectedItems()).isEmpty();
+        assertThat(result.isTruncated()).isFalse();
+    }
+
+    private BulkRegistrationResult register(String items) {
+        return bulkRegistration.register(new ByteArrayInputStream(("[" + items + "]").getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String product(String id, String code) {
+        return "{\"id\":\"" + id + "\",\"code\":\"" + code + "\",\"name\":\"" + code + "\",\"description\":\""
+                + code + ".\",\"value\":10.00}";
+    }
+
+    private static BulkWriteError duplicate(int index, String indexName, String key) {
+        return new BulkWriteError(11000, "E11000 duplicate key error collection: online_sales.product index: "
+                + indexName + " dup key: " + key, new BsonDocument(), index);
+    }
+}
@@ -0,0 +1,146 @@
+package com.psouza.online.sales.usecase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.psouza.online.sales.cache.LookupCoalescer;
+import com.psouza.online.sales.cache.ProductCache;
+import com.psouza.online.sales.config.ProductCacheProperties;
+import com.psouza.online.sales.config.ProductListingProperties;
+import com.psouza.online.sales.domain.BatchLookupRequest;
+import com.psouza.online.sales.domain.BatchLookupResult;
+import com.psouza.online.sales.domain.Product;
+import com.psouza.online.sales.exception.BadRequestException;
+import com.psouza.online.sales.repository.IProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SearchProductTest {
+
+    private static final Product BEFORE = product(new BigDecimal("10.00"), 1L);
+    private static final Product AFTER = product(new BigDecimal("12.00"), 2L);
+
+    private final IProductRepository productRepository = mock(IProductRepository.class);
+    private final ProductCache productCache = new ProductCache(new ProductCacheProperties());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SearchProduct searchProduct = new SearchProduct(productRepository, productCache,
+            new LookupCoalescer(meterRegistry), new ProductListingProperties(), 3);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A lookup that read the product before an update is still running when the update evicts it. A
+     * lookup arriving after the eviction must run its own query instead of joining the old one, and
+     * the product read before the update must not end up in the cache.
+     */
+    @Test
+    void lookupAfterAnEvictionDoesNotJoinALoadStartedBeforeIt() throws Exception {
+        CountDownLatch oldLoadStarted = new CountDownLatch(1);
+        CompletableFuture<Optional<Product>> oldLoad = new CompletableFuture<>();
+        when(productRepository.findById("p1"))
+                .thenAnswer(invocation -> {
+                    oldLoadStarted.countDown();
+                    return oldLoad.get(5, TimeUnit.SECONDS);
+                })
+                .thenReturn(Optional.of(AFTER));
+
+        Future<Product> beforeUpdate = executor.submit(() -> searchProduct.searchById("p1"));
+        assertThat(oldLoadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        productCache.evict(AFTER);
+        Product afterUpdate = searchProduct.searchById("p1");
+        oldLoad.complete(Optional.of(BEFORE));
+
+        assertThat(afterUpdate.getValue()).isEqualByComparingTo("12.00");
+        assertThat(beforeUpdate.get(5, TimeUnit.SECONDS).getValue()).isEqualByComparingTo("10.00");
+        verify(productRepository, times(2)).findById("p1");
+        assertThat(productCache.peekById("p1")).get().extracting(Product::getVersion).isEqualTo(2L);
+        assertThat(productCache.peekByCode("IPHONE16")).get().extracting(Product::getVersion).isEqualTo(2L);
+    }
+
+    @Test
+    void lookupsOfTheSameGenerationShareOneQuery() throws Exception {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CompletableFuture<Optional<Product>> load = new CompletableFuture<>();
+        when(productRepository.findByCode("IPHONE16")).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            return load.get(5, TimeUnit.SECONDS);
+        });
+
+        Future<Product> first = executor.submit(() -> searchProduct.searchByCode("IPHONE16"));
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<Product> second = executor.submit(() -> searchProduct.searchByCode("IPHONE16"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalesced("product.code") == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        load.complete(Optional.of(BEFORE));
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(BEFORE);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(BEFORE);
+        verify(productRepository, times(1)).findByCode("IPHONE16");
+    }
+
+    @Test
+    void batchOverTheLimitIsRejectedBeforeItsKeysAreCollapsed() {
+        BatchLookupRequest request = new BatchLookupRequest(List.of("p1", "p1", "p1", "p1"), null);
+
+        assertThatThrownBy(() -> searchProduct.searchBatch(request))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("A batch lookup accepts at most 3 keys");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void batchWithANullKeyIsABadRequest() {
+        BatchLookupRequest request = new BatchLookupRequest(null, Arrays.asList("IPHONE16", null));
+
+        assertThatThrownBy(() -> searchProduct.searchBatch(request))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("codes must not contain null");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void batchCollapsesDuplicatedKeysAndReportsTheMissingOnes() {
+        when(productRepository.findByCodeIn(Set.of("IPHONE16", "GALAXY"))).thenReturn(List.of(BEFORE));
+
+        BatchLookupResult result = searchProduct.searchBatch(
+                new BatchLookupRequest(null, List.of("GALAXY", "IPHONE16", "GALAXY")));
+
+        assertThat(result.getProducts()).containsExactly(BEFORE);
+        assertThat(result.getMissing()).containsExactly("GALAXY");
+    }
+
+    private double coalesced(String lookup) {
+        return meterRegistry.counter(LookupCoalescer.LOOKUPS, "lookup", lookup, "result", "coalesced").count();
+    }
+
+    private static Product product(BigDecimal value, long version) {
+        return Product.builder().id("p1").code("IPHONE16").name("iPhone 16").value(value).version(version).build();
+    }
+}